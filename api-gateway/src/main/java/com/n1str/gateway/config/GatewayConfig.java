@@ -1,5 +1,8 @@
 package com.n1str.gateway.config;
 
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -39,22 +42,29 @@ public class GatewayConfig {
 }
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 class CorrelationIdGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
 
+    private final Tracer tracer;
+
     @Override
     public GatewayFilter apply(Object config) {
         return (exchange, chain) -> {
-            // Получаем или создаём ID корреляции для трассировки запроса
+            // Получаем ID корреляции клиента; если его нет - берём traceId текущей трассы,
+            // чтобы X-Correlation-Id и traceparent указывали на одну и ту же трассу
             String correlationId = exchange.getRequest().getHeaders().getFirst("X-Correlation-Id");
             if (correlationId == null || correlationId.isEmpty()) {
-                correlationId = UUID.randomUUID().toString();
+                Span span = tracer.currentSpan();
+                correlationId = span != null ? span.context().traceId() : UUID.randomUUID().toString();
             }
             
             final String finalCorrelationId = correlationId;
             
             exchange.getAttributes().put("X-Correlation-Id", finalCorrelationId);
+            exchange.getResponse().getHeaders().set("X-Correlation-Id", finalCorrelationId);
             
+            // traceparent добавляет инструментирование Gateway, сюда попадает только X-Correlation-Id
             return chain.filter(
                 exchange.mutate()
                     .request(exchange.getRequest().mutate()
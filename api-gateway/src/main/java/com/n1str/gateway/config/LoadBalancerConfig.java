@@ -0,0 +1,14 @@
+package com.n1str.gateway.config;
+
+import com.n1str.common.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Маршруты lb:// (и discovery locator) выбирают экземпляр по задержке и числу запросов в полёте
+ * вместо round-robin. Параметры: loadbalancer.peak-ewma.*.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
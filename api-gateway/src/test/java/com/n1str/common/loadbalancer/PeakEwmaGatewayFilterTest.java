@@ -0,0 +1,147 @@
+package com.n1str.common.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.gateway.config.GatewayLoadBalancerProperties;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * Балансировщик на пути Gateway: время старта и ResponseData приходят от ReactiveLoadBalancerClientFilter,
+ * а не от Feign, как в booking-service. Тест лежит в пакете балансировщика из service-commons ради
+ * package-private cost и choose(List).
+ */
+class PeakEwmaGatewayFilterTest {
+
+    private static final String SERVICE_ID = "hotel-service";
+    private static final long MS = 1_000_000L;
+
+    private final ServiceInstance first = instance("hotel-1", 8081);
+    private final ServiceInstance second = instance("hotel-2", 8081);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MS);
+    private final AtomicReference<List<ServiceInstance>> instances = new AtomicReference<>(List.of());
+
+    private PeakEwmaLoadBalancer loadBalancer;
+    private ReactiveLoadBalancerClientFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances.get());
+            }
+        };
+        ObjectProvider<ServiceInstanceListSupplier> supplierProvider = mock(ObjectProvider.class);
+        when(supplierProvider.getIfAvailable(any())).thenReturn(supplier);
+        loadBalancer = new PeakEwmaLoadBalancer(
+                supplierProvider, SERVICE_ID, Duration.ofSeconds(10), 3, Duration.ofSeconds(30), clock::get);
+
+        LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+        when(clientFactory.getInstances(SERVICE_ID, LoadBalancerLifecycle.class))
+                .thenReturn(Map.of("peakEwmaLoadBalancer", loadBalancer));
+        when(clientFactory.getInstance(SERVICE_ID, ReactorServiceInstanceLoadBalancer.class)).thenReturn(loadBalancer);
+        when(clientFactory.getProperties(SERVICE_ID)).thenReturn(new LoadBalancerProperties());
+        filter = new ReactiveLoadBalancerClientFilter(clientFactory, new GatewayLoadBalancerProperties());
+    }
+
+    @Test
+    void filter_ShouldRecordLatencyBetweenStartAndResponse() {
+        instances.set(List.of(first));
+
+        route(50 * MS, HttpStatus.OK);
+
+        assertEquals(50 * MS, loadBalancer.cost(first, clock.get()), MS);
+    }
+
+    @Test
+    void filter_ShouldEjectInstance_WhenGatewayResponsesAre5xx() {
+        // Отказывающий экземпляр отвечает быстрее - без исключения выбирался бы он
+        instances.set(List.of(first));
+        route(100 * MS, HttpStatus.OK);
+        instances.set(List.of(second));
+        for (int i = 0; i < 3; i++) {
+            route(MS, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        assertSame(first, loadBalancer.choose(List.of(first, second)).getServer());
+    }
+
+    @Test
+    void filter_ShouldNotEject_WhenInstanceShedsLoad() {
+        instances.set(List.of(first));
+        route(100 * MS, HttpStatus.OK);
+        instances.set(List.of(second));
+        for (int i = 0; i < 3; i++) {
+            route(MS, HttpStatus.SERVICE_UNAVAILABLE);
+            route(MS, HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        assertSame(second, loadBalancer.choose(List.of(first, second)).getServer());
+    }
+
+    @Test
+    void filter_ShouldCountDownstreamError() {
+        instances.set(List.of(first));
+        route(100 * MS, HttpStatus.OK);
+        instances.set(List.of(second));
+        for (int i = 0; i < 3; i++) {
+            MockServerWebExchange exchange = exchange();
+            Mono<Void> result = filter.filter(exchange, ex -> Mono.error(new IllegalStateException("Connection reset")));
+            assertThrows(IllegalStateException.class, result::block);
+        }
+
+        assertSame(first, loadBalancer.choose(List.of(first, second)).getServer());
+    }
+
+    private void route(long latencyNanos, HttpStatus status) {
+        MockServerWebExchange exchange = exchange();
+        // Цепочка дальше фильтра - "проксирование": время идёт, downstream отвечает статусом
+        filter.filter(exchange, ex -> Mono.fromRunnable(() -> {
+            clock.addAndGet(latencyNanos);
+            ex.getResponse().setStatusCode(status);
+        })).block();
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/hotels").build());
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("lb://" + SERVICE_ID + "/api/hotels"));
+        return exchange;
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host + ":" + port, SERVICE_ID, host, port, false);
+    }
+}
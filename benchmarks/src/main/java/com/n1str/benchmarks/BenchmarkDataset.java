@@ -0,0 +1,73 @@
+package com.n1str.benchmarks;
+
+import com.n1str.hotel.HotelServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Поднимает hotel-service в профиле benchmark и заполняет H2 синтетическими данными:
+ * rooms номеров (по 100 на отель) и blocksPerRoom подтверждённых блоков на номер в пределах horizonDays.
+ * Генератор детерминированный, поэтому прогоны сравнимы между собой.
+ */
+public final class BenchmarkDataset {
+
+    public static final int ROOMS_PER_HOTEL = 100;
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDataset() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(HotelServiceApplication.class)
+                .profiles("benchmark")
+                .properties(properties)
+                .run();
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int rooms, int blocksPerRoom, int horizonDays, long seed) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+
+        int hotels = (rooms + ROOMS_PER_HOTEL - 1) / ROOMS_PER_HOTEL;
+        List<Object[]> hotelRows = new ArrayList<>(hotels);
+        for (int h = 1; h <= hotels; h++) {
+            hotelRows.add(new Object[]{(long) h, "Hotel " + h, "Street " + h});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO hotels (id, name, address) VALUES (?, ?, ?)", hotelRows);
+
+        List<Object[]> roomRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> blockRows = new ArrayList<>(BATCH_SIZE);
+        for (long roomId = 1; roomId <= rooms; roomId++) {
+            long hotelId = (roomId - 1) / ROOMS_PER_HOTEL + 1;
+            roomRows.add(new Object[]{roomId, hotelId, String.valueOf(roomId), "STANDARD", 100.0 + random.nextInt(200), 2});
+            for (int b = 0; b < blocksPerRoom; b++) {
+                LocalDate start = today.plusDays(random.nextInt(horizonDays));
+                LocalDate end = start.plusDays(1 + random.nextInt(6));
+                blockRows.add(new Object[]{roomId, Date.valueOf(start), Date.valueOf(end), createdAt});
+            }
+            if (roomRows.size() >= BATCH_SIZE) {
+                flush(jdbcTemplate, roomRows, blockRows);
+            }
+        }
+        flush(jdbcTemplate, roomRows, blockRows);
+    }
+
+    private static void flush(JdbcTemplate jdbcTemplate, List<Object[]> roomRows, List<Object[]> blockRows) {
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (id, hotel_id, number, available, times_booked, room_type, " +
+                "price_per_night, capacity, version) VALUES (?, ?, ?, TRUE, 0, ?, ?, ?, 0)", roomRows);
+        jdbcTemplate.batchUpdate("INSERT INTO room_blocks (room_id, start_date, end_date, status, created_at) " +
+                "VALUES (?, ?, ?, 'CONFIRMED', ?)", blockRows);
+        roomRows.clear();
+        blockRows.clear();
+    }
+}
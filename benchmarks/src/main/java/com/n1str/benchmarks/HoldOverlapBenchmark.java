@@ -0,0 +1,105 @@
+package com.n1str.benchmarks;
+
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.ReleaseRoomRequest;
+import com.n1str.hotel.service.RoomBlockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка пересечений в RoomBlockService.confirmAvailability на одном номере за вызов:
+ * conflictingHold - даты совпадают с подтверждённым блоком, HOLD отклоняется (откат транзакции);
+ * freeHoldAndRelease - даты за горизонтом данных, HOLD создаётся и сразу снимается releaseRoom,
+ * чтобы набор данных не рос от итерации к итерации. Номера перебираются по кругу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoldOverlapBenchmark {
+
+    private static final int HORIZON_DAYS = 365;
+
+    @Param({"1000", "10000"})
+    private int rooms;
+
+    @Param({"20", "200"})
+    private int blocksPerRoom;
+
+    @Param({"7"})
+    private int nights;
+
+    private ConfigurableApplicationContext context;
+    private RoomBlockService roomBlockService;
+    private List<BookedDates> conflicting;
+    private LocalDate freeStart;
+    private LocalDate freeEnd;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkDataset.seed(jdbcTemplate, rooms, blocksPerRoom, HORIZON_DAYS, 42L);
+        roomBlockService = context.getBean(RoomBlockService.class);
+
+        // Первый подтверждённый блок каждого номера - заведомо занятые даты
+        conflicting = jdbcTemplate.query(
+                "SELECT rb.room_id, rb.start_date, rb.end_date FROM room_blocks rb " +
+                        "WHERE rb.id IN (SELECT MIN(id) FROM room_blocks GROUP BY room_id) ORDER BY rb.room_id",
+                (rs, rowNum) -> new BookedDates(rs.getLong("room_id"),
+                        rs.getDate("start_date").toLocalDate(), rs.getDate("end_date").toLocalDate()));
+        freeStart = LocalDate.now().plusDays(HORIZON_DAYS + 30);
+        freeEnd = freeStart.plusDays(nights);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean conflictingHold() {
+        BookedDates booked = conflicting.get((int) (sequence++ % conflicting.size()));
+        ConfirmAvailabilityRequest request = new ConfirmAvailabilityRequest(
+                booked.startDate(), booked.endDate(), booked.roomId(), "bench-conflict-" + sequence);
+        try {
+            roomBlockService.confirmAvailability(booked.roomId(), request);
+            return false;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    @Benchmark
+    public String freeHoldAndRelease() {
+        long roomId = sequence++ % rooms + 1;
+        String requestId = "bench-free-" + sequence;
+        roomBlockService.confirmAvailability(roomId,
+                new ConfirmAvailabilityRequest(freeStart, freeEnd, roomId, requestId));
+        roomBlockService.releaseRoom(roomId, new ReleaseRoomRequest(requestId));
+        return requestId;
+    }
+
+    private record BookedDates(long roomId, LocalDate startDate, LocalDate endDate) {
+    }
+}
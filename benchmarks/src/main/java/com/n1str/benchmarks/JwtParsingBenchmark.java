@@ -0,0 +1,92 @@
+package com.n1str.benchmarks;
+
+import com.n1str.hotel.security.JwtUtil;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор JWT в hotel-service: отдельные методы JwtUtil и полный набор вызовов JwtAuthenticationFilter
+ * на один запрос (extractUsername, validateToken, extractRoles - три проверки подписи).
+ * Токен подписан тем же секретом и в том же формате, что выдаёт booking-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParsingBenchmark {
+
+    // jwt.secret из application.yml hotel-service
+    private static final String SECRET = "my-secret-key-for-jwt-token-generation-at-least-256-bits-long-for-HS256-algorithm";
+
+    @Param({"1", "10"})
+    private int roles;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtil = new JwtUtil();
+        Field secret = JwtUtil.class.getDeclaredField("secret");
+        secret.setAccessible(true);
+        secret.set(jwtUtil, SECRET);
+
+        List<String> roleList = new ArrayList<>(roles);
+        roleList.add("ROLE_USER");
+        for (int i = 1; i < roles; i++) {
+            roleList.add("ROLE_EXTRA_" + i);
+        }
+        token = Jwts.builder()
+                .subject("benchmark-user")
+                .claim("uid", 1L)
+                .claim("roles", roleList)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public List<String> extractRoles() {
+        return jwtUtil.extractRoles(token);
+    }
+
+    @Benchmark
+    public void authenticationFilter(Blackhole blackhole) {
+        blackhole.consume(jwtUtil.extractUsername(token));
+        blackhole.consume(jwtUtil.validateToken(token));
+        blackhole.consume(jwtUtil.extractRoles(token));
+    }
+}
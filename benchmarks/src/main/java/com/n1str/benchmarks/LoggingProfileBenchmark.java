@@ -0,0 +1,94 @@
+package com.n1str.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность логирования одного HOLD-а в профилях dev и prod hotel-service.
+ * Конфигурация - настоящий logback-spring.xml сервиса, уровни - как в application.yml и application-prod.yml:
+ * dev - синхронная консоль и DEBUG, prod - AsyncAppender с JSON, INFO и HotPathSamplingFilter.
+ * Вывод идёт в stdout, который на время замера перенаправлен в никуда - измеряется стоимость
+ * логирования для потока запроса, а не скорость терминала.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingProfileBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger("com.n1str.hotel.service.RoomBlockService");
+
+    @Param({"dev", "prod"})
+    private String profile;
+
+    private final AtomicLong requests = new AtomicLong();
+    private LoggingSystem loggingSystem;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.setActiveProfiles(profile);
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("spring.application.name", "hotel-service")));
+
+        loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+        loggingSystem.setLogLevel("com.n1str", "prod".equals(profile) ? LogLevel.INFO : LogLevel.DEBUG);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggingSystem.cleanUp();
+        System.setOut(originalOut);
+    }
+
+    /**
+     * Пять строк лога на один HOLD: две INFO из RoomBlockService.holdRoom и три DEBUG уровня подробностей шагов.
+     */
+    @Benchmark
+    public long holdRequestLogging() {
+        long id = requests.incrementAndGet();
+        String requestId = "req-" + id;
+        LocalDate start = LocalDate.of(2026, 12, 30);
+        log.info("[requestId:{}] Подтверждаем доступность номера {} с {} по {}", requestId, id % 100, start, start.plusDays(3));
+        log.debug("[requestId:{}] Номер {} заблокирован для проверки пересечений", requestId, id % 100);
+        log.debug("[requestId:{}] Найдено {} пересекающихся блоков", requestId, 0);
+        log.info("[requestId:{}] HOLD создан (блок PENDING до {}) для бронирования {}", requestId, start, id);
+        log.debug("[requestId:{}] Событие изменения блоков опубликовано", requestId);
+        return id;
+    }
+}
@@ -0,0 +1,63 @@
+package com.n1str.benchmarks;
+
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.service.RoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RoomService.getRecommendedRooms целиком, через Spring-прокси с транзакцией: выборка доступных номеров,
+ * сортировка по timesBooked, проверка занятости на сегодня по каждому номеру и маппинг в RoomDto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendedRoomsBenchmark {
+
+    private static final int HORIZON_DAYS = 365;
+
+    @Param({"1000", "10000"})
+    private int rooms;
+
+    @Param({"20"})
+    private int blocksPerRoom;
+
+    private ConfigurableApplicationContext context;
+    private RoomService roomService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start();
+        BenchmarkDataset.seed(context.getBean(JdbcTemplate.class), rooms, blocksPerRoom, HORIZON_DAYS, 42L);
+        roomService = context.getBean(RoomService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RoomDto> getRecommendedRooms() {
+        return roomService.getRecommendedRooms();
+    }
+}
@@ -0,0 +1,125 @@
+package com.n1str.benchmarks;
+
+import com.n1str.hotel.entity.Room;
+import com.n1str.hotel.entity.RoomBlock;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomBlockRepository.BlockInterval;
+import com.n1str.hotel.repository.RoomRepository;
+import com.n1str.hotel.service.RoomOccupancyMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Какие номера свободны на [start, end]" тремя способами:
+ * findConflictingBlocks по каждому номеру (как проверяет RoomBlockService), один запрос NOT EXISTS
+ * (RoomAvailabilityService без матрицы) и OR-скан строк RoomOccupancyMatrix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomAvailabilityBenchmark {
+
+    private static final int HORIZON_DAYS = 365;
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"1000", "10000"})
+    private int rooms;
+
+    @Param({"20"})
+    private int blocksPerRoom;
+
+    @Param({"7"})
+    private int nights;
+
+    private ConfigurableApplicationContext context;
+    private RoomRepository roomRepository;
+    private RoomBlockRepository roomBlockRepository;
+    private TransactionTemplate transactionTemplate;
+    private RoomOccupancyMatrix matrix;
+    private List<Long> roomIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start();
+        BenchmarkDataset.seed(context.getBean(JdbcTemplate.class), rooms, blocksPerRoom, HORIZON_DAYS, 42L);
+        roomRepository = context.getBean(RoomRepository.class);
+        roomBlockRepository = context.getBean(RoomBlockRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        roomIds = roomRepository.findAllIds();
+        matrix = new RoomOccupancyMatrix(LocalDate.now(), HORIZON_DAYS + 10, roomIds.size());
+        for (int from = 0; from < roomIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = roomIds.subList(from, Math.min(from + CHUNK_SIZE, roomIds.size()));
+            chunk.forEach(matrix::register);
+            for (BlockInterval block : roomBlockRepository.findIntervalsForRooms(chunk, matrix.getOrigin())) {
+                matrix.occupy(block.getRoomId(), block.getStartDate(), block.getEndDate());
+            }
+        }
+
+        startDate = LocalDate.now().plusDays(HORIZON_DAYS / 2);
+        endDate = startDate.plusDays(nights);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int conflictScanPerRoom() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int free = 0;
+            for (Long roomId : roomIds) {
+                List<RoomBlock> conflicts = roomBlockRepository.findConflictingBlocks(roomId, startDate, endDate);
+                if (conflicts.stream().noneMatch(block -> isActive(block, now))) {
+                    free++;
+                }
+            }
+            return free;
+        });
+    }
+
+    @Benchmark
+    public int notExistsQuery() {
+        return transactionTemplate.execute(status -> {
+            List<Room> free = roomRepository.findFreeRooms(startDate, endDate, LocalDateTime.now(), Pageable.unpaged());
+            return free.size();
+        });
+    }
+
+    @Benchmark
+    public long[] occupancyMatrix() {
+        return matrix.findFreeRoomIds(startDate, endDate);
+    }
+
+    // То же правило, что RoomBlockService.isActive
+    private static boolean isActive(RoomBlock block, LocalDateTime now) {
+        return "CONFIRMED".equals(block.getStatus()) || block.getExpiresAt() == null || block.getExpiresAt().isAfter(now);
+    }
+}
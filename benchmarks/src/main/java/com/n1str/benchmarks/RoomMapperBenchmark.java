@@ -0,0 +1,87 @@
+package com.n1str.benchmarks;
+
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.entity.Hotel;
+import com.n1str.hotel.entity.Room;
+import com.n1str.hotel.mapper.RoomMapper;
+import com.n1str.hotel.mapper.RoomMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сгенерированный MapStruct RoomMapper.toDto на списке из size номеров без Spring и базы:
+ * циклом в заранее выделенный список и через stream, как в RoomService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomMapperBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private final RoomMapper roomMapper = new RoomMapperImpl();
+    private List<Room> roomList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        int hotels = (size + BenchmarkDataset.ROOMS_PER_HOTEL - 1) / BenchmarkDataset.ROOMS_PER_HOTEL;
+        List<Hotel> hotelList = new ArrayList<>(hotels);
+        for (long h = 1; h <= hotels; h++) {
+            Hotel hotel = new Hotel();
+            hotel.setId(h);
+            hotel.setName("Hotel " + h);
+            hotel.setAddress("Street " + h);
+            hotelList.add(hotel);
+        }
+
+        roomList = new ArrayList<>(size);
+        for (long roomId = 1; roomId <= size; roomId++) {
+            Room room = new Room();
+            room.setId(roomId);
+            room.setHotel(hotelList.get((int) ((roomId - 1) / BenchmarkDataset.ROOMS_PER_HOTEL)));
+            room.setNumber(String.valueOf(roomId));
+            room.setTimesBooked(random.nextInt(100));
+            room.setRoomType("STANDARD");
+            room.setPricePerNight(100.0 + random.nextInt(200));
+            room.setCapacity(2);
+            roomList.add(room);
+        }
+    }
+
+    @Benchmark
+    public List<RoomDto> toDtoLoop() {
+        List<RoomDto> result = new ArrayList<>(roomList.size());
+        for (Room room : roomList) {
+            result.add(roomMapper.toDto(room));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<RoomDto> toDtoStream() {
+        return roomList.stream()
+                .map(roomMapper::toDto)
+                .collect(Collectors.toList());
+    }
+}
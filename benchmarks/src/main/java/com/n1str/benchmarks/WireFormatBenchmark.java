@@ -0,0 +1,110 @@
+package com.n1str.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.n1str.hotel.dto.BatchConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.dto.RoomHoldItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON против CBOR на телах внутренних вызовов booking-service -> hotel-service: HOLD одного номера
+ * (confirm), пакетный HOLD группы (batch), ответ /api/rooms/recommend (recommended).
+ * Мапперы настроены как в сервисах (Jackson2ObjectMapperBuilder, даты строками).
+ * Размер сообщения в байтах печатается при подготовке каждой комбинации параметров.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"confirm", "batch", "recommended"})
+    private String payload;
+
+    @Param({"10"})
+    private int groupSize;
+
+    @Param({"100"})
+    private int recommendedRooms;
+
+    private ObjectMapper mapper;
+    private Object message;
+    private JavaType messageType;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = "cbor".equals(format)
+                ? Jackson2ObjectMapperBuilder.cbor()
+                : Jackson2ObjectMapperBuilder.json();
+        mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        Random random = new Random(42L);
+        LocalDate startDate = LocalDate.now().plusDays(30);
+        LocalDate endDate = startDate.plusDays(3);
+        switch (payload) {
+            case "confirm" -> {
+                message = new ConfirmAvailabilityRequest(startDate, endDate, 12345L, UUID.randomUUID().toString());
+                messageType = mapper.constructType(ConfirmAvailabilityRequest.class);
+            }
+            case "batch" -> {
+                List<RoomHoldItem> holds = new ArrayList<>(groupSize);
+                for (int i = 0; i < groupSize; i++) {
+                    holds.add(new RoomHoldItem(1L + random.nextInt(10_000), 100_000L + i, UUID.randomUUID().toString()));
+                }
+                message = new BatchConfirmAvailabilityRequest(startDate, endDate, holds);
+                messageType = mapper.constructType(BatchConfirmAvailabilityRequest.class);
+            }
+            case "recommended" -> {
+                List<RoomDto> rooms = new ArrayList<>(recommendedRooms);
+                for (long id = 1; id <= recommendedRooms; id++) {
+                    rooms.add(new RoomDto(id, (id - 1) / BenchmarkDataset.ROOMS_PER_HOTEL + 1, String.valueOf(100 + id),
+                            true, random.nextInt(50), "STANDARD", 100.0 + random.nextInt(200), 2));
+                }
+                message = rooms;
+                messageType = mapper.getTypeFactory().constructCollectionType(List.class, RoomDto.class);
+            }
+            default -> throw new IllegalArgumentException("Неизвестный payload: " + payload);
+        }
+        encoded = mapper.writeValueAsBytes(message);
+        System.out.printf("%n[wire-format] %s/%s: %d B%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return mapper.readValue(encoded, messageType);
+    }
+}
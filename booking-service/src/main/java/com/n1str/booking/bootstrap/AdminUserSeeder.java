@@ -0,0 +1,73 @@
+package com.n1str.booking.bootstrap;
+
+import com.n1str.booking.entity.User;
+import com.n1str.booking.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Гарантирует наличие администратора. Пароль задаётся заранее вычисленным BCrypt-хэшем,
+ * поэтому при старте не выполняется ни одного encode/matches.
+ * Хэш используется только для новой учётной записи: у существующей пароль не трогаем - его мог
+ * пересчитать UserService при входе (более высокий cost) или сменить сам администратор.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdminUserSeeder implements SeedDataInitializer {
+
+    private final UserRepository userRepository;
+
+    @Value("${bootstrap.admin.username:admin}")
+    private String username;
+
+    @Value("${bootstrap.admin.password-hash}")
+    private String passwordHash;
+
+    @Override
+    public String getName() {
+        return "admin-user";
+    }
+
+    /**
+     * Без общей транзакции: вставка, проигравшая гонку другому экземпляру, откатывает только свою
+     * транзакцию репозитория и не помечает внешнюю как rollback-only.
+     */
+    @Override
+    public void seed() {
+        userRepository.findByUsername(username).ifPresentOrElse(existing -> {
+            boolean hasPassword = existing.getPassword() != null && !existing.getPassword().isBlank();
+            if (hasPassword && "ADMIN".equals(existing.getRole())) {
+                log.debug("Администратор {} уже в актуальном состоянии", username);
+                return;
+            }
+            if (!hasPassword) {
+                existing.setPassword(passwordHash);
+            }
+            existing.setRole("ADMIN");
+            if (existing.getCreatedAt() == null) {
+                existing.setCreatedAt(LocalDateTime.now());
+            }
+            userRepository.save(existing);
+            log.info("Учётная запись администратора {} обновлена", username);
+        }, () -> {
+            User admin = new User();
+            admin.setUsername(username);
+            admin.setPassword(passwordHash);
+            admin.setRole("ADMIN");
+            admin.setCreatedAt(LocalDateTime.now());
+            try {
+                userRepository.saveAndFlush(admin);
+                log.info("Создан администратор {}", username);
+            } catch (DataIntegrityViolationException e) {
+                // Другой экземпляр сервиса успел создать администратора раньше
+                log.info("Администратор {} уже создан параллельно", username);
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.n1str.booking.bootstrap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Запускает все SeedDataInitializer после ApplicationReadyEvent. По умолчанию асинхронно,
+ * чтобы сервис начинал принимать трафик (readiness) сразу после подъёма HTTP-стека.
+ * Пишет в лог разбивку времени старта по фазам.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeedDataBootstrap {
+
+    private final List<SeedDataInitializer> initializers;
+
+    @Value("${bootstrap.seed.async:true}")
+    private boolean async;
+
+    private Duration startedIn;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onStarted(ApplicationStartedEvent event) {
+        startedIn = event.getTimeTaken();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Фазы старта: контекст поднят за {} мс, готов к трафику за {} мс",
+                startedIn != null ? startedIn.toMillis() : -1,
+                event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1);
+
+        if (async) {
+            CompletableFuture.runAsync(this::runAll, runnable -> {
+                Thread thread = new Thread(runnable, "seed-data-bootstrap");
+                thread.setDaemon(true);
+                thread.start();
+            });
+        } else {
+            runAll();
+        }
+    }
+
+    private void runAll() {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (SeedDataInitializer initializer : initializers) {
+            long start = System.nanoTime();
+            try {
+                initializer.seed();
+            } catch (RuntimeException e) {
+                log.error("Шаг начальных данных {} завершился ошибкой: {}", initializer.getName(), e.getMessage(), e);
+            }
+            timings.put(initializer.getName(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+        log.info("Начальные данные загружены, время по шагам (мс): {}", timings);
+    }
+}
@@ -0,0 +1,12 @@
+package com.n1str.booking.bootstrap;
+
+/**
+ * Шаг начального наполнения данных. Реализации регистрируются как бины и выполняются
+ * SeedDataBootstrap после старта приложения; каждый шаг обязан быть идемпотентным.
+ */
+public interface SeedDataInitializer {
+
+    String getName();
+
+    void seed();
+}
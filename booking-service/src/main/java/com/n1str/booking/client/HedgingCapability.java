@@ -0,0 +1,335 @@
+package com.n1str.booking.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Hedged requests для идемпотентных чтений hotel-service: если ответ не пришёл за наблюдаемый p95 метода,
+ * отправляется копия запроса и берётся первый успешный ответ, ответ проигравшего закрывается.
+ * Копия проходит через балансировщик заново. У зависшего экземпляра уже есть запрос в полёте, и его стоимость
+ * в PeakEwmaLoadBalancer выше, поэтому копия обычно уходит на другой экземпляр - но не гарантированно:
+ * при двух экземплярах power of two choices может сравнить зависший сам с собой.
+ * Бюджет: каждый запрос добавляет budgetRatio токена (не больше maxBurst), копия тратит один - в среднем
+ * копий не больше budgetRatio от числа запросов, и при общей деградации hotel-service нагрузка не удваивается.
+ * Класс публичный: Feign вызывает enrich-методы Capability через reflection.
+ */
+@Slf4j
+public class HedgingCapability implements Capability, DisposableBean {
+
+    // Не пересчитываем p95 чаще: снимок гистограммы дороже самого сравнения
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int SERVER_ERROR = 500;
+
+    private final Map<String, MethodHedging> methods = new HashMap<>();
+    private final HedgeBudget budget;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final LongSupplier clock;
+
+    public HedgingCapability(Collection<String> methodNames, Duration initialDelay, Duration minDelay,
+                             int minSamples, double budgetRatio, int maxBurst, int threads,
+                             MeterRegistry meterRegistry, LongSupplier clock) {
+        this.budget = new HedgeBudget(budgetRatio, maxBurst);
+        this.clock = clock;
+        for (String method : methodNames) {
+            methods.put(method, new MethodHedging(method, initialDelay, minDelay, minSamples, meterRegistry));
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Без очереди: ожидание свободного потока съело бы весь выигрыш от копии
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hotel-hedging-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // Трасса и MDC вызывающего потока переносятся в поток попытки
+        this.executor = ContextExecutorService.wrap(pool, ContextSnapshotFactory.builder().build()::captureAll);
+        Gauge.builder("feign.hedging.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("Попытки hedged-методов, выполняющиеся сейчас")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            MethodHedging method = methodOf(request);
+            return method == null ? client.execute(request, options) : execute(client, request, options, method);
+        };
+    }
+
+    private MethodHedging methodOf(Request request) {
+        RequestTemplate template = request.requestTemplate();
+        if (template == null || template.methodMetadata() == null) {
+            return null;
+        }
+        return methods.get(template.methodMetadata().method().getName());
+    }
+
+    Response execute(Client client, Request request, Request.Options options, MethodHedging method) throws IOException {
+        budget.deposit();
+        CompletableFuture<Response> primary;
+        try {
+            primary = attempt(client, request, options, method);
+        } catch (RejectedExecutionException e) {
+            // Пул занят - обычный вызов без копии
+            method.skipped.increment();
+            return client.execute(request, options);
+        }
+
+        long delayNanos = method.hedgeDelayNanos(clock.getAsLong());
+        try {
+            return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Ответа нет дольше p95 - пора отправлять копию
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            primary.thenAccept(HedgingCapability::close);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for hotel-service", e);
+        }
+
+        CompletableFuture<Response> hedge = null;
+        if (budget.tryAcquire()) {
+            try {
+                hedge = attempt(client, request, options, method);
+            } catch (RejectedExecutionException e) {
+                budget.refund();
+            }
+        }
+        if (hedge == null) {
+            method.skipped.increment();
+            return await(primary);
+        }
+        log.debug("Нет ответа hotel-service на {} за {} мс, отправлена копия запроса",
+                method.name, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+
+        CompletableFuture<Response> first = firstSuccessful(primary, hedge);
+        Response response = await(first);
+        boolean primaryWon = primary.isDone() && !primary.isCompletedExceptionally() && primary.join() == response;
+        (primaryWon ? method.primaryWon : method.hedgeWon).increment();
+        return response;
+    }
+
+    private CompletableFuture<Response> attempt(Client client, Request request, Request.Options options,
+                                                MethodHedging method) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = clock.getAsLong();
+            try {
+                Response response = client.execute(request, options);
+                method.latency.record(clock.getAsLong() - start, TimeUnit.NANOSECONDS);
+                return response;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Первый успешный ответ из двух; ответ, пришедший вторым, закрывается (возвращает соединение в пул).
+     * 5xx - такая же неудача, как исключение: ждём вторую попытку. Если упали обе, возвращается последний
+     * 5xx-ответ (его разберёт ErrorDecoder) или ошибка, если ответа не было ни у одной.
+     */
+    private static CompletableFuture<Response> firstSuccessful(CompletableFuture<Response> primary,
+                                                               CompletableFuture<Response> hedge) {
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Response> failedResponse = new AtomicReference<>();
+        for (CompletableFuture<Response> attempt : List.of(primary, hedge)) {
+            attempt.whenComplete((response, error) -> {
+                if (error == null && response.status() < SERVER_ERROR) {
+                    if (first.complete(response)) {
+                        close(failedResponse.getAndSet(null));
+                    } else {
+                        close(response);
+                    }
+                } else if (failures.incrementAndGet() == 1) {
+                    // 5xx придерживаем на случай, если вторая попытка тоже упадёт
+                    failedResponse.set(response);
+                    if (first.isDone()) {
+                        close(failedResponse.getAndSet(null));
+                    }
+                } else {
+                    Response earlier = failedResponse.getAndSet(null);
+                    if (response != null) {
+                        close(earlier);
+                        first.complete(response);
+                    } else if (earlier != null) {
+                        first.complete(earlier);
+                    } else {
+                        first.completeExceptionally(error);
+                    }
+                }
+            });
+        }
+        return first;
+    }
+
+    private static Response await(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            future.thenAccept(HedgingCapability::close);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for hotel-service", e);
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof UncheckedIOException unchecked) {
+            return unchecked.getCause();
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IOException(cause);
+    }
+
+    private static void close(Response response) {
+        if (response != null) {
+            response.close();
+        }
+    }
+
+    long hedgeDelayNanos(String method) {
+        return methods.get(method).hedgeDelayNanos(clock.getAsLong());
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    final class MethodHedging {
+
+        private final String name;
+        private final long initialDelayNanos;
+        private final long minDelayNanos;
+        private final int minSamples;
+        private final Timer latency;
+        private final Counter primaryWon;
+        private final Counter hedgeWon;
+        private final Counter skipped;
+
+        private volatile long delayNanos;
+        private volatile long refreshedAt;
+
+        MethodHedging(String name, Duration initialDelay, Duration minDelay, int minSamples,
+                      MeterRegistry meterRegistry) {
+            this.name = name;
+            this.initialDelayNanos = initialDelay.toNanos();
+            this.minDelayNanos = minDelay.toNanos();
+            this.minSamples = minSamples;
+            this.delayNanos = initialDelayNanos;
+            this.refreshedAt = clock.getAsLong();
+            this.latency = Timer.builder("feign.hedging.latency")
+                    .description("Время одной попытки hedged-метода, по нему считается задержка копии")
+                    .tag("method", name)
+                    .publishPercentiles(0.95)
+                    .distributionStatisticExpiry(Duration.ofMinutes(1))
+                    .register(meterRegistry);
+            this.primaryWon = outcomeCounter(meterRegistry, name, "primary");
+            this.hedgeWon = outcomeCounter(meterRegistry, name, "hedge");
+            this.skipped = outcomeCounter(meterRegistry, name, "skipped");
+        }
+
+        long hedgeDelayNanos(long now) {
+            if (now - refreshedAt >= DELAY_REFRESH_NANOS) {
+                refreshedAt = now;
+                delayNanos = observedP95();
+            }
+            return delayNanos;
+        }
+
+        private long observedP95() {
+            HistogramSnapshot snapshot = latency.takeSnapshot();
+            if (snapshot.count() < minSamples) {
+                return initialDelayNanos;
+            }
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                if (percentile.percentile() == 0.95) {
+                    return Math.max(minDelayNanos, (long) percentile.value(TimeUnit.NANOSECONDS));
+                }
+            }
+            return initialDelayNanos;
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String method, String result) {
+        return Counter.builder("feign.hedging.requests")
+                .description("Запросы hedged-методов, не уложившиеся в p95: чей ответ взят или почему копии не было")
+                .tag("method", method)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    static final class HedgeBudget {
+
+        private final double ratio;
+        private final double capacity;
+        private double tokens;
+
+        HedgeBudget(double ratio, int maxBurst) {
+            this.ratio = ratio;
+            this.capacity = maxBurst;
+            this.tokens = maxBurst;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(capacity, tokens + ratio);
+        }
+
+        synchronized boolean tryAcquire() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.n1str.booking.client;
 
+import com.n1str.booking.dto.BatchConfirmAvailabilityRequest;
+import com.n1str.booking.dto.BatchHoldRequest;
+import com.n1str.booking.dto.CommitHoldRequest;
+import com.n1str.booking.dto.ConfirmAvailabilityRequest;
+import com.n1str.booking.dto.ReleaseRoomRequest;
 import com.n1str.booking.dto.RoomDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 @FeignClient(name = "hotel-service")
 public interface HotelServiceClient {
@@ -19,12 +23,26 @@ public interface HotelServiceClient {
     @PostMapping("/api/rooms/{id}/confirm-availability")
     void confirmAvailability(
             @PathVariable("id") Long roomId,
-            @RequestBody Map<String, Object> request);
+            @RequestBody ConfirmAvailabilityRequest request);
+
+    @PostMapping("/api/rooms/{id}/commit")
+    void commitRoomHold(
+            @PathVariable("id") Long roomId,
+            @RequestBody CommitHoldRequest request);
 
     @PostMapping("/api/rooms/{id}/release")
     void releaseRoom(
             @PathVariable("id") Long roomId,
-            @RequestBody Map<String, String> request);
+            @RequestBody ReleaseRoomRequest request);
+
+    @PostMapping("/api/rooms/batch/confirm-availability")
+    List<RoomDto> confirmAvailabilityBatch(@RequestBody BatchConfirmAvailabilityRequest request);
+
+    @PostMapping("/api/rooms/batch/commit")
+    void commitRoomHolds(@RequestBody BatchHoldRequest request);
+
+    @PostMapping("/api/rooms/batch/release")
+    void releaseRoomHolds(@RequestBody BatchHoldRequest request);
 
     @PostMapping("/api/rooms/{id}/increment-booking")
     void incrementTimesBooked(@PathVariable("id") Long roomId);
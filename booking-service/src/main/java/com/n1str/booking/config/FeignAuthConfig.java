@@ -12,6 +12,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 @Slf4j
 public class FeignAuthConfig {
 
+    // В профиле prod переопределяется spring.cloud.openfeign.client.config.default.logger-level: NONE
     @Bean
     public Logger.Level feignLoggerLevel() {
         return Logger.Level.FULL;
@@ -28,10 +29,7 @@ public class FeignAuthConfig {
                         template.header("Authorization", authorization);
                         log.debug("Authorization header forwarded to Feign request");
                     }
-                    String traceId = attrs.getRequest().getHeader("X-Trace-Id");
-                    if (traceId != null && !traceId.isBlank()) {
-                        template.header("X-Trace-Id", traceId);
-                    }
+                    // traceparent и baggage (X-Correlation-Id) добавляет feign-micrometer из текущего спана
                 } else {
                     log.debug("Нет HTTP контекста для Feign запроса - обнаружен вызов сервис-сервис");
                 }
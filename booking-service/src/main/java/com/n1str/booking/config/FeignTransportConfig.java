@@ -0,0 +1,144 @@
+package com.n1str.booking.config;
+
+import com.n1str.booking.client.HedgingCapability;
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Транспорт Feign-вызовов hotel-service. По умолчанию - пул Apache HttpClient 5 (размеры пула задаются
+ * spring.cloud.openfeign.httpclient.*), в профиле http2 - java.net.http.HttpClient с HTTP/2 (h2c).
+ * Таймауты чтения можно задать по методам клиента: hotel-client.read-timeouts.<метод>.
+ * Идемпотентные чтения дублируются при ответе дольше p95 (hotel-client.hedging.*, см. HedgingCapability).
+ * Метрики пула: httpcomponents.httpclient.pool.*, переиспользование соединений:
+ * feign.httpclient.requests (connection=new|reused) - только для HttpClient 5.
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    @Bean
+    public HttpClientBuilderCustomizer hotelClientKeepAliveCustomizer(
+            @Value("${hotel-client.keep-alive:15s}") Duration keepAlive,
+            MeterRegistry meterRegistry) {
+        Counter newConnection = connectionCounter(meterRegistry, "new");
+        Counter reusedConnection = connectionCounter(meterRegistry, "reused");
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(keepAlive.toMillis());
+        return builder -> builder
+                // Держим соединение не дольше keep-alive, даже если сервер разрешает больше: иначе Tomcat
+                // закроет простаивающее соединение первым и запрос уйдёт в уже закрытый сокет
+                .setKeepAliveStrategy((response, context) -> DefaultConnectionKeepAliveStrategy.INSTANCE
+                        .getKeepAliveDuration(response, context).min(maxKeepAlive))
+                .addExecInterceptorFirst("connection-reuse-metrics", (request, scope, chain) -> {
+                    ClassicHttpResponse response = chain.proceed(request, scope);
+                    // Счётчик запросов соединения: 1 - соединение открыто под этот запрос
+                    EndpointDetails endpoint = scope.clientContext.getEndpointDetails();
+                    if (endpoint != null) {
+                        (endpoint.getRequestCount() > 1 ? reusedConnection : newConnection).increment();
+                    }
+                    return response;
+                });
+    }
+
+    @Bean
+    public MeterBinder hotelClientPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        // В профиле http2 пула HttpClient 5 нет - метрики пула не регистрируются
+        return registry -> connectionManager.ifAvailable(manager -> {
+            if (manager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        });
+    }
+
+    // Все вызовы hotel-service из booking-service - шаги саги: и чтения номера, и HOLD/commit/release
+    // обслуживаются полосой SAGA, а не общей с публичным поиском
+    @Bean
+    public RequestInterceptor trafficLaneRequestInterceptor() {
+        return template -> template.header("X-Traffic-Lane", "saga");
+    }
+
+    @Bean
+    public Capability methodReadTimeoutCapability(Environment environment) {
+        return new MethodReadTimeoutCapability(Binder.get(environment)
+                .bind("hotel-client.read-timeouts", Bindable.mapOf(String.class, Duration.class))
+                .orElse(Map.of()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "hotel-client.hedging.enabled", havingValue = "true", matchIfMissing = true)
+    public HedgingCapability hedgingCapability(
+            @Value("${hotel-client.hedging.methods:getRoomById,getRecommendedRooms}") List<String> methods,
+            @Value("${hotel-client.hedging.initial-delay:200ms}") Duration initialDelay,
+            @Value("${hotel-client.hedging.min-delay:10ms}") Duration minDelay,
+            @Value("${hotel-client.hedging.min-samples:20}") int minSamples,
+            @Value("${hotel-client.hedging.budget-ratio:0.1}") double budgetRatio,
+            @Value("${hotel-client.hedging.max-burst:10}") int maxBurst,
+            @Value("${hotel-client.hedging.threads:64}") int threads,
+            MeterRegistry meterRegistry) {
+        return new HedgingCapability(methods, initialDelay, minDelay, minSamples, budgetRatio, maxBurst, threads,
+                meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Подменяет read-timeout запроса значением для метода клиента. Класс публичный: Feign вызывает
+     * enrich-методы Capability через reflection.
+     */
+    public static class MethodReadTimeoutCapability implements Capability {
+
+        private final Map<String, Duration> readTimeouts;
+
+        public MethodReadTimeoutCapability(Map<String, Duration> readTimeouts) {
+            this.readTimeouts = readTimeouts;
+        }
+
+        @Override
+        public Client enrich(Client client) {
+            return (request, options) -> client.execute(request, withReadTimeout(request, options));
+        }
+
+        Request.Options withReadTimeout(Request request, Request.Options options) {
+            RequestTemplate template = request.requestTemplate();
+            if (template == null || template.methodMetadata() == null) {
+                return options;
+            }
+            Duration readTimeout = readTimeouts.get(template.methodMetadata().method().getName());
+            if (readTimeout == null) {
+                return options;
+            }
+            return new Request.Options(options.connectTimeout(), options.connectTimeoutUnit(),
+                    readTimeout.toMillis(), TimeUnit.MILLISECONDS, options.isFollowRedirects());
+        }
+    }
+
+    private static Counter connectionCounter(MeterRegistry meterRegistry, String connection) {
+        return Counter.builder("feign.httpclient.requests")
+                .description("Запросы Feign по типу соединения: новое или взятое из пула")
+                .tag("connection", connection)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,14 @@
+package com.n1str.booking.config;
+
+import com.n1str.common.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Экземпляр hotel-service для Feign-вызовов выбирается по задержке и числу запросов в полёте
+ * (см. PeakEwmaLoadBalancer) вместо round-robin. Параметры: loadbalancer.peak-ewma.*.
+ */
+@Configuration
+@LoadBalancerClient(name = "hotel-service", configuration = PeakEwmaLoadBalancerConfiguration.class)
+public class HotelLoadBalancerConfig {
+}
@@ -0,0 +1,68 @@
+package com.n1str.booking.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * hotel-client.wire-format=cbor: тела запросов к hotel-service кодируются в CBOR (Content-Type: application/cbor),
+ * ответы запрашиваются в CBOR с JSON как запасным вариантом (hotel-service отвечает JSON на ошибки).
+ * Собственные ответы booking-service остаются JSON: конвертер CBOR в общем списке стоит после JSON.
+ */
+@Configuration
+@ConditionalOnProperty(name = "hotel-client.wire-format", havingValue = "cbor")
+public class HotelWireFormatConfig {
+
+    static final String ACCEPT = MediaType.APPLICATION_CBOR_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.5";
+
+    private final ObjectFactory<HttpMessageConverters> feignMessageConverters;
+
+    public HotelWireFormatConfig(HttpMessageConverters messageConverters, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        List<HttpMessageConverter<?>> converters = new ArrayList<>(messageConverters.getConverters());
+        // Конвертер CBOR по умолчанию не знает настроек spring.jackson.* (даты ушли бы массивами) - заменяем его
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build()));
+        HttpMessageConverters withCbor = new HttpMessageConverters(false, converters);
+        this.feignMessageConverters = () -> withCbor;
+    }
+
+    @Bean
+    public Encoder feignEncoder() {
+        SpringEncoder delegate = new SpringEncoder(feignMessageConverters);
+        // SpringEncoder выбирает конвертер по Content-Type шаблона, поэтому заголовок выставляется до кодирования
+        return (object, bodyType, template) -> {
+            template.removeHeader(HttpHeaders.CONTENT_TYPE);
+            template.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE);
+            delegate.encode(object, bodyType, template);
+        };
+    }
+
+    @Bean
+    public Decoder feignDecoder() {
+        // Та же цепочка, что у Spring Cloud OpenFeign по умолчанию; конвертер выбирается по Content-Type ответа
+        return new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(feignMessageConverters)));
+    }
+
+    @Bean
+    public RequestInterceptor cborAcceptRequestInterceptor() {
+        return template -> template.header(HttpHeaders.ACCEPT, ACCEPT);
+    }
+}
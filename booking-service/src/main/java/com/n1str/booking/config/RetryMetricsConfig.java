@@ -0,0 +1,104 @@
+package com.n1str.booking.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+
+/**
+ * Счётчики и спаны повторов Spring Retry. RetryListener-бины подхватываются всеми @Retryable методами.
+ * booking.retry.attempts - неудачные попытки (method, exception), booking.retry.calls - итог вызова
+ * (method, outcome=success|recovered_after_retry|exhausted). Спан booking.retry охватывает все попытки,
+ * каждая неудачная отмечается событием; Feign-вызовы попыток становятся его дочерними спанами.
+ */
+@Configuration
+public class RetryMetricsConfig {
+
+    private static final String OBSERVATION = "booking.retry.observation";
+    private static final String OBSERVATION_SCOPE = "booking.retry.observation.scope";
+
+    @Bean
+    public RetryListener retryMetricsListener(MeterRegistry meterRegistry) {
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                         Throwable throwable) {
+                meterRegistry.counter("booking.retry.attempts",
+                        "method", methodName(context, callback),
+                        "exception", throwable.getClass().getSimpleName()).increment();
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                                       Throwable throwable) {
+                String outcome;
+                if (throwable != null) {
+                    outcome = "exhausted";
+                } else if (context.getRetryCount() > 0) {
+                    outcome = "recovered_after_retry";
+                } else {
+                    outcome = "success";
+                }
+                meterRegistry.counter("booking.retry.calls",
+                        "method", methodName(context, callback),
+                        "outcome", outcome).increment();
+            }
+        };
+    }
+
+    @Bean
+    public RetryListener retryObservationListener(ObservationRegistry observationRegistry) {
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+                Observation observation = Observation.createNotStarted("booking.retry", observationRegistry)
+                        .lowCardinalityKeyValue("method", methodName(context, callback))
+                        .start();
+                context.setAttribute(OBSERVATION, observation);
+                context.setAttribute(OBSERVATION_SCOPE, observation.openScope());
+                return true;
+            }
+
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                         Throwable throwable) {
+                Observation observation = (Observation) context.getAttribute(OBSERVATION);
+                if (observation != null) {
+                    observation.event(Observation.Event.of("retry.attempt.failed",
+                            "attempt " + context.getRetryCount() + ": " + throwable.getClass().getSimpleName()));
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                                       Throwable throwable) {
+                Observation.Scope scope = (Observation.Scope) context.getAttribute(OBSERVATION_SCOPE);
+                if (scope != null) {
+                    scope.close();
+                }
+                Observation observation = (Observation) context.getAttribute(OBSERVATION);
+                if (observation == null) {
+                    return;
+                }
+                observation.highCardinalityKeyValue("attempts", String.valueOf(context.getRetryCount()));
+                if (throwable != null) {
+                    observation.error(throwable);
+                }
+                observation.stop();
+            }
+        };
+    }
+
+    // RetryContext.NAME появляется только в первой попытке, а в open() метку знает лишь callback
+    private static String methodName(RetryContext context, RetryCallback<?, ?> callback) {
+        if (callback.getLabel() != null) {
+            return callback.getLabel();
+        }
+        Object name = context.getAttribute(RetryContext.NAME);
+        return name != null ? name.toString() : "unknown";
+    }
+}
@@ -2,6 +2,9 @@ package com.n1str.booking.controller;
 
 import com.n1str.booking.dto.BookingDto;
 import com.n1str.booking.dto.CreateBookingRequest;
+import com.n1str.booking.dto.CreateGroupBookingRequest;
+import com.n1str.booking.dto.PageDto;
+import com.n1str.booking.security.AuthenticatedUser;
 import com.n1str.booking.service.BookingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -9,13 +12,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequiredArgsConstructor
@@ -23,36 +29,96 @@ import java.util.List;
 @Tag(name = "Bookings", description = "Booking management endpoints")
 public class BookingController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final BookingService bookingService;
 
     @PostMapping("/booking")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @Operation(summary = "Create a new booking", 
-               description = "Create a new booking with manual room selection or auto-selection")
+               description = "Create a new booking with manual room selection or auto-selection. "
+                       + "A repeated request with the same Idempotency-Key returns the original booking")
     @SecurityRequirement(name = "bearer-jwt")
     public ResponseEntity<BookingDto> createBooking(
             @Valid @RequestBody CreateBookingRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
         String username = authentication.getName();
+        Long userId = authentication.getPrincipal() instanceof AuthenticatedUser user ? user.getUserId() : null;
         log.info("User {} creating booking", username);
+
+        if (idempotencyKey != null) {
+            Optional<BookingDto> original = bookingService.findByIdempotencyKey(username, userId, idempotencyKey, request);
+            if (original.isPresent()) {
+                log.info("User {} repeated booking {} with the same Idempotency-Key", username, original.get().getId());
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .header(IDEMPOTENT_REPLAYED_HEADER, "true")
+                        .body(original.get());
+            }
+        }
         
-        BookingDto booking = bookingService.createBooking(username, request);
+        BookingDto booking = bookingService.createBooking(username, userId, request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(booking);
     }
 
+    @PostMapping("/booking/group")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Create a group booking",
+               description = "Book up to 40 rooms for the same dates in one request. Either all rooms are booked or none")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<List<BookingDto>> createGroupBooking(
+            @Valid @RequestBody CreateGroupBookingRequest request,
+            Authentication authentication) {
+
+        String username = authentication.getName();
+        Long userId = authentication.getPrincipal() instanceof AuthenticatedUser user ? user.getUserId() : null;
+        log.info("User {} creating group booking for {} rooms", username, request.getRoomIds().size());
+
+        List<BookingDto> bookings = bookingService.createGroupBooking(username, userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookings);
+    }
+
     @GetMapping("/bookings")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    @Operation(summary = "Get user bookings", description = "Get booking history for the authenticated user")
+    @Operation(summary = "Get user bookings",
+               description = "Get paginated booking history for the authenticated user, newest first. " +
+                             "Optional filters: status, and from/to to select bookings overlapping the date range")
     @SecurityRequirement(name = "bearer-jwt")
-    public ResponseEntity<List<BookingDto>> getUserBookings(Authentication authentication) {
+    public ResponseEntity<PageDto<BookingDto>> getUserBookings(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
         String username = authentication.getName();
         log.debug("User {} fetching their bookings", username);
         
-        List<BookingDto> bookings = bookingService.getUserBookings(username);
+        PageDto<BookingDto> bookings = bookingService.getUserBookings(username, status, from, to, page, size);
         return ResponseEntity.ok(bookings);
     }
 
+    @GetMapping("/bookings/archive")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Get archived bookings",
+               description = "Get paginated history of bookings moved to the archive after their stay ended, newest first. " +
+                             "Same filters as /bookings")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<PageDto<BookingDto>> getArchivedBookings(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        log.debug("User {} fetching their archived bookings", username);
+
+        return ResponseEntity.ok(bookingService.getArchivedBookings(username, status, from, to, page, size));
+    }
+
     @GetMapping("/booking/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @Operation(summary = "Get booking by ID", description = "Get detailed information about a specific booking")
@@ -0,0 +1,17 @@
+package com.n1str.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchConfirmAvailabilityRequest {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<RoomHoldItem> holds;
+}
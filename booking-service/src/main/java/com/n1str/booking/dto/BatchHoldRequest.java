@@ -0,0 +1,14 @@
+package com.n1str.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchHoldRequest {
+    private List<String> requestIds;
+}
@@ -0,0 +1,27 @@
+package com.n1str.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateGroupBookingRequest {
+
+    @NotEmpty(message = "At least one room is required")
+    @Size(max = 40, message = "A group booking can contain at most 40 rooms")
+    private List<@NotNull Long> roomIds;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+}
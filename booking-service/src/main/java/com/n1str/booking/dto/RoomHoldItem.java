@@ -0,0 +1,14 @@
+package com.n1str.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomHoldItem {
+    private Long roomId;
+    private Long bookingId;
+    private String requestId;
+}
@@ -9,7 +9,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at DESC"),
+        @Index(name = "idx_bookings_end_date", columnList = "end_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,59 @@
+package com.n1str.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Завершённое бронирование, перенесённое из bookings. Только для чтения истории; id совпадает с исходным.
+ */
+@Entity
+@Table(name = "bookings_archive", indexes = {
+        @Index(name = "idx_bookings_archive_user_created", columnList = "user_id, created_at DESC")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingArchive {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "request_id", unique = true, nullable = false)
+    private String requestId;
+
+    @Column(name = "hotel_id")
+    private Long hotelId;
+
+    @Column(name = "total_price")
+    private Double totalPrice;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
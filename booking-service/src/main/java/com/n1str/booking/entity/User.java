@@ -11,6 +11,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserRemovalListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
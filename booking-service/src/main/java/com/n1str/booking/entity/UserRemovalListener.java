@@ -0,0 +1,20 @@
+package com.n1str.booking.entity;
+
+import com.n1str.booking.service.UserIdCache;
+import jakarta.persistence.PostRemove;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * JPA-слушатель User: удалённый пользователь сразу пропадает из кэша username -> id.
+ * Hibernate создаёт его через контейнер Spring, поэтому кэш внедряется конструктором.
+ */
+@RequiredArgsConstructor
+public class UserRemovalListener {
+
+    private final UserIdCache userIdCache;
+
+    @PostRemove
+    void onRemove(User user) {
+        userIdCache.evict(user.getId());
+    }
+}
@@ -2,8 +2,13 @@ package com.n1str.booking.exception;
 
 import com.n1str.booking.dto.ErrorResponse;
 import feign.FeignException;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -18,9 +23,12 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final ObjectProvider<Tracer> tracer;
+
     @ExceptionHandler(FeignException.class)
     public ResponseEntity<ErrorResponse> handleFeignException(
             FeignException ex, HttpServletRequest request) {
@@ -35,7 +43,7 @@ public class GlobalExceptionHandler {
                     "Conflict",
                     "Room is not available for the requested dates",
                     request.getRequestURI(),
-                    UUID.randomUUID().toString()
+                    currentTraceId()
             );
             return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
         }
@@ -51,12 +59,46 @@ public class GlobalExceptionHandler {
                 status.getReasonPhrase(),
                 "Error communicating with hotel service: " + ex.getMessage(),
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(status).body(errorResponse);
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingRejectedException(
+            PasswordHashingRejectedException ex, HttpServletRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Authentication is temporarily overloaded, please retry later",
+                request.getRequestURI(),
+                currentTraceId()
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgressException(
+            IdempotencyKeyInProgressException ex, HttpServletRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                ex.getMessage(),
+                request.getRequestURI(),
+                currentTraceId()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
@@ -75,7 +117,7 @@ public class GlobalExceptionHandler {
                 "Validation Failed",
                 errors,
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
@@ -99,7 +141,7 @@ public class GlobalExceptionHandler {
                 status.getReasonPhrase(),
                 ex.getMessage(),
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(status).body(errorResponse);
@@ -115,7 +157,7 @@ public class GlobalExceptionHandler {
                 "Bad Request",
                 ex.getMessage(),
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
@@ -131,7 +173,7 @@ public class GlobalExceptionHandler {
                 "Forbidden",
                 "You don't have permission to access this resource",
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
@@ -147,10 +189,16 @@ public class GlobalExceptionHandler {
                 "Unauthorized",
                 "Invalid credentials",
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
     }
-}
 
+    // traceId текущей трассы - по нему ошибку можно найти в логах и спанах всех сервисов
+    private String currentTraceId() {
+        Tracer current = tracer.getIfAvailable();
+        Span span = current != null ? current.currentSpan() : null;
+        return span != null ? span.context().traceId() : UUID.randomUUID().toString();
+    }
+}
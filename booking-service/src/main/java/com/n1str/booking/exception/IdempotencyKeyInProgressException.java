@@ -0,0 +1,11 @@
+package com.n1str.booking.exception;
+
+/**
+ * Запрос с тем же Idempotency-Key ещё выполняется - клиенту отдаётся 409, повтор позже вернёт его результат.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
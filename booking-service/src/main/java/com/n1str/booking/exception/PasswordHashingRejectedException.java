@@ -0,0 +1,17 @@
+package com.n1str.booking.exception;
+
+import lombok.Getter;
+
+/**
+ * Пул хэширования паролей перегружен - запрос отклонён, клиенту отдаётся 503 с Retry-After.
+ */
+@Getter
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,70 @@
+package com.n1str.booking.repository;
+
+import com.n1str.booking.dto.BookingDto;
+import com.n1str.booking.entity.BookingArchive;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface BookingArchiveRepository extends JpaRepository<BookingArchive, Long> {
+
+    /**
+     * Копирует бронирования из bookings в архив одним INSERT ... SELECT, без загрузки сущностей.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, user_id, room_id, start_date, end_date, status, created_at, " +
+                   "request_id, hotel_id, total_price, updated_at, archived_at) " +
+                   "SELECT id, user_id, room_id, start_date, end_date, status, created_at, request_id, hotel_id, " +
+                   "total_price, updated_at, :archivedAt FROM bookings WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Архив пользователя удаляется вместе с ним, как и его бронирования в bookings (cascade у User.bookings).
+     * Идёт по индексу idx_bookings_archive_user_created.
+     */
+    @Modifying
+    @Query("DELETE FROM BookingArchive b WHERE b.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.n1str.booking.dto.BookingDto(b.id, u.id, u.username, b.roomId, b.hotelId, " +
+           "b.startDate, b.endDate, b.status, b.createdAt, b.totalPrice) " +
+           "FROM BookingArchive b JOIN b.user u WHERE b.id = :id AND u.username = :username")
+    Optional<BookingDto> findDtoByIdAndUsername(@Param("id") Long id, @Param("username") String username);
+
+    @Query("SELECT new com.n1str.booking.dto.BookingDto(b.id, u.id, u.username, b.roomId, b.hotelId, " +
+           "b.startDate, b.endDate, b.status, b.createdAt, b.totalPrice) " +
+           "FROM BookingArchive b JOIN b.user u WHERE b.requestId = :requestId")
+    Optional<BookingDto> findDtoByRequestId(@Param("requestId") String requestId);
+
+    /**
+     * Архивная история пользователя, тот же контракт, что у BookingRepository.findHistoryByUsername.
+     * Идёт по индексу idx_bookings_archive_user_created (user_id, created_at DESC).
+     */
+    @Query(value = "SELECT new com.n1str.booking.dto.BookingDto(b.id, u.id, u.username, b.roomId, b.hotelId, " +
+                   "b.startDate, b.endDate, b.status, b.createdAt, b.totalPrice) " +
+                   "FROM BookingArchive b JOIN b.user u WHERE u.username = :username " +
+                   "AND (:status IS NULL OR b.status = :status) " +
+                   "AND (:from IS NULL OR b.endDate >= :from) " +
+                   "AND (:to IS NULL OR b.startDate <= :to) " +
+                   "ORDER BY b.createdAt DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM BookingArchive b JOIN b.user u WHERE u.username = :username " +
+                        "AND (:status IS NULL OR b.status = :status) " +
+                        "AND (:from IS NULL OR b.endDate >= :from) " +
+                        "AND (:to IS NULL OR b.startDate <= :to)")
+    Page<BookingDto> findHistoryByUsername(@Param("username") String username,
+                                           @Param("status") String status,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           Pageable pageable);
+}
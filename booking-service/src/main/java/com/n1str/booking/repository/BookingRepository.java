@@ -1,11 +1,17 @@
 package com.n1str.booking.repository;
 
+import com.n1str.booking.dto.BookingDto;
 import com.n1str.booking.entity.Booking;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,8 +21,54 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
     
     Optional<Booking> findByRequestId(String requestId);
-    
-    @Query("SELECT b FROM Booking b WHERE b.user.username = :username ORDER BY b.createdAt DESC")
-    List<Booking> findByUsername(@Param("username") String username);
-}
 
+    /**
+     * Бронирование вместе с проверкой владельца в одном запросе; User не подгружается.
+     */
+    Optional<Booking> findByIdAndUserUsername(Long id, String username);
+
+    @Query("SELECT new com.n1str.booking.dto.BookingDto(b.id, u.id, u.username, b.roomId, b.hotelId, " +
+           "b.startDate, b.endDate, b.status, b.createdAt, b.totalPrice) " +
+           "FROM Booking b JOIN b.user u WHERE b.id = :id AND u.username = :username")
+    Optional<BookingDto> findDtoByIdAndUsername(@Param("id") Long id, @Param("username") String username);
+
+    /**
+     * Поиск по Idempotency-Key (= request_id) по уникальному индексу; владелец проверяется вызывающим.
+     */
+    @Query("SELECT new com.n1str.booking.dto.BookingDto(b.id, u.id, u.username, b.roomId, b.hotelId, " +
+           "b.startDate, b.endDate, b.status, b.createdAt, b.totalPrice) " +
+           "FROM Booking b JOIN b.user u WHERE b.requestId = :requestId")
+    Optional<BookingDto> findDtoByRequestId(@Param("requestId") String requestId);
+
+    /**
+     * История бронирований пользователя постранично, сразу в BookingDto (без загрузки сущностей User).
+     * Идёт по индексу idx_bookings_user_created (user_id, created_at DESC).
+     * Фильтры status/from/to необязательны; from/to отбирают брони, пересекающие интервал.
+     */
+    @Query(value = "SELECT new com.n1str.booking.dto.BookingDto(b.id, u.id, u.username, b.roomId, b.hotelId, " +
+                   "b.startDate, b.endDate, b.status, b.createdAt, b.totalPrice) " +
+                   "FROM Booking b JOIN b.user u WHERE u.username = :username " +
+                   "AND (:status IS NULL OR b.status = :status) " +
+                   "AND (:from IS NULL OR b.endDate >= :from) " +
+                   "AND (:to IS NULL OR b.startDate <= :to) " +
+                   "ORDER BY b.createdAt DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Booking b JOIN b.user u WHERE u.username = :username " +
+                        "AND (:status IS NULL OR b.status = :status) " +
+                        "AND (:from IS NULL OR b.endDate >= :from) " +
+                        "AND (:to IS NULL OR b.startDate <= :to)")
+    Page<BookingDto> findHistoryByUsername(@Param("username") String username,
+                                           @Param("status") String status,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           Pageable pageable);
+
+    /**
+     * Бронирования, завершившиеся до горизонта хранения, пачкой по индексу idx_bookings_end_date.
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.endDate < :horizon ORDER BY b.endDate, b.id")
+    List<Long> findIdsEndedBefore(@Param("horizon") LocalDate horizon, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,22 @@
+package com.n1str.booking.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.security.Principal;
+
+/**
+ * Principal из JWT: имя пользователя и его ID из claim "uid".
+ * userId может быть null для токенов, выданных до появления claim.
+ */
+@Data
+@AllArgsConstructor
+public class AuthenticatedUser implements Principal {
+    private Long userId;
+    private String username;
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -17,6 +17,8 @@ import java.util.function.Function;
 @Slf4j
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "uid";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -27,9 +29,10 @@ public class JwtUtil {
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
-    public String generateToken(String username, List<String> roles) {
+    public String generateToken(Long userId, String username, List<String> roles) {
         return Jwts.builder()
                 .subject(username)
+                .claim(USER_ID_CLAIM, userId)
                 .claim("roles", roles)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
@@ -76,5 +79,9 @@ public class JwtUtil {
         Claims claims = extractAllClaims(token);
         return claims.get("roles", List.class);
     }
-}
 
+    public Long extractUserId(String token) {
+        Number userId = extractAllClaims(token).get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+}
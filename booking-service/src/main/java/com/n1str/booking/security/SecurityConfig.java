@@ -2,21 +2,31 @@ package com.n1str.booking.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.n1str.booking.dto.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -52,6 +62,33 @@ public class SecurityConfig {
         };
     }
 
+    /**
+     * /actuator/prometheus - своя цепочка с Basic-учёткой сборщика метрик: JWT пользователя живёт час,
+     * и Prometheus с ним не скрейпит. Пароль хранится в формате DelegatingPasswordEncoder ({noop}, {bcrypt}).
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusFilterChain(
+            HttpSecurity http,
+            @Value("${prometheus.scrape.username:prometheus}") String username,
+            @Value("${prometheus.scrape.password}") String password) throws Exception {
+        DaoAuthenticationProvider scraper = new DaoAuthenticationProvider();
+        scraper.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        scraper.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername(username).password(password).roles("METRICS").build()));
+
+        http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationManager(new ProviderManager(scraper))
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                );
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -62,6 +99,10 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/swagger-ui/index.html").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-resources/**", "/webjars/**").permitAll()
                         .requestMatchers("/user/register", "/user/auth").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        // Метрики раскрывают внутренности сервиса - только с токеном
+                        // (/actuator/prometheus обслуживает prometheusFilterChain)
+                        .requestMatchers("/actuator/**").authenticated()
                         // Остальные запросы требуют авторизации
                         .anyRequest().authenticated()
                 )
@@ -80,8 +121,17 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-hashing.timeout:5s}") Duration timeout,
+            @Value("${security.password-hashing.retry-after-seconds:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry) {
+        // По умолчанию под BCrypt отдаём не больше половины ядер, остальное остаётся бронированиям
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), poolSize, queueCapacity,
+                timeout, retryAfterSeconds, meterRegistry);
     }
 }
 
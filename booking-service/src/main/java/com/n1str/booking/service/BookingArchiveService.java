@@ -0,0 +1,64 @@
+package com.n1str.booking.service;
+
+import com.n1str.booking.repository.BookingArchiveRepository;
+import com.n1str.booking.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит завершившиеся бронирования из bookings в bookings_archive, чтобы история и поиск
+ * работали по актуальному окну. Каждая пачка - отдельная короткая транзакция (INSERT ... SELECT + DELETE).
+ * Архив читается через BookingService.getArchivedBookings и как запасной путь в getBookingById.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingArchiveService {
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${bookings.archive.retention-days:180}")
+    private int retentionDays = 180;
+
+    @Value("${bookings.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    @Scheduled(cron = "${bookings.archive.cron:0 0 4 * * *}")
+    public void scheduledArchive() {
+        archiveEndedBefore(LocalDate.now().minusDays(retentionDays));
+    }
+
+    public int archiveEndedBefore(LocalDate horizon) {
+        log.info("Архивируем бронирования, завершившиеся до {}", horizon);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(horizon));
+            total += moved;
+        } while (moved == batchSize);
+
+        log.info("Архивировано {} бронирований", total);
+        return total;
+    }
+
+    private int archiveChunk(LocalDate horizon) {
+        List<Long> ids = bookingRepository.findIdsEndedBefore(horizon, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        bookingArchiveRepository.copyFromBookings(ids, LocalDateTime.now());
+        bookingRepository.deleteByIds(ids);
+        return ids.size();
+    }
+}
@@ -0,0 +1,84 @@
+package com.n1str.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Метрики саги бронирования.
+ * booking.saga.step - время каждого шага (step, outcome=success|failure), booking.saga - вся сага целиком
+ * (saga=single|group, outcome), booking.saga.outcome - счётчик исходов (saga=single|group|cancel): confirmed,
+ * cancelled, compensation_failed (не удалось освободить HOLD при отмене) и failed (сага прервалась до создания
+ * бронирования). У таймеров публикуются p50/p95/p99 и гистограмма для histogram_quantile в Prometheus.
+ */
+@Component
+public class BookingSagaMetrics {
+
+    public static final String SINGLE = "single";
+    public static final String GROUP = "group";
+    public static final String CANCEL = "cancel";
+
+    public static final String CONFIRMED = "confirmed";
+    public static final String CANCELLED = "cancelled";
+    public static final String COMPENSATION_FAILED = "compensation_failed";
+    public static final String FAILED = "failed";
+
+    private final MeterRegistry meterRegistry;
+
+    public BookingSagaMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T step(String step, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(timer("booking.saga.step", "Время шага саги бронирования", "step", step, outcome));
+        }
+    }
+
+    public void step(String step, Runnable action) {
+        step(step, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Завершает замер саги, начатый start(), и увеличивает счётчик её исхода.
+     */
+    public void finish(Timer.Sample sample, String saga, String outcome) {
+        sample.stop(timer("booking.saga", "Время саги бронирования целиком", "saga", saga, outcome));
+        outcome(saga, outcome);
+    }
+
+    public void outcome(String saga, String outcome) {
+        Counter.builder("booking.saga.outcome")
+                .description("Исходы саги бронирования")
+                .tag("saga", saga)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer timer(String name, String description, String tagKey, String tagValue, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagKey, tagValue)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
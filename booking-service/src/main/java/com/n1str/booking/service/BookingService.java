@@ -1,21 +1,30 @@
 package com.n1str.booking.service;
 
 import com.n1str.booking.client.HotelServiceClient;
+import com.n1str.booking.dto.BatchConfirmAvailabilityRequest;
+import com.n1str.booking.dto.BatchHoldRequest;
 import com.n1str.booking.dto.BookingDto;
+import com.n1str.booking.dto.CommitHoldRequest;
 import com.n1str.booking.dto.CreateBookingRequest;
+import com.n1str.booking.dto.CreateGroupBookingRequest;
+import com.n1str.booking.dto.PageDto;
+import com.n1str.booking.dto.ReleaseRoomRequest;
 import com.n1str.booking.dto.RoomDto;
+import com.n1str.booking.dto.RoomHoldItem;
 import com.n1str.booking.entity.Booking;
 import com.n1str.booking.entity.User;
+import com.n1str.booking.exception.IdempotencyKeyInProgressException;
+import com.n1str.booking.repository.BookingArchiveRepository;
 import com.n1str.booking.repository.BookingRepository;
 import feign.FeignException;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -27,14 +36,64 @@ import java.util.*;
 @Slf4j
 public class BookingService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Set<String> BOOKING_STATUSES = Set.of("PENDING", "CONFIRMED", "CANCELLED");
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+
     private final BookingRepository bookingRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
     private final UserService userService;
     private final HotelServiceClient hotelServiceClient;
+    private final HotelAvailabilityGateway hotelAvailabilityGateway;
+    private final IdempotencyKeyCache idempotencyKeyCache;
+    private final BookingSagaMetrics sagaMetrics;
+
+    /**
+     * Повтор запроса с тем же Idempotency-Key: исходное бронирование (в том числе уже архивное) без саги
+     * и без вызовов Hotel Service. Сначала - кэш недавних ключей и поиск по первичному ключу, затем
+     * уникальный индекс request_id. Ключи разных пользователей не пересекаются, другие параметры запроса - 400.
+     */
+    @Transactional(readOnly = true)
+    public Optional<BookingDto> findByIdempotencyKey(String username, Long userId, String idempotencyKey,
+                                                     CreateBookingRequest request) {
+        validateIdempotencyKey(idempotencyKey);
+        String requestId = idempotentRequestId(userService.getUserId(userId, username), idempotencyKey);
+
+        Optional<BookingDto> booking = Optional.empty();
+        Long cachedId = idempotencyKeyCache.getBookingId(requestId);
+        if (cachedId != null) {
+            booking = bookingRepository.findDtoByIdAndUsername(cachedId, username)
+                    .or(() -> bookingArchiveRepository.findDtoByIdAndUsername(cachedId, username));
+        }
+        if (booking.isEmpty()) {
+            booking = bookingRepository.findDtoByRequestId(requestId)
+                    .or(() -> bookingArchiveRepository.findDtoByRequestId(requestId));
+            booking.ifPresent(found -> idempotencyKeyCache.remember(requestId, found.getId()));
+        }
 
+        booking.ifPresent(found -> {
+            boolean sameRequest = found.getUsername().equals(username)
+                    && found.getStartDate().equals(request.getStartDate())
+                    && found.getEndDate().equals(request.getEndDate())
+                    && (Boolean.TRUE.equals(request.getAutoSelect()) || found.getRoomId().equals(request.getRoomId()));
+            if (!sameRequest) {
+                throw new IllegalArgumentException("Idempotency-Key уже использован с другими параметрами запроса");
+            }
+        });
+        return booking;
+    }
+
+    /**
+     * idempotencyKey (необязательный) вместе с id пользователя становится requestId бронирования и всех
+     * вызовов Hotel Service, поэтому повтор после неудачной попытки переиспользует её HOLD, а не создаёт новый.
+     * Одинаковые ключи разных пользователей дают разные requestId и не попадают в чужой HOLD.
+     */
     @Transactional
-    public BookingDto createBooking(String username, CreateBookingRequest request) {
-        String requestId = UUID.randomUUID().toString();
-        log.info("[traceId:{}] Создаём бронирование для пользователя: {}", requestId, username);
+    public BookingDto createBooking(String username, Long userId, CreateBookingRequest request, String idempotencyKey) {
+        String requestId = idempotencyKey != null
+                ? idempotentRequestId(userService.getUserId(userId, username), idempotencyKey)
+                : UUID.randomUUID().toString();
+        log.info("[requestId:{}] Создаём бронирование для пользователя: {}", requestId, username);
 
         // Проверяем валидность дат
         if (request.getStartDate().isBefore(LocalDate.now())) {
@@ -44,139 +103,254 @@ public class BookingService {
             throw new IllegalArgumentException("Дата начала должна быть раньше даты конца");
         }
 
-        User user = userService.getUserByUsername(username);
-
-        // Шаг 1: Определяем какой номер будет забронирован
-        Long roomId;
-        if (request.getAutoSelect()) {
-            log.info("[traceId:{}] Автоматически подбираем номер по алгоритму рекомендаций", requestId);
-            roomId = selectBestRoom(requestId);
-        } else {
-            if (request.getRoomId() == null) {
-                throw new IllegalArgumentException("ID номера обязателен когда autoSelect=false");
+        if (idempotencyKey != null) {
+            validateIdempotencyKey(idempotencyKey);
+            if (!idempotencyKeyCache.tryBegin(requestId)) {
+                throw new IdempotencyKeyInProgressException("Бронирование с этим Idempotency-Key уже выполняется");
             }
-            roomId = request.getRoomId();
+            // Ключ освобождается только после коммита: до него повтор не увидел бы бронирование и запустил сагу заново
+            endAfterCompletion(requestId);
         }
 
-        log.info("[traceId:{}] Выбран номер ID: {}", requestId, roomId);
-
-        // Получаем информацию о номере для расчёта цены
-        RoomDto room = null;
+        // Исход по умолчанию - сага прервалась до создания бронирования (нет номера, Hotel Service недоступен)
+        Timer.Sample saga = sagaMetrics.start();
+        String outcome = BookingSagaMetrics.FAILED;
         try {
-            room = hotelServiceClient.getRoomById(roomId);
-        } catch (Exception e) {
-            log.error("[traceId:{}] Не удалось получить данные номера из Hotel Service: {}", requestId, e.getMessage(), e);
-            throw new RuntimeException("Hotel Service недоступен - не могу получить данные номера", e);
-        }
-        
-        if (room == null) {
-            log.error("[traceId:{}] Hotel Service вернул null для номера", requestId);
-            throw new RuntimeException("Полученные от Hotel Service данные некорректны");
-        }
-        
-        long nights = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate());
-        double totalPrice = room.getPricePerNight() * nights;
-
-        // Шаг 2: Создаём бронирование со статусом PENDING
-        Booking booking = new Booking();
-        booking.setUser(user);
-        booking.setRoomId(roomId);
-        booking.setHotelId(room.getHotelId());
-        booking.setStartDate(request.getStartDate());
-        booking.setEndDate(request.getEndDate());
-        booking.setStatus("PENDING");
-        booking.setRequestId(requestId);
-        booking.setCreatedAt(LocalDateTime.now());
-        booking.setTotalPrice(totalPrice);
-
-        booking = bookingRepository.save(booking);
-        log.info("[traceId:{}] Бронирование создано со статусом PENDING, ID: {}", requestId, booking.getId());
-
-        // Шаг 3: Подтверждаем доступность у Hotel Service (с повторными попытками)
-        try {
-            confirmRoomAvailability(roomId, booking.getId(), request.getStartDate(), request.getEndDate(), requestId);
-            
-            // Шаг 4: Переводим бронирование в статус CONFIRMED
-            booking.setStatus("CONFIRMED");
-            booking.setUpdatedAt(LocalDateTime.now());
-            booking = bookingRepository.save(booking);
+            // Без SELECT по users: ID пользователя приходит из JWT
+            User user = sagaMetrics.step("user_lookup", () -> userService.getUserReference(userId, username));
 
-            // Шаг 5: Обновляем статистику популярности номера
+            // Шаг 1: Определяем какой номер будет забронирован
+            Long roomId;
+            if (request.getAutoSelect()) {
+                log.info("[requestId:{}] Автоматически подбираем номер по алгоритму рекомендаций", requestId);
+                roomId = sagaMetrics.step("select_room", () -> selectBestRoom(requestId));
+            } else {
+                if (request.getRoomId() == null) {
+                    throw new IllegalArgumentException("ID номера обязателен когда autoSelect=false");
+                }
+                roomId = request.getRoomId();
+            }
+
+            log.info("[requestId:{}] Выбран номер ID: {}", requestId, roomId);
+
+            // Получаем информацию о номере для расчёта цены
+            RoomDto room = null;
             try {
-                hotelServiceClient.incrementTimesBooked(roomId);
-                log.info("[traceId:{}] Счётчик бронирований номера {} обновлён", requestId, roomId);
+                room = sagaMetrics.step("get_room", () -> hotelServiceClient.getRoomById(roomId));
             } catch (Exception e) {
-                log.warn("[traceId:{}] Не удалось обновить счётчик: {}", requestId, e.getMessage());
-                // Продолжаем - бронирование успешно
+                log.error("[requestId:{}] Не удалось получить данные номера из Hotel Service: {}", requestId, e.getMessage(), e);
+                throw new RuntimeException("Hotel Service недоступен - не могу получить данные номера", e);
+            }
+        
+            if (room == null) {
+                log.error("[requestId:{}] Hotel Service вернул null для номера", requestId);
+                throw new RuntimeException("Полученные от Hotel Service данные некорректны");
             }
+        
+            long nights = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate());
+            double totalPrice = room.getPricePerNight() * nights;
+
+            // Шаг 2: Создаём бронирование со статусом PENDING
+            Booking booking = new Booking();
+            booking.setUser(user);
+            booking.setRoomId(roomId);
+            booking.setHotelId(room.getHotelId());
+            booking.setStartDate(request.getStartDate());
+            booking.setEndDate(request.getEndDate());
+            booking.setStatus("PENDING");
+            booking.setRequestId(requestId);
+            booking.setCreatedAt(LocalDateTime.now());
+            booking.setTotalPrice(totalPrice);
+
+            Booking pending = booking;
+            booking = sagaMetrics.step("pending_insert", () -> bookingRepository.save(pending));
+            log.info("[requestId:{}] Бронирование создано со статусом PENDING, ID: {}", requestId, booking.getId());
+            if (idempotencyKey != null) {
+                // Если транзакция откатится, запись в кэше безвредна: бронирование по id просто не найдётся
+                idempotencyKeyCache.remember(requestId, booking.getId());
+            }
+
+            // Шаг 3: Подтверждаем доступность у Hotel Service (с повторными попытками)
+            try {
+                Long bookingId = booking.getId();
+                sagaMetrics.step("confirm_availability", () -> hotelAvailabilityGateway.confirmRoomAvailability(
+                        roomId, bookingId, request.getStartDate(), request.getEndDate(), requestId));
 
-            log.info("[traceId:{}] Бронирование подтверждено, ID: {}", requestId, booking.getId());
-            return toDto(booking);
+                // HOLD живёт ограниченное время - фиксируем его до перевода бронирования в CONFIRMED.
+                // Если commit не дошёл, блок сам освободится по TTL
+                sagaMetrics.step("commit_hold", () -> commitRoomHold(roomId, requestId));
+            
+                // Шаг 4: Переводим бронирование в статус CONFIRMED
+                booking.setStatus("CONFIRMED");
+                booking.setUpdatedAt(LocalDateTime.now());
+                Booking confirmed = booking;
+                booking = sagaMetrics.step("confirm_update", () -> bookingRepository.save(confirmed));
+
+                // Шаг 5: Обновляем статистику популярности номера
+                try {
+                    sagaMetrics.step("increment_times_booked", () -> hotelServiceClient.incrementTimesBooked(roomId));
+                    log.info("[requestId:{}] Счётчик бронирований номера {} обновлён", requestId, roomId);
+                } catch (Exception e) {
+                    log.warn("[requestId:{}] Не удалось обновить счётчик: {}", requestId, e.getMessage());
+                    // Продолжаем - бронирование успешно
+                }
+
+                log.info("[requestId:{}] Бронирование подтверждено, ID: {}", requestId, booking.getId());
+                outcome = BookingSagaMetrics.CONFIRMED;
+                return toDto(booking, username);
                
-        } catch (FeignException fe) {
-            log.error("[traceId:{}] Ошибка от hotel service: {} - Статус: {}", requestId, fe.getMessage(), fe.status());
+            } catch (FeignException fe) {
+                log.error("[requestId:{}] Ошибка от hotel service: {} - Статус: {}", requestId, fe.getMessage(), fe.status());
             
-            // Шаг 5: Компенсация - отменяем бронирование
-            booking.setStatus("CANCELLED");
-            booking.setUpdatedAt(LocalDateTime.now());
-            bookingRepository.save(booking);
+                // Шаг 5: Компенсация - отменяем бронирование
+                booking.setStatus("CANCELLED");
+                booking.setUpdatedAt(LocalDateTime.now());
+                bookingRepository.save(booking);
+                outcome = BookingSagaMetrics.CANCELLED;
             
-            // Пробрасываем исключение чтобы GlobalExceptionHandler его обработал
-            throw fe;
+                // Пробрасываем исключение чтобы GlobalExceptionHandler его обработал
+                throw fe;
             
-        } catch (Exception e) {
-            log.error("[traceId:{}] Не удалось подтвердить бронирование: {}", requestId, e.getMessage());
+            } catch (Exception e) {
+                log.error("[requestId:{}] Не удалось подтвердить бронирование: {}", requestId, e.getMessage());
             
-            // Шаг 5: Компенсация - отменяем бронирование
-            booking.setStatus("CANCELLED");
-            booking.setUpdatedAt(LocalDateTime.now());
-            bookingRepository.save(booking);
+                // Шаг 5: Компенсация - отменяем бронирование
+                booking.setStatus("CANCELLED");
+                booking.setUpdatedAt(LocalDateTime.now());
+                bookingRepository.save(booking);
+                outcome = BookingSagaMetrics.CANCELLED;
             
-            throw new RuntimeException("Не удалось подтвердить бронирование: " + e.getMessage(), e);
+                throw new RuntimeException("Не удалось подтвердить бронирование: " + e.getMessage(), e);
+            }
+        } finally {
+            sagaMetrics.finish(saga, BookingSagaMetrics.SINGLE, outcome);
         }
     }
 
-    @Retryable(
-        retryFor = { FeignException.class, RuntimeException.class },
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    @CircuitBreaker(name = "hotelService", fallbackMethod = "fallbackConfirmAvailability")
-    public void confirmRoomAvailability(Long roomId, Long bookingId, LocalDate startDate, LocalDate endDate, String requestId) {
-        log.info("[traceId:{}] Пытаемся подтвердить доступность номера (с повторами и circuit breaker)", requestId);
-        
-        Map<String, Object> confirmRequest = new HashMap<>();
-        confirmRequest.put("startDate", startDate.toString());
-        confirmRequest.put("endDate", endDate.toString());
-        confirmRequest.put("bookingId", bookingId);
-        confirmRequest.put("requestId", requestId);
-        
-        hotelServiceClient.confirmAvailability(roomId, confirmRequest);
-        log.info("[traceId:{}] Доступность номера подтверждена", requestId);
-    }
+    /**
+     * Групповое бронирование (туроператоры): все номера удерживаются одним вызовом Hotel Service
+     * и подтверждаются вторым - вместо полной саги на каждый номер. Либо бронируются все номера, либо ни один.
+     */
+    @Transactional
+    public List<BookingDto> createGroupBooking(String username, Long userId, CreateGroupBookingRequest request) {
+        String groupId = UUID.randomUUID().toString();
+        log.info("[requestId:{}] Групповое бронирование {} номеров для пользователя: {}",
+                groupId, request.getRoomIds().size(), username);
+
+        if (request.getStartDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Нельзя забронировать в прошлое");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Дата начала должна быть раньше даты конца");
+        }
+        if (new HashSet<>(request.getRoomIds()).size() != request.getRoomIds().size()) {
+            throw new IllegalArgumentException("Номер не может входить в группу дважды");
+        }
 
-    public void fallbackConfirmAvailability(Long roomId, Long bookingId, LocalDate startDate, LocalDate endDate, String requestId, Exception e) {
-        log.error("[traceId:{}] Circuit breaker открыт или fallback сработал: {}", requestId, e.getMessage());
-        throw new RuntimeException("Hotel Service недоступен (circuit breaker открыт). Бронирование отменено.", e);
+        Timer.Sample saga = sagaMetrics.start();
+        String outcome = BookingSagaMetrics.FAILED;
+        try {
+            User user = sagaMetrics.step("user_lookup", () -> userService.getUserReference(userId, username));
+
+            // Шаг 1: Бронирования всей группы со статусом PENDING; цену узнаем из ответа Hotel Service
+            LocalDateTime now = LocalDateTime.now();
+            List<Booking> bookings = new ArrayList<>(request.getRoomIds().size());
+            for (Long roomId : request.getRoomIds()) {
+                Booking booking = new Booking();
+                booking.setUser(user);
+                booking.setRoomId(roomId);
+                booking.setStartDate(request.getStartDate());
+                booking.setEndDate(request.getEndDate());
+                booking.setStatus("PENDING");
+                booking.setRequestId(UUID.randomUUID().toString());
+                booking.setCreatedAt(now);
+                bookings.add(booking);
+            }
+            List<Booking> pending = bookings;
+            bookings = sagaMetrics.step("pending_insert", () -> bookingRepository.saveAll(pending));
+            List<String> requestIds = bookings.stream().map(Booking::getRequestId).toList();
+
+            try {
+                // Шаг 2: Один вызов - HOLD всех номеров группы
+                List<RoomHoldItem> holds = new ArrayList<>(bookings.size());
+                for (Booking booking : bookings) {
+                    holds.add(new RoomHoldItem(booking.getRoomId(), booking.getId(), booking.getRequestId()));
+                }
+                BatchConfirmAvailabilityRequest holdRequest =
+                        new BatchConfirmAvailabilityRequest(request.getStartDate(), request.getEndDate(), holds);
+
+                Map<Long, RoomDto> rooms = new HashMap<>();
+                List<RoomDto> held = sagaMetrics.step("confirm_availability_batch",
+                        () -> hotelServiceClient.confirmAvailabilityBatch(holdRequest));
+                for (RoomDto room : held) {
+                    rooms.put(room.getId(), room);
+                }
+
+                // Шаг 3: Второй вызов - фиксируем HOLD-ы; Hotel Service сам обновляет счётчики популярности
+                sagaMetrics.step("commit_batch", () -> hotelServiceClient.commitRoomHolds(new BatchHoldRequest(requestIds)));
+
+                // Шаг 4: Переводим бронирования группы в CONFIRMED
+                long nights = ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate());
+                LocalDateTime confirmedAt = LocalDateTime.now();
+                for (Booking booking : bookings) {
+                    RoomDto room = rooms.get(booking.getRoomId());
+                    if (room != null) {
+                        booking.setHotelId(room.getHotelId());
+                        booking.setTotalPrice(room.getPricePerNight() * nights);
+                    }
+                    booking.setStatus("CONFIRMED");
+                    booking.setUpdatedAt(confirmedAt);
+                }
+                List<Booking> confirmed = bookings;
+                bookings = sagaMetrics.step("confirm_update", () -> bookingRepository.saveAll(confirmed));
+
+                log.info("[requestId:{}] Групповое бронирование подтверждено: {} номеров", groupId, bookings.size());
+                outcome = BookingSagaMetrics.CONFIRMED;
+                return bookings.stream().map(booking -> toDto(booking, username)).toList();
+
+            } catch (Exception e) {
+                log.error("[requestId:{}] Не удалось подтвердить групповое бронирование: {}", groupId, e.getMessage());
+
+                // Компенсация - отменяем всю группу и освобождаем её HOLD-ы
+                LocalDateTime cancelledAt = LocalDateTime.now();
+                for (Booking booking : bookings) {
+                    booking.setStatus("CANCELLED");
+                    booking.setUpdatedAt(cancelledAt);
+                }
+                bookingRepository.saveAll(bookings);
+                outcome = BookingSagaMetrics.CANCELLED;
+                try {
+                    sagaMetrics.step("release_batch", () -> hotelServiceClient.releaseRoomHolds(new BatchHoldRequest(requestIds)));
+                } catch (Exception releaseError) {
+                    outcome = BookingSagaMetrics.COMPENSATION_FAILED;
+                    log.warn("[requestId:{}] Не удалось освободить HOLD-ы группы, они истекут по TTL: {}",
+                            groupId, releaseError.getMessage());
+                }
+
+                if (e instanceof FeignException fe) {
+                    throw fe;
+                }
+                throw new RuntimeException("Не удалось подтвердить групповое бронирование: " + e.getMessage(), e);
+            }
+        } finally {
+            sagaMetrics.finish(saga, BookingSagaMetrics.GROUP, outcome);
+        }
     }
 
-    @Recover
-    public void recoverFromConfirmFailure(Exception e, Long roomId, Long bookingId, LocalDate startDate, LocalDate endDate, String requestId) {
-        log.error("[traceId:{}] Все попытки повтора исчерпаны при подтверждении доступности номера", requestId);
-        throw new RuntimeException("Не удалось подтвердить доступность номера после всех повторов", e);
+    private void commitRoomHold(Long roomId, String requestId) {
+        log.info("[requestId:{}] Фиксируем HOLD номера {}", requestId, roomId);
+
+        hotelServiceClient.commitRoomHold(roomId, new CommitHoldRequest(requestId));
     }
 
     private void releaseRoomBlock(Long roomId, String requestId) {
-        log.info("[traceId:{}] Освобождаем блок номера (компенсация)", requestId);
-        
-        Map<String, String> releaseRequest = new HashMap<>();
-        releaseRequest.put("requestId", requestId);
+        log.info("[requestId:{}] Освобождаем блок номера (компенсация)", requestId);
         
-        hotelServiceClient.releaseRoom(roomId, releaseRequest);
+        hotelServiceClient.releaseRoom(roomId, new ReleaseRoomRequest(requestId));
     }
 
-    private Long selectBestRoom(String traceId) {
-        log.debug("[traceId:{}] Получаем рекомендованные номера", traceId);
+    private Long selectBestRoom(String requestId) {
+        log.debug("[requestId:{}] Получаем рекомендованные номера", requestId);
         
         List<RoomDto> rooms = hotelServiceClient.getRecommendedRooms();
         
@@ -186,60 +360,80 @@ public class BookingService {
         
         // Алгоритм: выбираем номер с минимальным счётчиком times_booked (уже отсортировано Hotel Service)
         RoomDto selectedRoom = rooms.get(0);
-        log.info("[traceId:{}] Выбран номер {} с timesBooked: {}", 
-                traceId, selectedRoom.getId(), selectedRoom.getTimesBooked());
+        log.info("[requestId:{}] Выбран номер {} с timesBooked: {}", 
+                requestId, selectedRoom.getId(), selectedRoom.getTimesBooked());
         
         return selectedRoom.getId();
     }
 
     @Transactional(readOnly = true)
-    public List<BookingDto> getUserBookings(String username) {
-        log.debug("Fetching bookings for user: {}", username);
-        
-        List<Booking> bookings = bookingRepository.findByUsername(username);
-        return bookings.stream()
-                .map(this::toDto)
-                .toList();
+    public PageDto<BookingDto> getUserBookings(String username, String status, LocalDate from, LocalDate to,
+                                               int page, int size) {
+        log.debug("Fetching bookings for user: {} (status={}, from={}, to={}, page={}, size={})",
+                username, status, from, to, page, size);
+
+        validateHistoryFilters(status, from, to, page, size);
+
+        return PageDto.of(bookingRepository.findHistoryByUsername(
+                username, status, from, to, PageRequest.of(page, size)));
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<BookingDto> getArchivedBookings(String username, String status, LocalDate from, LocalDate to,
+                                                   int page, int size) {
+        log.debug("Fetching archived bookings for user: {} (status={}, from={}, to={}, page={}, size={})",
+                username, status, from, to, page, size);
+
+        validateHistoryFilters(status, from, to, page, size);
+
+        return PageDto.of(bookingArchiveRepository.findHistoryByUsername(
+                username, status, from, to, PageRequest.of(page, size)));
+    }
+
+    private void validateHistoryFilters(String status, LocalDate from, LocalDate to, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("page должен быть >= 0, size - от 1 до " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if (status != null && !BOOKING_STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Неизвестный статус бронирования: " + status);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Дата from должна быть не позже даты to");
+        }
     }
 
     @Transactional(readOnly = true)
     public BookingDto getBookingById(String username, Long bookingId) {
         log.debug("Fetching booking {} for user: {}", bookingId, username);
         
-        Booking booking = bookingRepository.findById(bookingId)
+        // Владелец проверяется в самом запросе: чужое бронирование выглядит как несуществующее
+        // Завершённые бронирования могли уйти в архив - ищем там только при промахе
+        return bookingRepository.findDtoByIdAndUsername(bookingId, username)
+                .or(() -> bookingArchiveRepository.findDtoByIdAndUsername(bookingId, username))
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
-        
-        if (!booking.getUser().getUsername().equals(username)) {
-            throw new RuntimeException("Access denied: This booking belongs to another user");
-        }
-        
-        return toDto(booking);
     }
 
     @Transactional
     public void cancelBooking(String username, Long bookingId) {
         String requestId = UUID.randomUUID().toString();
-        log.info("[traceId:{}] Отменяем бронирование {} для пользователя: {}", requestId, bookingId, username);
+        log.info("[requestId:{}] Отменяем бронирование {} для пользователя: {}", requestId, bookingId, username);
         
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdAndUserUsername(bookingId, username)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
         
-        if (!booking.getUser().getUsername().equals(username)) {
-            throw new RuntimeException("Access denied: This booking belongs to another user");
-        }
-        
         // Идемпотентный результат - если уже отменено, просто возвращаем
         if ("CANCELLED".equals(booking.getStatus())) {
-            log.warn("[traceId:{}] Бронирование уже отменено, ничего не делаем", requestId);
+            log.warn("[requestId:{}] Бронирование уже отменено, ничего не делаем", requestId);
             return;
         }
         
         // Освобождаем блок номера если бронирование было CONFIRMED
         if ("CONFIRMED".equals(booking.getStatus())) {
             try {
-                releaseRoomBlock(booking.getRoomId(), booking.getRequestId());
+                sagaMetrics.step("release", () -> releaseRoomBlock(booking.getRoomId(), booking.getRequestId()));
             } catch (Exception e) {
-                log.warn("[traceId:{}] Не удалось освободить блок номера: {}", requestId, e.getMessage());
+                log.warn("[requestId:{}] Не удалось освободить блок номера: {}", requestId, e.getMessage());
+                sagaMetrics.outcome(BookingSagaMetrics.CANCEL, BookingSagaMetrics.COMPENSATION_FAILED);
             }
         }
         
@@ -247,14 +441,40 @@ public class BookingService {
         booking.setUpdatedAt(LocalDateTime.now());
         bookingRepository.save(booking);
         
-        log.info("[traceId:{}] Бронирование успешно отменено", requestId);
+        log.info("[requestId:{}] Бронирование успешно отменено", requestId);
+    }
+
+    private void endAfterCompletion(String idempotencyKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            idempotencyKeyCache.end(idempotencyKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                idempotencyKeyCache.end(idempotencyKey);
+            }
+        });
+    }
+
+    // id пользователя - число, поэтому двоеточие в самом ключе не даёт совпадений между пользователями
+    private static String idempotentRequestId(Long userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    private void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key должен быть непустым и не длиннее "
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " символов");
+        }
     }
 
-    private BookingDto toDto(Booking booking) {
+    // username передаётся явно: обращение к booking.getUser().getUsername() инициализирует ленивую связь
+    private BookingDto toDto(Booking booking, String username) {
         BookingDto dto = new BookingDto();
         dto.setId(booking.getId());
         dto.setUserId(booking.getUser().getId());
-        dto.setUsername(booking.getUser().getUsername());
+        dto.setUsername(username);
         dto.setRoomId(booking.getRoomId());
         dto.setHotelId(booking.getHotelId());
         dto.setStartDate(booking.getStartDate());
@@ -0,0 +1,53 @@
+package com.n1str.booking.service;
+
+import com.n1str.booking.client.HotelServiceClient;
+import com.n1str.booking.dto.ConfirmAvailabilityRequest;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * HOLD номера в Hotel Service с повторами и circuit breaker. Вынесен из BookingService в отдельный бин:
+ * @Retryable и @CircuitBreaker срабатывают только при вызове через прокси, а вызов метода BookingService
+ * из самого BookingService прокси обходит.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelAvailabilityGateway {
+
+    private final HotelServiceClient hotelServiceClient;
+
+    // 409 - окончательный отказ (номер занят), повтор его не изменит; 503 очереди допуска повторяется с backoff.
+    // Без @Recover после последней попытки наружу уходит исходное исключение - GlobalExceptionHandler
+    // отвечает тем же статусом, что и Hotel Service
+    @Retryable(
+        label = "confirmRoomAvailability",
+        retryFor = { FeignException.class, RuntimeException.class },
+        noRetryFor = { FeignException.Conflict.class, CallNotPermittedException.class },
+        maxAttempts = 3,
+        backoff = @Backoff(delayExpression = "${hotel-client.confirm-retry.delay-ms:1000}", multiplier = 2)
+    )
+    @CircuitBreaker(name = "hotelService", fallbackMethod = "fallbackConfirmAvailability")
+    public void confirmRoomAvailability(Long roomId, Long bookingId, LocalDate startDate, LocalDate endDate, String requestId) {
+        log.info("[requestId:{}] Пытаемся подтвердить доступность номера (с повторами и circuit breaker)", requestId);
+
+        hotelServiceClient.confirmAvailability(roomId,
+                new ConfirmAvailabilityRequest(startDate, endDate, bookingId, requestId));
+        log.info("[requestId:{}] Доступность номера подтверждена", requestId);
+    }
+
+    // Только открытый circuit breaker: ответы Hotel Service (409, 503) доходят до BookingService как есть
+    public void fallbackConfirmAvailability(Long roomId, Long bookingId, LocalDate startDate, LocalDate endDate,
+                                            String requestId, CallNotPermittedException e) {
+        log.error("[requestId:{}] Circuit breaker открыт: {}", requestId, e.getMessage());
+        throw new RuntimeException("Hotel Service недоступен (circuit breaker открыт). Бронирование отменено.", e);
+    }
+}
@@ -0,0 +1,58 @@
+package com.n1str.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Недавние Idempotency-Key этого экземпляра (в виде requestId "userId:ключ"): ключ -> id созданного
+ * бронирования (LRU, не больше cache-size записей) и ключи, сага по которым выполняется прямо сейчас.
+ * Повтор после таймаута обычно приходит через секунды, поэтому почти всегда отвечается по первичному
+ * ключу без поиска по request_id.
+ * Промах кэша не ошибка - источник истины по-прежнему уникальный индекс bookings.request_id.
+ */
+@Component
+public class IdempotencyKeyCache {
+
+    private final Map<String, Long> recent;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyKeyCache(@Value("${bookings.idempotency.cache-size:10000}") int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("bookings.idempotency.cache-size должно быть >= 1");
+        }
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public Long getBookingId(String key) {
+        synchronized (recent) {
+            return recent.get(key);
+        }
+    }
+
+    public void remember(String key, Long bookingId) {
+        synchronized (recent) {
+            recent.put(key, bookingId);
+        }
+    }
+
+    /**
+     * false - запрос с этим ключом уже выполняется на этом экземпляре.
+     */
+    public boolean tryBegin(String key) {
+        return inFlight.add(key);
+    }
+
+    public void end(String key) {
+        inFlight.remove(key);
+    }
+}
@@ -0,0 +1,72 @@
+package com.n1str.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * username -> id для всех токенов без claim "uid" (выданных до его появления), а не только для
+ * редких служебных запросов: пока такие токены живы, через кэш идёт каждое их бронирование.
+ * Для токенов с "uid" запись означает, что пользователь с этим id уже найден в users.
+ * LRU на экземпляр. Удаление пользователя на этом экземпляре вычищает запись сразу (UserRemovalListener
+ * срабатывает при любом способе удаления сущности). Другие экземпляры об удалении не узнают, поэтому
+ * запись живёт не дольше ttl: после него id снова берётся из users.
+ */
+@Component
+public class UserIdCache {
+
+    private final Map<String, Entry> entries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    @Autowired
+    public UserIdCache(@Value("${security.user-id-cache.size:256}") int size,
+                       @Value("${security.user-id-cache.ttl:PT5M}") Duration ttl) {
+        this(size, ttl, System::nanoTime);
+    }
+
+    UserIdCache(int size, Duration ttl, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    public Long get(String username) {
+        synchronized (entries) {
+            Entry entry = entries.get(username);
+            if (entry == null) {
+                return null;
+            }
+            if (clock.getAsLong() - entry.cachedAt >= ttlNanos) {
+                entries.remove(username);
+                return null;
+            }
+            return entry.userId;
+        }
+    }
+
+    public void put(String username, Long userId) {
+        synchronized (entries) {
+            entries.put(username, new Entry(userId, clock.getAsLong()));
+        }
+    }
+
+    public void evict(Long userId) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.userId.equals(userId));
+        }
+    }
+
+    private record Entry(Long userId, long cachedAt) {
+    }
+}
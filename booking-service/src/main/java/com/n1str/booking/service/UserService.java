@@ -2,8 +2,10 @@ package com.n1str.booking.service;
 
 import com.n1str.booking.dto.*;
 import com.n1str.booking.entity.User;
+import com.n1str.booking.repository.BookingArchiveRepository;
 import com.n1str.booking.repository.UserRepository;
 import com.n1str.booking.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,8 +21,11 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final BookingArchiveRepository bookingArchiveRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+    private final UserIdCache userIdCache;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -40,24 +45,40 @@ public class UserService {
         
         userRepository.save(user);
         
-        String token = jwtUtil.generateToken(user.getUsername(), List.of(user.getRole()));
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), List.of(user.getRole()));
         
         log.info("User registered successfully: {}", user.getUsername());
         return new AuthResponse(token, user.getUsername(), user.getRole());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Без транзакции на весь метод: проверка BCrypt ждёт пула хэширования, и всё это время держать
+     * соединение из пула БД незачем. Поиск пользователя и запись пересчитанного хэша - каждый в своей
+     * короткой транзакции репозитория.
+     */
     public AuthResponse authenticate(AuthRequest request) {
         log.info("Authenticating user: {}", request.getUsername());
         
         User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new org.springframework.security.authentication.BadCredentialsException("Invalid username or password"));
+                .orElseThrow(() -> {
+                    countLogin("failure");
+                    return new org.springframework.security.authentication.BadCredentialsException("Invalid username or password");
+                });
         
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            countLogin("failure");
             throw new org.springframework.security.authentication.BadCredentialsException("Invalid username or password");
         }
+
+        // Хэш со старым cost factor прозрачно пересчитываем под текущую настройку
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            userRepository.save(user);
+            log.info("Password hash upgraded for user: {}", user.getUsername());
+        }
+        countLogin("success");
         
-        String token = jwtUtil.generateToken(user.getUsername(), List.of(user.getRole()));
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), List.of(user.getRole()));
         
         log.info("User authenticated successfully: {}", user.getUsername());
         return new AuthResponse(token, user.getUsername(), user.getRole());
@@ -119,6 +140,10 @@ public class UserService {
             throw new RuntimeException("User not found");
         }
         
+        // bookings_archive ссылается на users; активные бронирования удаляет cascade у User.bookings
+        int archived = bookingArchiveRepository.deleteByUserId(userId);
+        log.info("Deleted {} archived bookings of user {}", archived, userId);
+        // Запись кэша username -> id вычищает UserRemovalListener
         userRepository.deleteById(userId);
         log.info("User deleted successfully");
     }
@@ -129,6 +154,46 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    /**
+     * Ссылка-прокси на пользователя без загрузки сущности. ID берётся из JWT (claim "uid"),
+     * а для токенов без него - из UserIdCache (через него идут все запросы таких токенов).
+     * ID из токена проверяется по первичному ключу и запоминается в том же кэше: токен удалённого
+     * пользователя получает "User not found", а не нарушение FK bookings.user_id.
+     */
+    public User getUserReference(Long userId, String username) {
+        Long id = userId != null ? verifyUserId(userId, username) : resolveUserId(username);
+        return userRepository.getReferenceById(id);
+    }
+
+    public Long getUserId(Long userId, String username) {
+        return userId != null ? userId : resolveUserId(username);
+    }
+
+    private Long verifyUserId(Long userId, String username) {
+        if (userId.equals(userIdCache.get(username))) {
+            return userId;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        userIdCache.put(username, userId);
+        return userId;
+    }
+
+    private Long resolveUserId(String username) {
+        Long cached = userIdCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        Long id = getUserByUsername(username).getId();
+        userIdCache.put(username, id);
+        return id;
+    }
+
+    private void countLogin(String outcome) {
+        meterRegistry.counter("auth.login", "outcome", outcome).increment();
+    }
+
     private UserDto toDto(User user) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
@@ -1,6 +1,6 @@
 -- Admin user (password: admin123)
 INSERT INTO users (id, username, password, role, email, full_name, created_at) VALUES
-(1, 'admin', '$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy', 'ADMIN', 'admin@hotel.com', 'System Administrator', CURRENT_TIMESTAMP);
+(1, 'admin', '$2a$10$rKA3NOHGN7DWtRViTX0jLOFzUNJo/2vnF69fhws81ScN9s8dFPXFS', 'ADMIN', 'admin@hotel.com', 'System Administrator', CURRENT_TIMESTAMP);
 
 -- Regular users (password: password123)
 INSERT INTO users (id, username, password, role, email, full_name, created_at) VALUES
@@ -0,0 +1,100 @@
+package com.n1str.booking.bootstrap;
+
+import com.n1str.booking.entity.User;
+import com.n1str.booking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminUserSeederTest {
+
+    private static final String HASH = "$2a$10$precomputedhashprecomputedhashprecomputedhashprecompu";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AdminUserSeeder adminUserSeeder;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(adminUserSeeder, "username", "admin");
+        ReflectionTestUtils.setField(adminUserSeeder, "passwordHash", HASH);
+    }
+
+    @Test
+    void seed_CreatesAdminWithPrecomputedHash_WhenMissing() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.empty());
+
+        adminUserSeeder.seed();
+
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).saveAndFlush(captor.capture());
+        assertEquals(HASH, captor.getValue().getPassword());
+        assertEquals("ADMIN", captor.getValue().getRole());
+    }
+
+    @Test
+    void seed_IsNoOp_WhenAdminAlreadyUpToDate() {
+        User admin = new User();
+        admin.setUsername("admin");
+        admin.setPassword(HASH);
+        admin.setRole("ADMIN");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+
+        adminUserSeeder.seed();
+
+        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void seed_RestoresRole_ButKeepsRehashedPassword() {
+        // UserService пересчитал хэш с большим cost при входе - это тот же пароль, сбрасывать его нельзя
+        User admin = new User();
+        admin.setUsername("admin");
+        admin.setPassword("$2a$12$rehashedrehashedrehashedrehashedrehashedrehashedrehas");
+        admin.setRole("USER");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+
+        adminUserSeeder.seed();
+
+        assertEquals("$2a$12$rehashedrehashedrehashedrehashedrehashedrehashedrehas", admin.getPassword());
+        assertEquals("ADMIN", admin.getRole());
+        verify(userRepository).save(admin);
+    }
+
+    @Test
+    void seed_IsNoOp_WhenAdminPasswordWasRehashed() {
+        User admin = new User();
+        admin.setUsername("admin");
+        admin.setPassword("$2a$12$rehashedrehashedrehashedrehashedrehashedrehashedrehas");
+        admin.setRole("ADMIN");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+
+        adminUserSeeder.seed();
+
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void seed_SwallowsDuplicate_WhenAnotherInstanceCreatedAdmin() {
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.empty());
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_users_username"));
+
+        assertDoesNotThrow(() -> adminUserSeeder.seed());
+    }
+}
@@ -0,0 +1,269 @@
+package com.n1str.booking.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingCapabilityTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<MethodMetadata> metadata =
+            new SpringMvcContract().parseAndValidateMetadata(HotelServiceClient.class);
+    private final Request.Options options = new Request.Options(2, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, true);
+
+    private HedgingCapability capability;
+
+    @AfterEach
+    void tearDown() {
+        if (capability != null) {
+            capability.destroy();
+        }
+    }
+
+    @Test
+    void execute_ShouldNotHedge_WhenResponseArrivesBeforeDelay() throws Exception {
+        capability = hedging(10, System::nanoTime);
+        AtomicInteger calls = new AtomicInteger();
+        Client client = enrich((request, opts) -> {
+            calls.incrementAndGet();
+            return response(request, "primary", new AtomicBoolean());
+        });
+
+        Response response = client.execute(request("getRoomById"), options);
+
+        assertEquals("primary", body(response));
+        assertEquals(1, calls.get());
+        assertEquals(0, count("primary") + count("hedge") + count("skipped"));
+    }
+
+    @Test
+    void execute_ShouldReturnHedgeResponse_AndCloseStalledPrimary() throws Exception {
+        capability = hedging(10, System::nanoTime);
+        CountDownLatch stalled = new CountDownLatch(1);
+        AtomicBoolean primaryClosed = new AtomicBoolean();
+        AtomicInteger calls = new AtomicInteger();
+        Client client = enrich((request, opts) -> {
+            if (calls.incrementAndGet() == 1) {
+                await(stalled);
+                return response(request, "primary", primaryClosed);
+            }
+            return response(request, "hedge", new AtomicBoolean());
+        });
+
+        Response response = client.execute(request("getRoomById"), options);
+        stalled.countDown();
+
+        assertEquals("hedge", body(response));
+        assertEquals(2, calls.get());
+        assertEquals(1, count("hedge"));
+        assertEventually(primaryClosed);
+    }
+
+    @Test
+    void execute_ShouldWaitForPrimary_WhenBudgetExhausted() throws Exception {
+        // Один токен и нулевое пополнение: копию получает только первый медленный запрос
+        capability = hedging(1, System::nanoTime);
+        AtomicInteger calls = new AtomicInteger();
+        Client client = enrich((request, opts) -> {
+            calls.incrementAndGet();
+            sleep(150);
+            return response(request, "slow", new AtomicBoolean());
+        });
+
+        client.execute(request("getRoomById"), options);
+        client.execute(request("getRoomById"), options);
+
+        assertEquals(3, calls.get());
+        assertEquals(1, count("skipped"));
+    }
+
+    @Test
+    void execute_ShouldTakeOtherAttempt_WhenOneFails() throws Exception {
+        capability = hedging(10, System::nanoTime);
+        AtomicInteger calls = new AtomicInteger();
+        Client client = enrich((request, opts) -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(150);
+                throw new IOException("Connection reset");
+            }
+            sleep(300);
+            return response(request, "hedge", new AtomicBoolean());
+        });
+
+        Response response = client.execute(request("getRecommendedRooms"), options);
+
+        assertEquals("hedge", body(response));
+    }
+
+    @Test
+    void execute_ShouldWaitForOtherAttempt_WhenFirstAnswersWithServerError() throws Exception {
+        capability = hedging(10, System::nanoTime);
+        AtomicBoolean primaryClosed = new AtomicBoolean();
+        AtomicInteger calls = new AtomicInteger();
+        Client client = enrich((request, opts) -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(150);
+                return response(request, 500, "primary", primaryClosed);
+            }
+            sleep(300);
+            return response(request, "hedge", new AtomicBoolean());
+        });
+
+        Response response = client.execute(request("getRoomById"), options);
+
+        assertEquals(200, response.status());
+        assertEquals("hedge", body(response));
+        assertEquals(1, count("hedge"));
+        assertEventually(primaryClosed);
+    }
+
+    @Test
+    void execute_ShouldReturnLastServerError_WhenBothAttemptsFail() throws Exception {
+        capability = hedging(10, System::nanoTime);
+        AtomicBoolean primaryClosed = new AtomicBoolean();
+        AtomicInteger calls = new AtomicInteger();
+        Client client = enrich((request, opts) -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(150);
+                return response(request, 500, "primary", primaryClosed);
+            }
+            sleep(300);
+            return response(request, 503, "hedge", new AtomicBoolean());
+        });
+
+        Response response = client.execute(request("getRoomById"), options);
+
+        assertEquals(503, response.status());
+        assertTrue(primaryClosed.get());
+    }
+
+    @Test
+    void execute_ShouldCallDelegateInCallerThread_WhenMethodNotHedged() throws Exception {
+        capability = hedging(10, System::nanoTime);
+        Thread caller = Thread.currentThread();
+        AtomicBoolean sameThread = new AtomicBoolean();
+        Client client = enrich((request, opts) -> {
+            sameThread.set(Thread.currentThread() == caller);
+            return response(request, "ok", new AtomicBoolean());
+        });
+
+        client.execute(request("confirmAvailability"), options);
+
+        assertTrue(sameThread.get());
+    }
+
+    @Test
+    void hedgeDelay_ShouldFollowObservedP95() throws Exception {
+        AtomicLong clock = new AtomicLong();
+        capability = hedging(10, clock::get);
+        Client client = enrich((request, opts) -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+            return response(request, "ok", new AtomicBoolean());
+        });
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), capability.hedgeDelayNanos("getRoomById"));
+        for (int i = 0; i < 20; i++) {
+            client.execute(request("getRoomById"), options);
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(capability.hedgeDelayNanos("getRoomById"));
+        assertTrue(delayMillis >= 35 && delayMillis <= 45, "p95 = " + delayMillis);
+    }
+
+    private HedgingCapability hedging(int maxBurst, LongSupplier clock) {
+        return new HedgingCapability(List.of("getRoomById", "getRecommendedRooms"), Duration.ofMillis(100),
+                Duration.ofMillis(5), 20, 0, maxBurst, 8, meterRegistry, clock);
+    }
+
+    private Client enrich(Client delegate) {
+        // Feign применяет Capability через reflection - так же, как при сборке HotelServiceClient
+        return (Client) Capability.enrich(delegate, Client.class, List.of(capability));
+    }
+
+    private double count(String result) {
+        return meterRegistry.find("feign.hedging.requests").tag("result", result).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private Request request(String methodName) {
+        MethodMetadata methodMetadata = metadata.stream()
+                .filter(m -> m.method().getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(methodMetadata);
+        return Request.create(Request.HttpMethod.GET, "http://hotel-service/api/rooms/1", Map.of(), null,
+                StandardCharsets.UTF_8, template);
+    }
+
+    private static Response response(Request request, String body, AtomicBoolean closed) {
+        return response(request, 200, body, closed);
+    }
+
+    private static Response response(Request request, int status, String body, AtomicBoolean closed) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of())
+                .body(new ByteArrayInputStream(bytes) {
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                }, bytes.length)
+                .build();
+    }
+
+    private static String body(Response response) throws IOException {
+        return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void assertEventually(AtomicBoolean flag) throws InterruptedException {
+        for (int i = 0; i < 50 && !flag.get(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(flag.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.n1str.booking.config;
+
+import com.n1str.booking.client.HotelServiceClient;
+import feign.Capability;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodReadTimeoutCapabilityTest {
+
+    private final FeignTransportConfig.MethodReadTimeoutCapability capability =
+            new FeignTransportConfig.MethodReadTimeoutCapability(Map.of(
+                    "getRoomById", Duration.ofSeconds(2),
+                    "confirmAvailability", Duration.ofSeconds(10)));
+
+    private final List<MethodMetadata> metadata =
+            new SpringMvcContract().parseAndValidateMetadata(HotelServiceClient.class);
+    private final Request.Options defaults = new Request.Options(2, TimeUnit.SECONDS, 60, TimeUnit.SECONDS, true);
+
+    @Test
+    void withReadTimeout_ShouldUseMethodTimeout_WhenConfigured() {
+        Request.Options fast = capability.withReadTimeout(request("getRoomById"), defaults);
+        Request.Options slow = capability.withReadTimeout(request("confirmAvailability"), defaults);
+
+        assertEquals(2000, fast.readTimeoutMillis());
+        assertEquals(10000, slow.readTimeoutMillis());
+        assertEquals(2000, fast.connectTimeoutMillis());
+        assertTrue(fast.isFollowRedirects());
+    }
+
+    @Test
+    void withReadTimeout_ShouldKeepClientOptions_WhenMethodNotConfigured() {
+        Request request = request("releaseRoom");
+
+        assertSame(defaults, capability.withReadTimeout(request, defaults));
+    }
+
+    @Test
+    void enrich_ShouldPassMethodTimeoutToDelegate_WhenAppliedByFeign() throws Exception {
+        AtomicReference<Request.Options> seen = new AtomicReference<>();
+        Client delegate = (request, options) -> {
+            seen.set(options);
+            return null;
+        };
+
+        // Feign применяет Capability через reflection - так же, как при сборке HotelServiceClient
+        Client client = (Client) Capability.enrich(delegate, Client.class, List.of(capability));
+        client.execute(request("getRoomById"), defaults);
+
+        assertEquals(2000, seen.get().readTimeoutMillis());
+    }
+
+    private Request request(String methodName) {
+        MethodMetadata methodMetadata = metadata.stream()
+                .filter(m -> m.method().getName().equals(methodName))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(methodMetadata);
+        return Request.create(Request.HttpMethod.GET, "http://hotel-service/api/rooms/1", Map.of(), null,
+                StandardCharsets.UTF_8, template);
+    }
+}
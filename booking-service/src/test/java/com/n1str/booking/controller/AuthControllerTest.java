@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.n1str.booking.dto.AuthRequest;
 import com.n1str.booking.dto.AuthResponse;
 import com.n1str.booking.dto.RegisterRequest;
+import com.n1str.booking.exception.PasswordHashingRejectedException;
 import com.n1str.booking.service.UserService;
 import com.n1str.booking.security.JwtAuthenticationFilter;
 import org.junit.jupiter.api.Test;
@@ -92,5 +93,18 @@ class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isInternalServerError());
     }
-}
 
+    @Test
+    void authenticate_Returns503WithRetryAfter_WhenHashingSaturated() throws Exception {
+        AuthRequest request = new AuthRequest("testuser", "password123");
+
+        when(userService.authenticate(any()))
+                .thenThrow(new PasswordHashingRejectedException("Password hashing capacity exhausted", 2));
+
+        mockMvc.perform(post("/user/auth")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+}
@@ -0,0 +1,157 @@
+package com.n1str.booking.repository;
+
+import com.n1str.booking.client.HotelServiceClient;
+import com.n1str.booking.dto.BookingDto;
+import com.n1str.booking.entity.Booking;
+import com.n1str.booking.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class BookingRepositoryTest {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private HotelServiceClient hotelServiceClient;
+
+    private final LocalDate baseDate = LocalDate.of(2030, 1, 1);
+    private Long otherUsersBookingId;
+
+    @BeforeEach
+    void setUp() {
+        User traveller = createUser("frequent_traveller");
+        User other = createUser("other_user");
+
+        // 25 бронирований: каждое третье отменено, даты сдвигаются на 10 дней
+        for (int i = 0; i < 25; i++) {
+            String status = i % 3 == 0 ? "CANCELLED" : "CONFIRMED";
+            createBooking(traveller, status, baseDate.plusDays(i * 10L), LocalDateTime.of(2029, 1, 1, 0, 0).plusHours(i));
+        }
+        otherUsersBookingId = createBooking(other, "CONFIRMED", baseDate, LocalDateTime.of(2029, 1, 1, 0, 0)).getId();
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findHistoryByUsername_ReturnsNewestFirstInPages() {
+        Page<BookingDto> first = bookingRepository.findHistoryByUsername(
+                "frequent_traveller", null, null, null, PageRequest.of(0, 10));
+        Page<BookingDto> last = bookingRepository.findHistoryByUsername(
+                "frequent_traveller", null, null, null, PageRequest.of(2, 10));
+
+        assertEquals(25, first.getTotalElements());
+        assertEquals(3, first.getTotalPages());
+        assertEquals(10, first.getContent().size());
+        assertEquals(5, last.getContent().size());
+        assertEquals(baseDate.plusDays(240), first.getContent().get(0).getStartDate());
+        assertEquals(baseDate, last.getContent().get(4).getStartDate());
+        assertTrue(first.getContent().stream().allMatch(b -> "frequent_traveller".equals(b.getUsername())));
+    }
+
+    @Test
+    void findHistoryByUsername_FiltersByStatus() {
+        Page<BookingDto> cancelled = bookingRepository.findHistoryByUsername(
+                "frequent_traveller", "CANCELLED", null, null, PageRequest.of(0, 50));
+
+        assertEquals(9, cancelled.getTotalElements());
+        assertTrue(cancelled.getContent().stream().allMatch(b -> "CANCELLED".equals(b.getStatus())));
+    }
+
+    @Test
+    void findHistoryByUsername_FiltersByOverlappingDateRange() {
+        // Брони длятся 2 ночи; в [baseDate+19, baseDate+30] попадают начавшиеся на +20 и +30
+        Page<BookingDto> inRange = bookingRepository.findHistoryByUsername(
+                "frequent_traveller", null, baseDate.plusDays(19), baseDate.plusDays(30), PageRequest.of(0, 50));
+
+        assertEquals(2, inRange.getTotalElements());
+        assertEquals(baseDate.plusDays(30), inRange.getContent().get(0).getStartDate());
+        assertEquals(baseDate.plusDays(20), inRange.getContent().get(1).getStartDate());
+    }
+
+    @Test
+    void findDtoByIdAndUsername_ChecksOwnerInSingleQuery() {
+        Statistics statistics = resetStatistics();
+
+        Optional<BookingDto> own = bookingRepository.findDtoByIdAndUsername(otherUsersBookingId, "other_user");
+
+        assertTrue(own.isPresent());
+        assertEquals("other_user", own.get().getUsername());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(bookingRepository.findDtoByIdAndUsername(otherUsersBookingId, "frequent_traveller").isEmpty());
+    }
+
+    @Test
+    void findByIdAndUserUsername_DoesNotInitializeUser() {
+        Statistics statistics = resetStatistics();
+
+        Booking booking = bookingRepository.findByIdAndUserUsername(otherUsersBookingId, "other_user").orElseThrow();
+
+        assertEquals("CONFIRMED", booking.getStatus());
+        assertFalse(Hibernate.isInitialized(booking.getUser()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(bookingRepository.findByIdAndUserUsername(otherUsersBookingId, "frequent_traveller").isEmpty());
+    }
+
+    private Statistics resetStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("encoded");
+        user.setRole("USER");
+        user.setCreatedAt(LocalDateTime.now());
+        return userRepository.save(user);
+    }
+
+    private Booking createBooking(User user, String status, LocalDate startDate, LocalDateTime createdAt) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setRoomId(1L);
+        booking.setHotelId(1L);
+        booking.setStartDate(startDate);
+        booking.setEndDate(startDate.plusDays(2));
+        booking.setStatus(status);
+        booking.setRequestId(UUID.randomUUID().toString());
+        booking.setCreatedAt(createdAt);
+        booking.setTotalPrice(200.0);
+        return bookingRepository.save(booking);
+    }
+}
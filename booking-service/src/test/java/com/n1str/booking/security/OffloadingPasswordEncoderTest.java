@@ -0,0 +1,96 @@
+package com.n1str.booking.security;
+
+import com.n1str.booking.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffloadingPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private OffloadingPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_DelegateToBCrypt() {
+        encoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4,
+                Duration.ofSeconds(5), 1, meterRegistry);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void upgradeEncoding_TrueForLowerCostHash() {
+        encoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(6), 1, 4,
+                Duration.ofSeconds(5), 1, meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    @Test
+    void matches_RejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new OffloadingPasswordEncoder(blocking, 1, 1, Duration.ofSeconds(5), 3, meterRegistry);
+
+        // Один вызов занимает поток, второй - единственное место в очереди
+        callers.submit(() -> encoder.matches("a", "a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> encoder.matches("b", "b"));
+        waitForQueuedTask();
+
+        PasswordHashingRejectedException ex = assertThrows(PasswordHashingRejectedException.class,
+                () -> encoder.matches("c", "c"));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.counter("password.hashing.rejected").count());
+
+        release.countDown();
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1) {
+            assertTrue(System.currentTimeMillis() < deadline, "Задача не попала в очередь");
+            Thread.sleep(10);
+        }
+    }
+}
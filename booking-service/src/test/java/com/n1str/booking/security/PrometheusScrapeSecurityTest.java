@@ -0,0 +1,67 @@
+package com.n1str.booking.security;
+
+import com.n1str.booking.client.HotelServiceClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prometheus скрейпит /actuator/prometheus своей Basic-учёткой; остальной actuator по-прежнему требует JWT.
+ */
+@SpringBootTest(properties = "prometheus.scrape.password={noop}scrape-secret")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class PrometheusScrapeSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private HotelServiceClient hotelServiceClient;
+
+    @Test
+    void prometheus_ShouldAcceptScrapeCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")));
+    }
+
+    @Test
+    void prometheus_ShouldRejectMissingOrWrongCredentials() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheus_ShouldNotAcceptUserToken() throws Exception {
+        String token = jwtUtil.generateToken(1L, "admin", List.of("ADMIN"));
+
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void metrics_ShouldStillRequireToken() throws Exception {
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isUnauthorized());
+    }
+}
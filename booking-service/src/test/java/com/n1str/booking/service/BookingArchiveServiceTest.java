@@ -0,0 +1,128 @@
+package com.n1str.booking.service;
+
+import com.n1str.booking.client.HotelServiceClient;
+import com.n1str.booking.dto.BookingDto;
+import com.n1str.booking.dto.PageDto;
+import com.n1str.booking.entity.Booking;
+import com.n1str.booking.entity.User;
+import com.n1str.booking.repository.BookingArchiveRepository;
+import com.n1str.booking.repository.BookingRepository;
+import com.n1str.booking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "bookings.archive.batch-size=2")
+@ActiveProfiles("test")
+@Transactional
+class BookingArchiveServiceTest {
+
+    private static final LocalDate HORIZON = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingArchiveRepository bookingArchiveRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @MockBean
+    private HotelServiceClient hotelServiceClient;
+
+    private Long userId;
+    private Long archivedBookingId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("archive_user");
+        user.setPassword("encoded");
+        user.setRole("USER");
+        user.setCreatedAt(LocalDateTime.now());
+        user = userRepository.save(user);
+        userId = user.getId();
+
+        // Пять завершённых бронирований (больше двух пачек) и одно актуальное
+        for (int i = 0; i < 5; i++) {
+            Long id = createBooking(user, HORIZON.minusDays(30 - i * 5L), LocalDateTime.of(2029, 1, 1, 0, 0).plusHours(i));
+            if (i == 0) {
+                archivedBookingId = id;
+            }
+        }
+        createBooking(user, HORIZON.plusDays(5), LocalDateTime.of(2029, 6, 1, 0, 0));
+    }
+
+    @Test
+    void archiveEndedBefore_ShouldMoveEndedBookingsInChunks() {
+        int moved = bookingArchiveService.archiveEndedBefore(HORIZON);
+
+        assertEquals(5, moved);
+        assertEquals(1, bookingRepository.count());
+        assertEquals(5, bookingArchiveRepository.count());
+        assertTrue(bookingRepository.findById(archivedBookingId).isEmpty());
+    }
+
+    @Test
+    void archivedBookings_ShouldStayReadable() {
+        bookingArchiveService.archiveEndedBefore(HORIZON);
+
+        PageDto<BookingDto> archive = bookingService.getArchivedBookings("archive_user", null, null, null, 0, 3);
+        assertEquals(5, archive.getTotalElements());
+        assertEquals(3, archive.getContent().size());
+        assertTrue(archive.getContent().get(0).getCreatedAt().isAfter(archive.getContent().get(1).getCreatedAt()));
+
+        assertEquals(1, bookingService.getUserBookings("archive_user", null, null, null, 0, 20).getTotalElements());
+
+        BookingDto archived = bookingService.getBookingById("archive_user", archivedBookingId);
+        assertEquals(archivedBookingId, archived.getId());
+        assertEquals("archive_user", archived.getUsername());
+        assertThrows(RuntimeException.class, () -> bookingService.getBookingById("someone_else", archivedBookingId));
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveArchivedBookings() {
+        bookingArchiveService.archiveEndedBefore(HORIZON);
+
+        userService.deleteUser(userId);
+        userRepository.flush();
+
+        assertFalse(userRepository.existsById(userId));
+        assertEquals(0, bookingArchiveRepository.count());
+        assertEquals(0, bookingRepository.count());
+    }
+
+    private Long createBooking(User user, LocalDate startDate, LocalDateTime createdAt) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setRoomId(1L);
+        booking.setHotelId(1L);
+        booking.setStartDate(startDate);
+        booking.setEndDate(startDate.plusDays(2));
+        booking.setStatus("CONFIRMED");
+        booking.setRequestId(UUID.randomUUID().toString());
+        booking.setCreatedAt(createdAt);
+        booking.setTotalPrice(200.0);
+        return bookingRepository.save(booking).getId();
+    }
+}
@@ -1,16 +1,24 @@
 package com.n1str.booking.service;
 
+import com.n1str.booking.dto.BookingDto;
 import com.n1str.booking.dto.CreateBookingRequest;
+import com.n1str.booking.dto.CreateGroupBookingRequest;
 import com.n1str.booking.dto.RoomDto;
 import com.n1str.booking.entity.Booking;
 import com.n1str.booking.entity.User;
+import com.n1str.booking.exception.IdempotencyKeyInProgressException;
+import com.n1str.booking.repository.BookingArchiveRepository;
 import com.n1str.booking.repository.BookingRepository;
 import com.n1str.booking.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 // no need to use FeignException in unit test; use RuntimeException instead
 import org.springframework.security.core.Authentication;
@@ -24,6 +32,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -33,12 +42,26 @@ class BookingServiceTest {
 	@Mock
 	private BookingRepository bookingRepository;
 
+	@Mock
+	private BookingArchiveRepository bookingArchiveRepository;
+
 	@Mock
     private UserService userService;
 
 	@Mock
 	private com.n1str.booking.client.HotelServiceClient hotelServiceClient;
 
+	@Mock
+	private HotelAvailabilityGateway hotelAvailabilityGateway;
+
+	@Mock
+	private IdempotencyKeyCache idempotencyKeyCache;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private BookingSagaMetrics sagaMetrics = new BookingSagaMetrics(meterRegistry);
+
 	@InjectMocks
 	private BookingService bookingService;
 
@@ -71,48 +94,240 @@ class BookingServiceTest {
 	@Test
 	void createBooking_ShouldSucceed_WhenAutoSelectAndNoConflicts() {
 		// Given
-        when(userService.getUserByUsername("testuser")).thenReturn(testUser);
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
         when(hotelServiceClient.getRecommendedRooms()).thenReturn(createTestRooms());
         when(hotelServiceClient.getRoomById(1L)).thenReturn(createTestRoomDto());
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
 		// When
-		assertDoesNotThrow(() -> bookingService.createBooking("testuser", testRequest));
+		assertDoesNotThrow(() -> bookingService.createBooking("testuser", 1L, testRequest, null));
 
 		// Then
 		verify(bookingRepository, times(2)).save(any(Booking.class)); // PENDING + CONFIRMED
-		verify(hotelServiceClient).confirmAvailability(eq(1L), any());
+		verify(hotelAvailabilityGateway).confirmRoomAvailability(eq(1L), any(), any(), any(), any());
+		verify(hotelServiceClient).commitRoomHold(eq(1L), any());
 		verify(hotelServiceClient).incrementTimesBooked(1L);
+		verify(userService, never()).getUserByUsername(any());
+		assertEquals(1.0, meterRegistry.get("booking.saga.outcome")
+				.tag("saga", "single").tag("outcome", "confirmed").counter().count());
+		for (String step : List.of("user_lookup", "select_room", "get_room", "pending_insert",
+				"confirm_availability", "commit_hold", "confirm_update", "increment_times_booked")) {
+			assertEquals(1L, meterRegistry.get("booking.saga.step")
+					.tag("step", step).tag("outcome", "success").timer().count(), step);
+		}
 	}
 
 	@Test
 	void createBooking_ShouldFail_WhenNoAvailableRooms() {
 		// Given
-        when(userService.getUserByUsername("testuser")).thenReturn(testUser);
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
         when(hotelServiceClient.getRecommendedRooms()).thenReturn(Collections.emptyList());
 
 		// When & Then
 		RuntimeException exception = assertThrows(RuntimeException.class,
-				() -> bookingService.createBooking("testuser", testRequest));
+				() -> bookingService.createBooking("testuser", 1L, testRequest, null));
 		assertEquals("Нет доступных номеров", exception.getMessage());
 	}
 
 	@Test
     void createBooking_ShouldCompensate_WhenHotelServiceFails() {
 		// Given
-        when(userService.getUserByUsername("testuser")).thenReturn(testUser);
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
         when(hotelServiceClient.getRecommendedRooms()).thenReturn(createTestRooms());
         when(hotelServiceClient.getRoomById(1L)).thenReturn(createTestRoomDto());
         doThrow(new RuntimeException("Service unavailable"))
-                .when(hotelServiceClient).confirmAvailability(eq(1L), any());
+                .when(hotelAvailabilityGateway).confirmRoomAvailability(eq(1L), any(), any(), any(), any());
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
 		// When
-        assertThrows(RuntimeException.class, () -> bookingService.createBooking("testuser", testRequest));
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking("testuser", 1L, testRequest, null));
 
 		// Then
 		verify(bookingRepository, times(2)).save(any(Booking.class)); // PENDING + CANCELLED
 		verify(hotelServiceClient, never()).incrementTimesBooked(any());
+		assertEquals(1.0, meterRegistry.get("booking.saga.outcome")
+				.tag("saga", "single").tag("outcome", "cancelled").counter().count());
+		assertEquals(1L, meterRegistry.get("booking.saga.step")
+				.tag("step", "confirm_availability").tag("outcome", "failure").timer().count());
+	}
+
+	@Test
+    void createBooking_ShouldCompensate_WhenHoldExpiredBeforeCommit() {
+		// Given
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
+        when(hotelServiceClient.getRecommendedRooms()).thenReturn(createTestRooms());
+        when(hotelServiceClient.getRoomById(1L)).thenReturn(createTestRoomDto());
+        doThrow(new RuntimeException("Hold expired"))
+                .when(hotelServiceClient).commitRoomHold(eq(1L), any());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		// When
+        assertThrows(RuntimeException.class, () -> bookingService.createBooking("testuser", 1L, testRequest, null));
+
+		// Then
+		ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
+		verify(bookingRepository, times(2)).save(captor.capture());
+		assertEquals("CANCELLED", captor.getValue().getStatus());
+		verify(hotelServiceClient, never()).incrementTimesBooked(any());
+	}
+
+	@Test
+	void createGroupBooking_ShouldHoldAndCommitAllRoomsInTwoCalls() {
+		// Given
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(hotelServiceClient.confirmAvailabilityBatch(any())).thenReturn(List.of(roomDto(1L), roomDto(2L), roomDto(3L)));
+        CreateGroupBookingRequest request = new CreateGroupBookingRequest(
+                List.of(1L, 2L, 3L), testRequest.getStartDate(), testRequest.getEndDate());
+
+		// When
+		List<BookingDto> bookings = bookingService.createGroupBooking("testuser", 1L, request);
+
+		// Then
+		assertEquals(3, bookings.size());
+		assertTrue(bookings.stream().allMatch(booking -> "CONFIRMED".equals(booking.getStatus())));
+		assertTrue(bookings.stream().allMatch(booking -> booking.getTotalPrice() != null && booking.getHotelId() == 1L));
+		verify(hotelServiceClient, times(1)).confirmAvailabilityBatch(any());
+		verify(hotelServiceClient, times(1)).commitRoomHolds(any());
+		verify(hotelServiceClient, never()).getRoomById(any());
+		verify(hotelServiceClient, never()).incrementTimesBooked(any());
+	}
+
+	@Test
+	void createGroupBooking_ShouldCancelWholeGroup_WhenAnyRoomIsTaken() {
+		// Given
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new RuntimeException("Conflict")).when(hotelServiceClient).confirmAvailabilityBatch(any());
+        CreateGroupBookingRequest request = new CreateGroupBookingRequest(
+                List.of(1L, 2L), testRequest.getStartDate(), testRequest.getEndDate());
+
+		// When
+		assertThrows(RuntimeException.class, () -> bookingService.createGroupBooking("testuser", 1L, request));
+
+		// Then
+		ArgumentCaptor<List<Booking>> captor = ArgumentCaptor.forClass(List.class);
+		verify(bookingRepository, times(2)).saveAll(captor.capture());
+		assertTrue(captor.getValue().stream().allMatch(booking -> "CANCELLED".equals(booking.getStatus())));
+		verify(hotelServiceClient).releaseRoomHolds(any());
+		verify(hotelServiceClient, never()).commitRoomHolds(any());
+	}
+
+	@Test
+	void createGroupBooking_ShouldCountCompensationFailure_WhenHoldsCannotBeReleased() {
+		// Given
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new RuntimeException("Conflict")).when(hotelServiceClient).confirmAvailabilityBatch(any());
+        doThrow(new RuntimeException("Service unavailable")).when(hotelServiceClient).releaseRoomHolds(any());
+        CreateGroupBookingRequest request = new CreateGroupBookingRequest(
+                List.of(1L, 2L), testRequest.getStartDate(), testRequest.getEndDate());
+
+		// When
+		assertThrows(RuntimeException.class, () -> bookingService.createGroupBooking("testuser", 1L, request));
+
+		// Then
+		assertEquals(1.0, meterRegistry.get("booking.saga.outcome")
+				.tag("saga", "group").tag("outcome", "compensation_failed").counter().count());
+		assertEquals(1L, meterRegistry.get("booking.saga")
+				.tag("saga", "group").tag("outcome", "compensation_failed").timer().count());
+	}
+
+	@Test
+	void createBooking_ShouldScopeIdempotencyKeyToUser() {
+        when(userService.getUserId(1L, "testuser")).thenReturn(1L);
+        when(userService.getUserReference(1L, "testuser")).thenReturn(testUser);
+        when(hotelServiceClient.getRecommendedRooms()).thenReturn(createTestRooms());
+        when(hotelServiceClient.getRoomById(1L)).thenReturn(createTestRoomDto());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(idempotencyKeyCache.tryBegin("1:key-1")).thenReturn(true);
+
+		bookingService.createBooking("testuser", 1L, testRequest, "key-1");
+
+		ArgumentCaptor<Booking> captor = ArgumentCaptor.forClass(Booking.class);
+		verify(bookingRepository, times(2)).save(captor.capture());
+		assertEquals("1:key-1", captor.getValue().getRequestId());
+		verify(hotelAvailabilityGateway).confirmRoomAvailability(eq(1L), any(), any(), any(), eq("1:key-1"));
+		verify(idempotencyKeyCache).end("1:key-1");
+	}
+
+	@Test
+	void createBooking_ShouldReject_WhenSameIdempotencyKeyInProgress() {
+        when(userService.getUserId(1L, "testuser")).thenReturn(1L);
+        when(idempotencyKeyCache.tryBegin("1:key-1")).thenReturn(false);
+
+		assertThrows(IdempotencyKeyInProgressException.class,
+				() -> bookingService.createBooking("testuser", 1L, testRequest, "key-1"));
+		verifyNoInteractions(hotelServiceClient);
+		verify(bookingRepository, never()).save(any());
+	}
+
+	@Test
+	void findByIdempotencyKey_ShouldReturnOriginalBooking_WithoutHotelService() {
+		BookingDto original = bookingDto("testuser");
+        when(userService.getUserId(1L, "testuser")).thenReturn(1L);
+        when(bookingRepository.findDtoByRequestId("1:key-1")).thenReturn(Optional.of(original));
+
+		Optional<BookingDto> replay = bookingService.findByIdempotencyKey("testuser", 1L, "key-1", testRequest);
+
+		assertEquals(Optional.of(original), replay);
+		verify(idempotencyKeyCache).remember("1:key-1", original.getId());
+		verifyNoInteractions(hotelServiceClient);
+	}
+
+	@Test
+	void findByIdempotencyKey_ShouldFindArchivedBooking() {
+		BookingDto original = bookingDto("testuser");
+        when(userService.getUserId(1L, "testuser")).thenReturn(1L);
+        when(idempotencyKeyCache.getBookingId("1:key-1")).thenReturn(original.getId());
+        when(bookingRepository.findDtoByIdAndUsername(original.getId(), "testuser")).thenReturn(Optional.empty());
+        when(bookingArchiveRepository.findDtoByIdAndUsername(original.getId(), "testuser")).thenReturn(Optional.of(original));
+
+		assertEquals(Optional.of(original), bookingService.findByIdempotencyKey("testuser", 1L, "key-1", testRequest));
+		verify(bookingRepository, never()).findDtoByRequestId(any());
+	}
+
+	@Test
+	void findByIdempotencyKey_ShouldNotSeeOtherUsersBooking_WithSameKey() {
+        when(userService.getUserId(2L, "otheruser")).thenReturn(2L);
+
+		assertEquals(Optional.empty(), bookingService.findByIdempotencyKey("otheruser", 2L, "key-1", testRequest));
+		verify(bookingRepository).findDtoByRequestId("2:key-1");
+	}
+
+	@Test
+	void findByIdempotencyKey_ShouldReject_WhenKeyReusedWithOtherDates() {
+		BookingDto original = bookingDto("testuser");
+		original.setEndDate(testRequest.getEndDate().plusDays(3));
+        when(userService.getUserId(1L, "testuser")).thenReturn(1L);
+        when(bookingRepository.findDtoByRequestId("1:key-1")).thenReturn(Optional.of(original));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> bookingService.findByIdempotencyKey("testuser", 1L, "key-1", testRequest));
+	}
+
+	@Test
+	void createGroupBooking_ShouldRejectDuplicateRooms() {
+        CreateGroupBookingRequest request = new CreateGroupBookingRequest(
+                List.of(1L, 1L), testRequest.getStartDate(), testRequest.getEndDate());
+
+		assertThrows(IllegalArgumentException.class, () -> bookingService.createGroupBooking("testuser", 1L, request));
+		verifyNoInteractions(hotelServiceClient);
+	}
+
+	private BookingDto bookingDto(String username) {
+		return new BookingDto(10L, 1L, username, 1L, 1L, testRequest.getStartDate(), testRequest.getEndDate(),
+				"CONFIRMED", java.time.LocalDateTime.now(), 100.0);
+	}
+
+	private RoomDto roomDto(Long id) {
+		RoomDto room = new RoomDto();
+		room.setId(id);
+		room.setHotelId(1L);
+		room.setAvailable(true);
+		room.setTimesBooked(0);
+		room.setPricePerNight(100.0);
+		return room;
 	}
 
 	private List<RoomDto> createTestRooms() {
@@ -0,0 +1,166 @@
+package com.n1str.booking.service;
+
+import com.n1str.booking.client.HotelServiceClient;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Повторы HOLD через прокси Spring: @Retryable и @CircuitBreaker срабатывают, только если
+ * HotelAvailabilityGateway вызывается как отдельный бин. Пауза между попытками в профиле test - 1 мс.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(HotelAvailabilityGatewayTest.ObservationConfig.class)
+class HotelAvailabilityGatewayTest {
+
+    private static final String METHOD = "confirmRoomAvailability";
+
+    @Autowired
+    private HotelAvailabilityGateway hotelAvailabilityGateway;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RetryObservations retryObservations;
+
+    @MockBean
+    private HotelServiceClient hotelServiceClient;
+
+    @Test
+    void confirmRoomAvailability_ShouldRetry_WhenHotelServiceFailsOnce() {
+        double attempts = count("booking.retry.attempts", "exception", "ServiceUnavailable");
+        double recovered = count("booking.retry.calls", "outcome", "recovered_after_retry");
+        doThrow(status(503)).doNothing().when(hotelServiceClient).confirmAvailability(eq(1L), any());
+
+        assertDoesNotThrow(() -> confirm("retry-once"));
+
+        verify(hotelServiceClient, times(2)).confirmAvailability(eq(1L), any());
+        assertEquals(attempts + 1, count("booking.retry.attempts", "exception", "ServiceUnavailable"));
+        assertEquals(recovered + 1, count("booking.retry.calls", "outcome", "recovered_after_retry"));
+    }
+
+    @Test
+    void confirmRoomAvailability_ShouldRetryAdmissionQueue503_UntilAttemptsExhausted() {
+        double exhausted = count("booking.retry.calls", "outcome", "exhausted");
+        doThrow(status(503)).when(hotelServiceClient).confirmAvailability(eq(1L), any());
+
+        // После последней попытки наружу уходит сам 503 - клиент получит тот же статус
+        assertThrows(FeignException.ServiceUnavailable.class, () -> confirm("retry-503"));
+
+        verify(hotelServiceClient, times(3)).confirmAvailability(eq(1L), any());
+        assertEquals(exhausted + 1, count("booking.retry.calls", "outcome", "exhausted"));
+    }
+
+    @Test
+    void confirmRoomAvailability_ShouldNotRetryConflict() {
+        double attempts = count("booking.retry.attempts", "exception", "Conflict");
+        doThrow(status(409)).when(hotelServiceClient).confirmAvailability(eq(1L), any());
+
+        assertThrows(FeignException.Conflict.class, () -> confirm("conflict"));
+
+        verify(hotelServiceClient, times(1)).confirmAvailability(eq(1L), any());
+        assertEquals(attempts + 1, count("booking.retry.attempts", "exception", "Conflict"));
+    }
+
+    @Test
+    void confirmRoomAvailability_ShouldWrapAttemptsInRetryObservation() {
+        retryObservations.clear();
+        doThrow(status(503)).doNothing().when(hotelServiceClient).confirmAvailability(eq(1L), any());
+
+        confirm("observed");
+
+        assertEquals(1, retryObservations.started.size());
+        Observation.Context context = retryObservations.started.get(0);
+        assertEquals(METHOD, context.getLowCardinalityKeyValue("method").getValue());
+        assertEquals(List.of("retry.attempt.failed"), retryObservations.events);
+        assertTrue(retryObservations.stopped.contains(context));
+        assertEquals("1", context.getHighCardinalityKeyValue("attempts").getValue());
+    }
+
+    private void confirm(String requestId) {
+        hotelAvailabilityGateway.confirmRoomAvailability(
+                1L, 10L, LocalDate.now().plusDays(1), LocalDate.now().plusDays(2), requestId);
+    }
+
+    private double count(String name, String tag, String value) {
+        Counter counter = meterRegistry.find(name).tag("method", METHOD).tag(tag, value).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static FeignException status(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://hotel-service/api/rooms/1/confirm-availability",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("HotelServiceClient#confirmAvailability(Long,ConfirmAvailabilityRequest)",
+                Response.builder().status(status).reason("").request(request).headers(Map.of()).build());
+    }
+
+    /**
+     * Запоминает наблюдения booking.retry, которые RetryMetricsConfig открывает вокруг попыток.
+     */
+    static class RetryObservations implements ObservationHandler<Observation.Context> {
+
+        private final List<Observation.Context> started = new CopyOnWriteArrayList<>();
+        private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStart(Observation.Context context) {
+            started.add(context);
+        }
+
+        @Override
+        public void onEvent(Observation.Event event, Observation.Context context) {
+            events.add(event.getName());
+        }
+
+        @Override
+        public void onStop(Observation.Context context) {
+            stopped.add(context);
+        }
+
+        @Override
+        public boolean supportsContext(Observation.Context context) {
+            return "booking.retry".equals(context.getName());
+        }
+
+        void clear() {
+            started.clear();
+            stopped.clear();
+            events.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class ObservationConfig {
+
+        @Bean
+        RetryObservations retryObservations() {
+            return new RetryObservations();
+        }
+    }
+}
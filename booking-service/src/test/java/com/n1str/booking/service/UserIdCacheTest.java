@@ -0,0 +1,85 @@
+package com.n1str.booking.service;
+
+import com.n1str.booking.client.HotelServiceClient;
+import com.n1str.booking.entity.User;
+import com.n1str.booking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class UserIdCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @MockBean
+    private HotelServiceClient hotelServiceClient;
+
+    @Test
+    void deleteUser_ShouldEvictCachedId() {
+        User user = new User();
+        user.setUsername("cached_user");
+        user.setPassword("hash");
+        user.setRole("USER");
+        user.setCreatedAt(LocalDateTime.now());
+        Long id = userRepository.save(user).getId();
+
+        userService.getUserReference(null, "cached_user");
+        assertEquals(id, userIdCache.get("cached_user"));
+
+        userService.deleteUser(id);
+        userRepository.flush();
+
+        assertNull(userIdCache.get("cached_user"));
+    }
+
+    @Test
+    void getUserReference_ShouldRejectTokenOfDeletedUser() {
+        User user = new User();
+        user.setUsername("deleted_user");
+        user.setPassword("hash");
+        user.setRole("USER");
+        user.setCreatedAt(LocalDateTime.now());
+        Long id = userRepository.save(user).getId();
+
+        userService.getUserReference(id, "deleted_user");
+        userService.deleteUser(id);
+        userRepository.flush();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.getUserReference(id, "deleted_user"));
+        assertEquals("User not found", exception.getMessage());
+    }
+
+    @Test
+    void get_ShouldForgetEntry_AfterTtl() {
+        AtomicLong clock = new AtomicLong();
+        UserIdCache cache = new UserIdCache(16, Duration.ofMinutes(5), clock::get);
+        cache.put("testuser", 7L);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(4));
+        assertEquals(7L, cache.get("testuser"));
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertNull(cache.get("testuser"));
+    }
+}
@@ -6,13 +6,17 @@ import com.n1str.booking.dto.RegisterRequest;
 import com.n1str.booking.entity.User;
 import com.n1str.booking.repository.UserRepository;
 import com.n1str.booking.security.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +37,12 @@ class UserServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private UserIdCache userIdCache = new UserIdCache(256, Duration.ofMinutes(5));
+
     @InjectMocks
     private UserService userService;
 
@@ -48,7 +58,7 @@ class UserServiceTest {
             user.setId(1L);
             return user;
         });
-        when(jwtUtil.generateToken(anyString(), any())).thenReturn("fake-jwt-token");
+        when(jwtUtil.generateToken(any(), anyString(), any())).thenReturn("fake-jwt-token");
 
         // Act
         AuthResponse response = userService.register(request);
@@ -86,7 +96,7 @@ class UserServiceTest {
         
         when(userRepository.findByUsername(request.getUsername())).thenReturn(Optional.of(user));
         when(passwordEncoder.matches(request.getPassword(), user.getPassword())).thenReturn(true);
-        when(jwtUtil.generateToken(anyString(), any())).thenReturn("fake-jwt-token");
+        when(jwtUtil.generateToken(any(), anyString(), any())).thenReturn("fake-jwt-token");
 
         // Act
         AuthResponse response = userService.authenticate(request);
@@ -126,5 +136,72 @@ class UserServiceTest {
         // Act & Assert
         assertThrows(RuntimeException.class, () -> userService.authenticate(request));
     }
-}
 
+    @Test
+    void getUserReference_UsesTokenUserIdWithoutLookup() {
+        User reference = new User();
+        when(userRepository.existsById(7L)).thenReturn(true);
+        when(userRepository.getReferenceById(7L)).thenReturn(reference);
+
+        assertSame(reference, userService.getUserReference(7L, "testuser"));
+        assertSame(reference, userService.getUserReference(7L, "testuser"));
+        verify(userRepository, never()).findByUsername(any());
+        verify(userRepository, times(1)).existsById(7L);
+    }
+
+    @Test
+    void getUserReference_ShouldFail_WhenTokenUserWasDeleted() {
+        when(userRepository.existsById(7L)).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.getUserReference(7L, "testuser"));
+        assertEquals("User not found", exception.getMessage());
+        verify(userRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void getUserReference_CachesUserIdForTokensWithoutClaim() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+        userService.getUserReference(null, "testuser");
+        userService.getUserReference(null, "testuser");
+
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository, times(2)).getReferenceById(7L);
+    }
+
+    @Test
+    void authenticate_UpgradesHashWithOutdatedCost() {
+        AuthRequest request = new AuthRequest("testuser", "password123");
+
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setPassword("old_cost_hash");
+        user.setRole("USER");
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password123", "old_cost_hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("old_cost_hash")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("new_cost_hash");
+        when(jwtUtil.generateToken(any(), anyString(), any())).thenReturn("fake-jwt-token");
+
+        userService.authenticate(request);
+
+        assertEquals("new_cost_hash", user.getPassword());
+        verify(userRepository).save(user);
+        assertEquals(1.0, meterRegistry.counter("auth.login", "outcome", "success").count());
+    }
+
+    @Test
+    void authenticate_CountsFailedLogins() {
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> userService.authenticate(new AuthRequest("nobody", "x")));
+
+        assertEquals(1.0, meterRegistry.counter("auth.login", "outcome", "failure").count());
+    }
+}
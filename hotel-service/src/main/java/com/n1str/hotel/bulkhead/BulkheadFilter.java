@@ -0,0 +1,115 @@
+package com.n1str.hotel.bulkhead;
+
+import com.n1str.hotel.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead на входе: запрос занимает место в своей полосе (TrafficLane) на всё время обработки.
+ * Если места нет, запрос ждёт его не дольше maxWait, занимая поток Tomcat, и затем получает 503 с Retry-After.
+ * При maxWait = 0 (ADMIN) отказ мгновенный, поэтому всплеск отчётов упирается в лимит ADMIN, не отнимая
+ * потоки у запросов саги; у SAGA и SEARCH ожидание короткое (200ms / 50ms) и сглаживает пики.
+ * Полоса запоминается в LaneContext - по ней LaneRoutingDataSource выбирает пул соединений.
+ * Метрики: hotel.bulkhead.active, hotel.bulkhead.limit, hotel.bulkhead.rejected (тег lane).
+ */
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final Map<TrafficLane, Bulkhead> bulkheads = new EnumMap<>(TrafficLane.class);
+    private final long retryAfterSeconds;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    private static final class Bulkhead {
+        private final int limit;
+        private final long maxWaitNanos;
+        private final Semaphore permits;
+        private final Counter rejected;
+
+        private Bulkhead(int limit, long maxWaitNanos, Counter rejected) {
+            this.limit = limit;
+            this.maxWaitNanos = maxWaitNanos;
+            this.permits = new Semaphore(limit);
+            this.rejected = rejected;
+        }
+    }
+
+    public BulkheadFilter(Map<TrafficLane, LaneSettings> lanes, long retryAfterSeconds,
+                          MeterRegistry meterRegistry, HandlerExceptionResolver exceptionResolver) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.exceptionResolver = exceptionResolver;
+        lanes.forEach((lane, settings) -> {
+            String tag = lane.name().toLowerCase();
+            Bulkhead bulkhead = new Bulkhead(settings.maxConcurrent(), settings.maxWait().toNanos(),
+                    Counter.builder("hotel.bulkhead.rejected")
+                            .description("Запросы, отклонённые из-за исчерпания лимита полосы")
+                            .tag("lane", tag)
+                            .register(meterRegistry));
+            Gauge.builder("hotel.bulkhead.active", bulkhead, b -> b.limit - b.permits.availablePermits())
+                    .description("Запросы полосы, выполняющиеся сейчас")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("hotel.bulkhead.limit", bulkhead, b -> b.limit)
+                    .description("Лимит одновременных запросов полосы")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            bulkheads.put(lane, bulkhead);
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        TrafficLane lane = TrafficLane.of(request.getMethod(), request.getRequestURI(),
+                request.getHeader(TrafficLane.LANE_HEADER));
+        Bulkhead bulkhead = lane == null ? null : bulkheads.get(lane);
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!acquire(bulkhead)) {
+            bulkhead.rejected.increment();
+            log.warn("Полоса {} занята ({} запросов), {} {} отклонён", lane, bulkhead.limit,
+                    request.getMethod(), request.getRequestURI());
+            exceptionResolver.resolveException(request, response, null,
+                    new BulkheadFullException("Too many concurrent " + lane + " requests", retryAfterSeconds));
+            return;
+        }
+        LaneContext.set(lane);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            LaneContext.clear();
+            bulkhead.permits.release();
+        }
+    }
+
+    private static boolean acquire(Bulkhead bulkhead) {
+        if (bulkhead.permits.tryAcquire()) {
+            return true;
+        }
+        if (bulkhead.maxWaitNanos <= 0) {
+            return false;
+        }
+        try {
+            return bulkhead.permits.tryAcquire(bulkhead.maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.n1str.hotel.bulkhead;
+
+/**
+ * Полоса, в которой выполняется текущий поток запроса. Её читает LaneRoutingDataSource при выдаче
+ * соединения; у фоновых задач (reaper, архивация) полосы нет. Очередь допуска HOLD-ов выполняет пачки
+ * в полосе SAGA через runIn: HOLD - шаг саги, и его транзакции берут соединения из пула саги.
+ */
+public final class LaneContext {
+
+    private static final ThreadLocal<TrafficLane> CURRENT = new ThreadLocal<>();
+
+    private LaneContext() {
+    }
+
+    public static TrafficLane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Выполняет task в полосе lane и восстанавливает прежнюю полосу потока.
+     */
+    public static void runIn(TrafficLane lane, Runnable task) {
+        TrafficLane previous = CURRENT.get();
+        CURRENT.set(lane);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static void set(TrafficLane lane) {
+        CURRENT.set(lane);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
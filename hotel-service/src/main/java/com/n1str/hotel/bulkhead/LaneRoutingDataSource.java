@@ -0,0 +1,31 @@
+package com.n1str.hotel.bulkhead;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Выдаёт соединение из пула полосы текущего запроса; вне полосы - из общего пула (миграции, фоновые задачи).
+ * Соединение берётся в начале транзакции, то есть в потоке запроса, где полоса уже выставлена BulkheadFilter.
+ */
+public class LaneRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return LaneContext.current();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        List<DataSource> pools = new ArrayList<>(getResolvedDataSources().values());
+        pools.add(getResolvedDefaultDataSource());
+        for (DataSource pool : pools) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
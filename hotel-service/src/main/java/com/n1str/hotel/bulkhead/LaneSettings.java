@@ -0,0 +1,16 @@
+package com.n1str.hotel.bulkhead;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Лимиты полосы (bulkhead.lanes.<полоса>.*): сколько запросов выполняется одновременно, сколько запрос
+ * может ждать свободного места до 503, размер пула соединений с БД и ожидание соединения из него.
+ */
+public record LaneSettings(
+        @DefaultValue("32") int maxConcurrent,
+        @DefaultValue("0ms") Duration maxWait,
+        @DefaultValue("4") int dbPoolSize,
+        @DefaultValue("5s") Duration dbConnectionTimeout) {
+}
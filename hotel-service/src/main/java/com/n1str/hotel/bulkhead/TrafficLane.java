@@ -0,0 +1,63 @@
+package com.n1str.hotel.bulkhead;
+
+import java.util.regex.Pattern;
+
+/**
+ * Полосы выполнения запросов hotel-service. У каждой полосы свой лимит одновременных запросов и свой пул
+ * соединений с БД, поэтому всплеск отчётов или поиска не отнимает ресурсы у шагов саги бронирования.
+ */
+public enum TrafficLane {
+
+    /**
+     * Внутренние вызовы booking-service: HOLD, commit, release, increment-booking и чтения шагов саги
+     * (номер, рекомендации), помеченные заголовком X-Traffic-Lane: saga.
+     */
+    SAGA,
+
+    /**
+     * Публичный поиск: списки отелей и номеров, рекомендации, календари.
+     */
+    SEARCH,
+
+    /**
+     * Статистика, архив и изменение справочников администратором.
+     */
+    ADMIN;
+
+    /**
+     * Заголовок, которым booking-service помечает свои запросы. Gateway вырезает его из внешних запросов.
+     */
+    public static final String LANE_HEADER = "X-Traffic-Lane";
+
+    private static final Pattern SAGA_PATH = Pattern.compile(
+            "/api/rooms/(\\d+/(confirm-availability|commit|release|increment-booking)|batch/.+)"
+                    + "|/api/inventory/(hold|commit|release)");
+    private static final Pattern ADMIN_READ_PATH = Pattern.compile("/api/rooms/(stats/.+|\\d+/blocks/archive)");
+
+    /**
+     * Полоса запроса или null для путей вне /api (actuator, swagger, консоль H2) - они не ограничиваются.
+     */
+    public static TrafficLane of(String method, String path) {
+        return of(method, path, null);
+    }
+
+    /**
+     * То же с учётом заголовка X-Traffic-Lane: GET саги по тем же путям, что и публичный поиск,
+     * отличаются от него только этим заголовком.
+     */
+    public static TrafficLane of(String method, String path, String laneHeader) {
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        if ("POST".equals(method) && SAGA_PATH.matcher(path).matches()) {
+            return SAGA;
+        }
+        if ("GET".equals(method) && "saga".equalsIgnoreCase(laneHeader)) {
+            return SAGA;
+        }
+        if (!"GET".equals(method) || ADMIN_READ_PATH.matcher(path).matches()) {
+            return ADMIN;
+        }
+        return SEARCH;
+    }
+}
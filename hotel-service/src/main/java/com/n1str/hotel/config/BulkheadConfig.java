@@ -0,0 +1,88 @@
+package com.n1str.hotel.config;
+
+import com.n1str.hotel.bulkhead.BulkheadFilter;
+import com.n1str.hotel.bulkhead.LaneRoutingDataSource;
+import com.n1str.hotel.bulkhead.LaneSettings;
+import com.n1str.hotel.bulkhead.TrafficLane;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Изоляция полос SAGA / SEARCH / ADMIN (см. TrafficLane): лимит одновременных запросов на входе и
+ * отдельный пул Hikari на полосу. Общий пул (spring.datasource.hikari.*) остаётся для Flyway и фоновых задач.
+ * Метрики пулов: hikaricp.connections.* с тегом pool=hotel-saga|hotel-search|hotel-admin|hotel-shared.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+    private final Map<TrafficLane, LaneSettings> lanes;
+
+    public BulkheadConfig(Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.lanes = new EnumMap<>(TrafficLane.class);
+        for (TrafficLane lane : TrafficLane.values()) {
+            // Не заданные в конфигурации параметры берутся из @DefaultValue в LaneSettings
+            lanes.put(lane, binder.bindOrCreate("bulkhead.lanes." + lane.name().toLowerCase(), LaneSettings.class));
+        }
+    }
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(
+            @Value("${bulkhead.retry-after-seconds:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(
+                new BulkheadFilter(lanes, retryAfterSeconds, meterRegistry, exceptionResolver));
+        // До Spring Security: проверка JWT тоже выполняется внутри полосы, а отказ обходится дешевле всего
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 MeterRegistry meterRegistry) {
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        HikariDataSource shared = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(shared));
+        if (shared.getPoolName() == null) {
+            shared.setPoolName("hotel-shared");
+        }
+        shared.setMetricsTrackerFactory(metrics);
+
+        Map<Object, Object> pools = new HashMap<>();
+        lanes.forEach((lane, settings) -> {
+            HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName("hotel-" + lane.name().toLowerCase());
+            pool.setMaximumPoolSize(settings.dbPoolSize());
+            pool.setMinimumIdle(Math.min(2, settings.dbPoolSize()));
+            pool.setConnectionTimeout(settings.dbConnectionTimeout().toMillis());
+            pool.setMetricsTrackerFactory(metrics);
+            pools.put(lane, pool);
+        });
+
+        LaneRoutingDataSource dataSource = new LaneRoutingDataSource();
+        dataSource.setTargetDataSources(pools);
+        dataSource.setDefaultTargetDataSource(shared);
+        return dataSource;
+    }
+}
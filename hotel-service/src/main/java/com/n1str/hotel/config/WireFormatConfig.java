@@ -0,0 +1,40 @@
+package com.n1str.hotel.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.n1str.hotel.dto.ErrorResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Бинарный формат CBOR (application/cbor) для внутренних вызовов booking-service: тело запроса
+ * читается по Content-Type, ответ отдаётся в CBOR, если клиент запросил его в Accept.
+ * Конвертер стоит после JSON, поэтому клиенты, не запросившие application/cbor явно, по-прежнему получают JSON.
+ * ErrorResponse всегда пишется в JSON - его текст попадает в сообщение FeignException у клиента.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Конвертер CBOR по умолчанию (есть, раз jackson-dataformat-cbor в classpath) не знает настроек
+        // spring.jackson.* - заменяем его конвертером на маппере Spring Boot
+        converters.removeIf(MappingJackson2CborHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.factory(new CBORFactory()).build()) {
+            @Override
+            public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+                return !ErrorResponse.class.isAssignableFrom(clazz) && super.canWrite(clazz, mediaType);
+            }
+        });
+    }
+}
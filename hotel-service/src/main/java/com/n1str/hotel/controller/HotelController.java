@@ -1,19 +1,23 @@
 package com.n1str.hotel.controller;
 
 import com.n1str.hotel.dto.CreateHotelRequest;
+import com.n1str.hotel.dto.HotelCalendarDto;
 import com.n1str.hotel.dto.HotelDto;
 import com.n1str.hotel.service.HotelService;
+import com.n1str.hotel.service.RoomCalendarService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -24,6 +28,7 @@ import java.util.List;
 public class HotelController {
 
     private final HotelService hotelService;
+    private final RoomCalendarService roomCalendarService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -55,6 +60,19 @@ public class HotelController {
         return ResponseEntity.ok(hotel);
     }
 
+    @GetMapping("/{id}/calendar")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Get hotel availability calendar",
+               description = "Per-night occupancy of every room of the hotel for [from, to] in one call (default: 90 days, max 366)")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<HotelCalendarDto> getHotelCalendar(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("Received request to get calendar for hotel {}", id);
+        return ResponseEntity.ok(roomCalendarService.getHotelCalendar(id, from, to));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update hotel", description = "Admin only - Update an existing hotel")
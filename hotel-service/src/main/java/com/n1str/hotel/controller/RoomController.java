@@ -1,10 +1,23 @@
 package com.n1str.hotel.controller;
 
+import com.n1str.hotel.dto.BatchConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.BatchHoldRequest;
+import com.n1str.hotel.dto.CommitHoldRequest;
 import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
 import com.n1str.hotel.dto.CreateRoomRequest;
 import com.n1str.hotel.dto.ReleaseRoomRequest;
+import com.n1str.hotel.dto.RoomBlockDto;
+import com.n1str.hotel.dto.RoomCalendarDto;
 import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.exception.HoldAdmissionRejectedException;
+import com.n1str.hotel.exception.HoldExpiredException;
+import com.n1str.hotel.service.HoldAdmissionQueue;
+import com.n1str.hotel.service.RoomAvailabilityService;
+import com.n1str.hotel.service.RoomBlockArchiveService;
+import com.n1str.hotel.service.RoomBlockBatchService;
 import com.n1str.hotel.service.RoomBlockService;
+import com.n1str.hotel.service.RoomCalendarService;
 import com.n1str.hotel.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,11 +25,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -28,6 +43,11 @@ public class RoomController {
 
     private final RoomService roomService;
     private final RoomBlockService roomBlockService;
+    private final RoomBlockArchiveService roomBlockArchiveService;
+    private final RoomBlockBatchService roomBlockBatchService;
+    private final RoomCalendarService roomCalendarService;
+    private final RoomAvailabilityService roomAvailabilityService;
+    private final HoldAdmissionQueue holdAdmissionQueue;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -59,6 +79,18 @@ public class RoomController {
         return ResponseEntity.ok(rooms);
     }
 
+    @GetMapping("/free")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Find free rooms", description = "Available rooms with no active blocks for [startDate, endDate], ordered by ID (max 500)")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<List<RoomDto>> getFreeRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "50") int limit) {
+        log.debug("Received request to find free rooms for {} - {}", startDate, endDate);
+        return ResponseEntity.ok(roomAvailabilityService.findFreeRooms(startDate, endDate, limit));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @Operation(summary = "Get room by ID", description = "Get detailed information about a specific room")
@@ -69,6 +101,36 @@ public class RoomController {
         return ResponseEntity.ok(room);
     }
 
+    @GetMapping("/{id}/calendar")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Get room availability calendar",
+               description = "Per-night occupancy for [from, to] (default: 90 days from today, max 366). " +
+                             "Bit i of the base64 bitmap (LSB-first) and occupiedRuns [offset, length] mark occupied nights")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<RoomCalendarDto> getRoomCalendar(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("Received request to get calendar for room {}", id);
+        return ResponseEntity.ok(roomCalendarService.getRoomCalendar(id, from, to));
+    }
+
+    @GetMapping("/{id}/blocks/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get archived room blocks",
+               description = "Admin only - Blocks moved out of the hot table after their stay ended, newest first. " +
+                             "Optional from/to select blocks overlapping the date range")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<List<RoomBlockDto>> getArchivedBlocks(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("Received request to get archived blocks for room {}", id);
+        return ResponseEntity.ok(roomBlockArchiveService.getArchivedBlocks(id, from, to, page, size));
+    }
+
     @PostMapping("/{id}/confirm-availability")
     @Operation(summary = "Confirm room availability", description = "Internal endpoint - Confirm and block room for booking")
     public ResponseEntity<Void> confirmAvailability(
@@ -76,14 +138,68 @@ public class RoomController {
             @Valid @RequestBody ConfirmAvailabilityRequest request) {
         log.info("Received request to confirm availability for room {} with requestId {}", id, request.getRequestId());
         try {
-            roomBlockService.confirmAvailability(id, request);
+            holdAdmissionQueue.confirmAvailability(id, request);
             return ResponseEntity.ok().build();
+        } catch (HoldAdmissionRejectedException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Failed to confirm availability: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
+    @PostMapping("/batch/confirm-availability")
+    @Operation(summary = "Confirm availability for a group of rooms",
+               description = "Internal endpoint - Hold all rooms of a group booking in one transaction (all or nothing)")
+    public ResponseEntity<List<RoomDto>> confirmAvailabilityBatch(
+            @Valid @RequestBody BatchConfirmAvailabilityRequest request) {
+        log.info("Received request to confirm availability for {} rooms", request.getHolds().size());
+        try {
+            return ResponseEntity.ok(roomBlockBatchService.confirmAvailability(request));
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Failed to confirm group availability: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/batch/commit")
+    @Operation(summary = "Commit group holds", description = "Internal endpoint - Turn all PENDING holds of a group into CONFIRMED blocks")
+    public ResponseEntity<Void> commitHoldsBatch(@Valid @RequestBody BatchHoldRequest request) {
+        log.info("Received request to commit {} holds", request.getRequestIds().size());
+        try {
+            roomBlockBatchService.commitHolds(request);
+            return ResponseEntity.ok().build();
+        } catch (HoldExpiredException e) {
+            log.warn("Failed to commit group holds: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/batch/release")
+    @Operation(summary = "Release group holds", description = "Internal endpoint - Compensation for a failed group booking")
+    public ResponseEntity<Void> releaseHoldsBatch(@Valid @RequestBody BatchHoldRequest request) {
+        log.info("Received request to release {} holds", request.getRequestIds().size());
+        roomBlockBatchService.releaseHolds(request);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{id}/commit")
+    @Operation(summary = "Commit room hold", description = "Internal endpoint - Turn a PENDING hold into a CONFIRMED block before its TTL expires")
+    public ResponseEntity<Void> commitHold(
+            @PathVariable Long id,
+            @Valid @RequestBody CommitHoldRequest request) {
+        log.info("Received request to commit hold for room {} with requestId {}", id, request.getRequestId());
+        try {
+            roomBlockService.commitHold(id, request);
+            return ResponseEntity.ok().build();
+        } catch (HoldExpiredException e) {
+            log.warn("Failed to commit hold: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
     @PostMapping("/{id}/release")
     @Operation(summary = "Release room block", description = "Internal endpoint - Release a room block (compensation)")
     public ResponseEntity<Void> releaseRoom(
@@ -0,0 +1,101 @@
+package com.n1str.hotel.controller;
+
+import com.n1str.hotel.dto.CommitHoldRequest;
+import com.n1str.hotel.dto.ReleaseRoomRequest;
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.dto.RoomTypeHoldRequest;
+import com.n1str.hotel.dto.RoomTypeInventoryDto;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.exception.HoldExpiredException;
+import com.n1str.hotel.service.RoomTypeInventoryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/inventory")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Room type inventory", description = "Selling any room of a type by per-date counters")
+public class RoomTypeInventoryController {
+
+    private final RoomTypeInventoryService roomTypeInventoryService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Get room type inventory", description = "Per-date capacity, sold and remaining rooms of a type in a hotel")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<List<RoomTypeInventoryDto>> getInventory(
+            @RequestParam Long hotelId,
+            @RequestParam String roomType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.debug("Received request to get inventory of {} in hotel {}", roomType, hotelId);
+        return ResponseEntity.ok(roomTypeInventoryService.getInventory(hotelId, roomType, from, to));
+    }
+
+    @PostMapping("/hold")
+    @Operation(summary = "Hold a room of a type",
+               description = "Internal endpoint - Sell one room of the type for every date of the range (all or nothing) as a PENDING hold with TTL")
+    public ResponseEntity<Void> hold(@Valid @RequestBody RoomTypeHoldRequest request) {
+        log.info("Received request to hold {} in hotel {} with requestId {}",
+                request.getRoomType(), request.getHotelId(), request.getRequestId());
+        try {
+            roomTypeInventoryService.hold(request);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Failed to hold room type: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/commit")
+    @Operation(summary = "Commit room type hold", description = "Internal endpoint - Turn a PENDING type hold into CONFIRMED before its TTL expires")
+    public ResponseEntity<Void> commit(@Valid @RequestBody CommitHoldRequest request) {
+        log.info("Received request to commit type hold {}", request.getRequestId());
+        try {
+            roomTypeInventoryService.commit(request.getRequestId());
+            return ResponseEntity.ok().build();
+        } catch (HoldExpiredException e) {
+            log.warn("Failed to commit type hold: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/release")
+    @Operation(summary = "Release room type hold", description = "Internal endpoint - Return the sold dates (compensation)")
+    public ResponseEntity<Void> release(@Valid @RequestBody ReleaseRoomRequest request) {
+        log.info("Received request to release type hold {}", request.getRequestId());
+        roomTypeInventoryService.release(request.getRequestId());
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/assign")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Assign a physical room", description = "Admin only - Pick a room of the type free for the whole stay of a confirmed hold")
+    @SecurityRequirement(name = "bearer-jwt")
+    public ResponseEntity<RoomDto> assignRoom(@Valid @RequestBody CommitHoldRequest request) {
+        log.info("Received request to assign room for type hold {}", request.getRequestId());
+        try {
+            return ResponseEntity.ok(roomTypeInventoryService.assignRoom(request.getRequestId()));
+        } catch (IllegalArgumentException | EntityNotFoundException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Failed to assign room: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
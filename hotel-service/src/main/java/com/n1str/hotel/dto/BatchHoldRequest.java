@@ -0,0 +1,17 @@
+package com.n1str.hotel.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchHoldRequest {
+
+    @NotEmpty(message = "At least one request ID is required")
+    private List<String> requestIds;
+}
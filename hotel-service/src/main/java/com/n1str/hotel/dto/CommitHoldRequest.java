@@ -0,0 +1,12 @@
+package com.n1str.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommitHoldRequest {
+    private String requestId;
+}
@@ -0,0 +1,18 @@
+package com.n1str.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelCalendarDto {
+    private Long hotelId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<RoomCalendarDto> rooms;
+}
@@ -0,0 +1,22 @@
+package com.n1str.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomBlockDto {
+    private Long id;
+    private Long roomId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long bookingId;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime archivedAt;
+}
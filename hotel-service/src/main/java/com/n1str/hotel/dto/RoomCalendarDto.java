@@ -0,0 +1,25 @@
+package com.n1str.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Занятость номера по дням. День from+i занят, если установлен бит i:
+ * bitmap - base64 от байтов, бит i лежит в байте i/8 (младший бит первый), хвостовые нулевые байты опущены.
+ * occupiedRuns - те же данные в виде серий [смещение от from, длина].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomCalendarDto {
+    private Long roomId;
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+    private String bitmap;
+    private List<int[]> occupiedRuns;
+}
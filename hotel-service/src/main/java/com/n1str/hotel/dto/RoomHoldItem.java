@@ -0,0 +1,21 @@
+package com.n1str.hotel.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomHoldItem {
+
+    @NotNull(message = "Room ID is required")
+    private Long roomId;
+
+    private Long bookingId;
+
+    @NotBlank(message = "Request ID is required")
+    private String requestId;
+}
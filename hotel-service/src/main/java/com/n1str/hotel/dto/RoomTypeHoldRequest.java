@@ -0,0 +1,19 @@
+package com.n1str.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomTypeHoldRequest {
+    private Long hotelId;
+    private String roomType;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long bookingId;
+    private String requestId;
+}
@@ -0,0 +1,17 @@
+package com.n1str.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomTypeInventoryDto {
+    private LocalDate stayDate;
+    private int capacity;
+    private int sold;
+    private int remaining;
+}
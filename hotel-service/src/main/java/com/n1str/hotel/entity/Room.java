@@ -9,7 +9,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = {
+        @Index(name = "idx_rooms_hotel_available", columnList = "hotel_id, available"),
+        @Index(name = "idx_rooms_hotel_type", columnList = "hotel_id, room_type")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -9,7 +9,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "room_blocks")
+@Table(name = "room_blocks", indexes = {
+        @Index(name = "idx_room_blocks_room_status_dates", columnList = "room_id, status, start_date, end_date"),
+        @Index(name = "idx_room_blocks_status_expires", columnList = "status, expires_at"),
+        @Index(name = "idx_room_blocks_booking_id", columnList = "booking_id"),
+        @Index(name = "idx_room_blocks_end_date", columnList = "end_date"),
+        @Index(name = "idx_room_blocks_created_at", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
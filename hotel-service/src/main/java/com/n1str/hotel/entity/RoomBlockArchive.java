@@ -0,0 +1,54 @@
+package com.n1str.hotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Завершённый блок, перенесённый из room_blocks. Только для чтения истории; id совпадает с исходным.
+ * Связь с Room не заводим: архив переживает удаление номера.
+ */
+@Entity
+@Table(name = "room_blocks_archive", indexes = {
+        @Index(name = "idx_room_blocks_archive_room_dates", columnList = "room_id, start_date, end_date"),
+        @Index(name = "idx_room_blocks_archive_booking_id", columnList = "booking_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomBlockArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "request_id")
+    private String requestId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
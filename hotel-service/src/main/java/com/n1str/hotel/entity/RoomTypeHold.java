@@ -0,0 +1,56 @@
+package com.n1str.hotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Удержание «любого номера типа» на [startDate, endDate]. roomId заполняется при последующем размещении.
+ */
+@Entity
+@Table(name = "room_type_holds", indexes = {
+        @Index(name = "idx_room_type_holds_status_expires", columnList = "status, expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomTypeHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(name = "room_type", nullable = false)
+    private String roomType;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "request_id", nullable = false, unique = true)
+    private String requestId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
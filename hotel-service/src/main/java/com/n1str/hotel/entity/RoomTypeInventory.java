@@ -0,0 +1,27 @@
+package com.n1str.hotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сколько номеров типа есть (capacity) и сколько продано (sold) на дату.
+ * Связей с Hotel не заводим: строки создаются по требованию и не мешают удалению отеля.
+ */
+@Entity
+@Table(name = "room_type_inventory")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomTypeInventory {
+
+    @EmbeddedId
+    private RoomTypeInventoryId id;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer sold = 0;
+}
@@ -0,0 +1,26 @@
+package com.n1str.hotel.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomTypeInventoryId implements Serializable {
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(name = "room_type", nullable = false)
+    private String roomType;
+
+    @Column(name = "stay_date", nullable = false)
+    private LocalDate stayDate;
+}
@@ -0,0 +1,17 @@
+package com.n1str.hotel.exception;
+
+import lombok.Getter;
+
+/**
+ * Лимит одновременных запросов полосы исчерпан - клиенту отдаётся 503 с Retry-After.
+ */
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BulkheadFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
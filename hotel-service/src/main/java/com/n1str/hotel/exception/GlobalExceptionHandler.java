@@ -1,8 +1,13 @@
 package com.n1str.hotel.exception;
 
 import com.n1str.hotel.dto.ErrorResponse;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -16,9 +21,12 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final ObjectProvider<Tracer> tracer;
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleEntityNotFoundException(
             EntityNotFoundException ex, HttpServletRequest request) {
@@ -31,7 +39,7 @@ public class GlobalExceptionHandler {
                 "Not Found",
                 ex.getMessage(),
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
@@ -55,7 +63,7 @@ public class GlobalExceptionHandler {
                 "Validation Failed",
                 errors,
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
@@ -71,7 +79,7 @@ public class GlobalExceptionHandler {
                 "Bad Request",
                 ex.getMessage(),
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
@@ -87,12 +95,48 @@ public class GlobalExceptionHandler {
                 "Forbidden",
                 "You don't have permission to access this resource",
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
     }
 
+    @ExceptionHandler(HoldAdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleHoldAdmissionRejectedException(
+            HoldAdmissionRejectedException ex, HttpServletRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI(),
+                currentTraceId()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFullException(
+            BulkheadFullException ex, HttpServletRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI(),
+                currentTraceId()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(
             RuntimeException ex, HttpServletRequest request) {
@@ -105,10 +149,16 @@ public class GlobalExceptionHandler {
                 "Internal Server Error",
                 ex.getMessage(),
                 request.getRequestURI(),
-                UUID.randomUUID().toString()
+                currentTraceId()
         );
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
-}
 
+    // traceId текущей трассы - по нему ошибку можно найти в логах и спанах всех сервисов
+    private String currentTraceId() {
+        Tracer current = tracer.getIfAvailable();
+        Span span = current != null ? current.currentSpan() : null;
+        return span != null ? span.context().traceId() : UUID.randomUUID().toString();
+    }
+}
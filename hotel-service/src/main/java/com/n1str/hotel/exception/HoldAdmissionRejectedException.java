@@ -0,0 +1,17 @@
+package com.n1str.hotel.exception;
+
+import lombok.Getter;
+
+/**
+ * Очередь допуска HOLD-ов переполнена или ожидание в ней превысило предел - клиенту отдаётся 503 с Retry-After.
+ */
+@Getter
+public class HoldAdmissionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HoldAdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
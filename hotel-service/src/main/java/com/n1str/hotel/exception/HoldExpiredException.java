@@ -0,0 +1,7 @@
+package com.n1str.hotel.exception;
+
+public class HoldExpiredException extends RuntimeException {
+    public HoldExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.n1str.hotel.repository;
+
+import com.n1str.hotel.dto.RoomBlockDto;
+import com.n1str.hotel.entity.RoomBlockArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomBlockArchiveRepository extends JpaRepository<RoomBlockArchive, Long> {
+
+    /**
+     * Копирует блоки из room_blocks в архив одним INSERT ... SELECT, без загрузки сущностей.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_blocks_archive (id, room_id, start_date, end_date, booking_id, request_id, " +
+                   "status, created_at, expires_at, archived_at) " +
+                   "SELECT id, room_id, start_date, end_date, booking_id, request_id, status, created_at, expires_at, " +
+                   ":archivedAt FROM room_blocks WHERE id IN (:ids)",
+           nativeQuery = true)
+    int copyFromRoomBlocks(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Архивная история номера, новые сверху. Идёт по индексу idx_room_blocks_archive_room_dates.
+     */
+    @Query("SELECT new com.n1str.hotel.dto.RoomBlockDto(a.id, a.roomId, a.startDate, a.endDate, a.bookingId, " +
+           "a.status, a.createdAt, a.archivedAt) " +
+           "FROM RoomBlockArchive a WHERE a.roomId = :roomId " +
+           "AND (:from IS NULL OR a.endDate >= :from) " +
+           "AND (:to IS NULL OR a.startDate <= :to) " +
+           "ORDER BY a.startDate DESC, a.id DESC")
+    List<RoomBlockDto> findHistoryByRoomId(@Param("roomId") Long roomId,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to,
+                                           Pageable pageable);
+}
@@ -1,20 +1,41 @@
 package com.n1str.hotel.repository;
 
 import com.n1str.hotel.entity.RoomBlock;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoomBlockRepository extends JpaRepository<RoomBlock, Long> {
 
+    interface PendingHoldDeadline {
+        Long getId();
+
+        LocalDateTime getExpiresAt();
+    }
+
+    interface BlockInterval {
+        Long getRoomId();
+
+        LocalDate getStartDate();
+
+        LocalDate getEndDate();
+
+        String getStatus();
+
+        LocalDateTime getExpiresAt();
+    }
+
     Optional<RoomBlock> findByRequestId(String requestId);
 
     @Query("SELECT rb FROM RoomBlock rb WHERE rb.room.id = :roomId AND rb.status IN ('PENDING', 'CONFIRMED') " +
@@ -23,9 +44,66 @@ public interface RoomBlockRepository extends JpaRepository<RoomBlock, Long> {
                                           @Param("startDate") LocalDate startDate,
                                           @Param("endDate") LocalDate endDate);
 
+    /**
+     * Пересечения сразу для группы номеров одним запросом (IN по room_id в индексе idx_room_blocks_room_status_dates).
+     */
+    @Query("SELECT rb FROM RoomBlock rb WHERE rb.room.id IN :roomIds AND rb.status IN ('PENDING', 'CONFIRMED') " +
+           "AND rb.startDate <= :endDate AND rb.endDate >= :startDate")
+    List<RoomBlock> findConflictingBlocksForRooms(@Param("roomIds") Collection<Long> roomIds,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    /**
+     * Интервалы блоков группы номеров для календаря - без загрузки сущностей.
+     */
+    @Query("SELECT rb.room.id AS roomId, rb.startDate AS startDate, rb.endDate AS endDate, " +
+           "rb.status AS status, rb.expiresAt AS expiresAt FROM RoomBlock rb " +
+           "WHERE rb.room.id IN :roomIds AND rb.endDate >= :from")
+    List<BlockInterval> findIntervalsForRooms(@Param("roomIds") Collection<Long> roomIds, @Param("from") LocalDate from);
+
+    /**
+     * Номера, у которых с момента since появились блоки - в том числе созданные другими экземплярами.
+     */
+    @Query("SELECT DISTINCT rb.room.id FROM RoomBlock rb WHERE rb.createdAt >= :since")
+    List<Long> findDistinctRoomIdsCreatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT DISTINCT rb.room.id FROM RoomBlock rb WHERE rb.id IN :ids")
+    List<Long> findDistinctRoomIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT rb.room.id FROM RoomBlock rb WHERE rb.requestId IN :requestIds")
+    List<Long> findDistinctRoomIdsByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
+
+    @Query("SELECT rb FROM RoomBlock rb JOIN FETCH rb.room WHERE rb.requestId IN :requestIds")
+    List<RoomBlock> findWithRoomByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
+
     @Query("SELECT rb FROM RoomBlock rb WHERE rb.status = 'PENDING' AND rb.expiresAt < :now")
     List<RoomBlock> findExpiredPendingBlocks(@Param("now") LocalDateTime now);
 
+    @Query("SELECT rb.id FROM RoomBlock rb WHERE rb.status = 'PENDING' AND rb.expiresAt < :now ORDER BY rb.expiresAt")
+    List<Long> findExpiredPendingBlockIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT rb.id AS id, rb.expiresAt AS expiresAt FROM RoomBlock rb " +
+           "WHERE rb.status = 'PENDING' AND rb.expiresAt IS NOT NULL ORDER BY rb.expiresAt")
+    List<PendingHoldDeadline> findPendingHoldDeadlines(Pageable pageable);
+
+    /**
+     * Удаляет только действительно просроченные PENDING-блоки: подтверждённые и продлённые не трогает.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RoomBlock rb WHERE rb.id IN :ids AND rb.status = 'PENDING' AND rb.expiresAt <= :now")
+    int deleteExpiredPendingBlocks(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Блоки, завершившиеся до горизонта хранения, пачкой по индексу idx_room_blocks_end_date.
+     */
+    @Query("SELECT rb.id FROM RoomBlock rb WHERE rb.endDate < :horizon ORDER BY rb.endDate, rb.id")
+    List<Long> findIdsEndedBefore(@Param("horizon") LocalDate horizon, Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RoomBlock rb WHERE rb.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("DELETE FROM RoomBlock rb WHERE rb.status = 'PENDING'")
     void deleteAllPendingBlocks();
@@ -1,13 +1,20 @@
 package com.n1str.hotel.repository;
 
 import com.n1str.hotel.entity.Room;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
@@ -21,6 +28,49 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId AND r.available = true")
     List<Room> findAvailableByHotelId(@Param("hotelId") Long hotelId);
 
+    /**
+     * Строковая блокировка номера (SELECT ... FOR UPDATE) до конца транзакции: сериализует HOLD-ы
+     * одного номера между экземплярами сервиса.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Групповой вариант findByIdForUpdate. Строки блокируются в порядке id, чтобы пересекающиеся
+     * группы не взаимоблокировались.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id IN :ids ORDER BY r.id")
+    List<Room> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.hotel.id FROM Room r WHERE r.id = :id")
+    Optional<Long> findHotelIdById(@Param("id") Long id);
+
+    @Query("SELECT COUNT(r) FROM Room r WHERE r.hotel.id = :hotelId AND r.roomType = :roomType AND r.available = true")
+    int countAvailableByHotelIdAndRoomType(@Param("hotelId") Long hotelId, @Param("roomType") String roomType);
+
+    @Query("SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId AND r.roomType = :roomType AND r.available = true " +
+           "ORDER BY r.timesBooked ASC, r.id ASC")
+    List<Long> findAvailableIdsByHotelIdAndRoomType(@Param("hotelId") Long hotelId, @Param("roomType") String roomType);
+
+    @Query("SELECT r.id FROM Room r ORDER BY r.id")
+    List<Long> findAllIds();
+
+    /**
+     * Доступные номера без активных блоков на [startDate, endDate]; просроченные HOLD-ы номер не занимают.
+     */
+    @Query("SELECT r FROM Room r WHERE r.available = true AND NOT EXISTS (" +
+           "SELECT 1 FROM RoomBlock rb WHERE rb.room = r AND rb.startDate <= :endDate AND rb.endDate >= :startDate " +
+           "AND (rb.status = 'CONFIRMED' OR rb.expiresAt IS NULL OR rb.expiresAt > :now)) ORDER BY r.id")
+    List<Room> findFreeRooms(@Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate,
+                             @Param("now") LocalDateTime now,
+                             Pageable pageable);
+
+    @Query("SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId ORDER BY r.id")
+    List<Long> findIdsByHotelId(@Param("hotelId") Long hotelId);
+
     @Modifying
     @Query("UPDATE Room r SET r.timesBooked = 0")
     void resetAllBookingCounters();
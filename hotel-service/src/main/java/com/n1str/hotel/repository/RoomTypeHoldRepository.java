@@ -0,0 +1,33 @@
+package com.n1str.hotel.repository;
+
+import com.n1str.hotel.entity.RoomTypeHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RoomTypeHoldRepository extends JpaRepository<RoomTypeHold, Long> {
+
+    Optional<RoomTypeHold> findByRequestId(String requestId);
+
+    @Query("SELECT h.requestId FROM RoomTypeHold h WHERE h.status = 'PENDING' AND h.expiresAt < :now ORDER BY h.expiresAt")
+    List<String> findExpiredPendingRequestIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Условное удаление: из параллельных снятий одного удержания строку удаляет (и получает 1) только одно.
+     */
+    @Modifying
+    @Query("DELETE FROM RoomTypeHold h WHERE h.requestId = :requestId")
+    int deleteByRequestId(@Param("requestId") String requestId);
+
+    @Modifying
+    @Query("DELETE FROM RoomTypeHold h WHERE h.requestId = :requestId AND h.status = 'PENDING' AND h.expiresAt < :now")
+    int deleteExpiredPending(@Param("requestId") String requestId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,52 @@
+package com.n1str.hotel.repository;
+
+import com.n1str.hotel.entity.RoomTypeInventory;
+import com.n1str.hotel.entity.RoomTypeInventoryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RoomTypeInventoryRepository extends JpaRepository<RoomTypeInventory, RoomTypeInventoryId> {
+
+    @Query("SELECT i FROM RoomTypeInventory i WHERE i.id.hotelId = :hotelId AND i.id.roomType = :roomType " +
+           "AND i.id.stayDate BETWEEN :from AND :to ORDER BY i.id.stayDate")
+    List<RoomTypeInventory> findRange(@Param("hotelId") Long hotelId,
+                                      @Param("roomType") String roomType,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    /**
+     * Продажа места на каждую дату диапазона одним условным UPDATE. Строки без свободных мест не изменяются,
+     * поэтому число обновлённых строк меньше числа ночей означает, что тип распродан хотя бы на одну дату.
+     */
+    @Modifying
+    @Query("UPDATE RoomTypeInventory i SET i.sold = i.sold + 1 WHERE i.id.hotelId = :hotelId " +
+           "AND i.id.roomType = :roomType AND i.id.stayDate BETWEEN :from AND :to AND i.sold < i.capacity")
+    int incrementSold(@Param("hotelId") Long hotelId,
+                      @Param("roomType") String roomType,
+                      @Param("from") LocalDate from,
+                      @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("UPDATE RoomTypeInventory i SET i.sold = i.sold - 1 WHERE i.id.hotelId = :hotelId " +
+           "AND i.id.roomType = :roomType AND i.id.stayDate BETWEEN :from AND :to AND i.sold > 0")
+    int decrementSold(@Param("hotelId") Long hotelId,
+                      @Param("roomType") String roomType,
+                      @Param("from") LocalDate from,
+                      @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("UPDATE RoomTypeInventory i SET i.capacity = :capacity WHERE i.id.hotelId = :hotelId " +
+           "AND i.id.roomType = :roomType AND i.id.stayDate BETWEEN :from AND :to AND i.capacity <> :capacity")
+    int updateCapacity(@Param("hotelId") Long hotelId,
+                       @Param("roomType") String roomType,
+                       @Param("from") LocalDate from,
+                       @Param("to") LocalDate to,
+                       @Param("capacity") int capacity);
+}
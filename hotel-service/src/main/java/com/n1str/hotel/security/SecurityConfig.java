@@ -3,13 +3,22 @@ package com.n1str.hotel.security;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.n1str.hotel.dto.ErrorResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -50,6 +59,33 @@ public class SecurityConfig {
         };
     }
 
+    /**
+     * /actuator/prometheus - своя цепочка с Basic-учёткой сборщика метрик: JWT пользователя живёт час,
+     * и Prometheus с ним не скрейпит. Пароль хранится в формате DelegatingPasswordEncoder ({noop}, {bcrypt}).
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusFilterChain(
+            HttpSecurity http,
+            @Value("${prometheus.scrape.username:prometheus}") String username,
+            @Value("${prometheus.scrape.password}") String password) throws Exception {
+        DaoAuthenticationProvider scraper = new DaoAuthenticationProvider();
+        scraper.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        scraper.setUserDetailsService(new InMemoryUserDetailsManager(
+                User.withUsername(username).password(password).roles("METRICS").build()));
+
+        http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationManager(new ProviderManager(scraper))
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                );
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -60,11 +96,18 @@ public class SecurityConfig {
                             "/v3/api-docs/**", "/v3/api-docs.yaml").permitAll()
                     // Консоль H2 - доступна без авторизации
                     .requestMatchers("/h2-console/**").permitAll()
+                    // Health для оркестратора; /actuator/prometheus обслуживает prometheusFilterChain
+                    .requestMatchers("/actuator/health/**").permitAll()
+                    // Метрики раскрывают внутренности сервиса - только с токеном
+                    .requestMatchers("/actuator/**").authenticated()
                     
                     // Внутренние эндпойнты для обслуживания сервис-сервис (без авторизации)
                     .requestMatchers(HttpMethod.POST, "/api/rooms/*/confirm-availability").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/rooms/*/commit").permitAll()
                     .requestMatchers(HttpMethod.POST, "/api/rooms/*/release").permitAll()
                     .requestMatchers(HttpMethod.POST, "/api/rooms/*/increment-booking").permitAll()
+                    .requestMatchers(HttpMethod.POST, "/api/inventory/hold", "/api/inventory/commit",
+                            "/api/inventory/release").permitAll()
                     
                     // Защищённые эндпойнты - требуется авторизация
                     .requestMatchers(HttpMethod.GET, "/api/**").authenticated()
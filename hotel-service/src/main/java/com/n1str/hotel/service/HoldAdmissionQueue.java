@@ -0,0 +1,351 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.bulkhead.LaneContext;
+import com.n1str.hotel.bulkhead.TrafficLane;
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.entity.Room;
+import com.n1str.hotel.entity.RoomBlock;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.exception.HoldAdmissionRejectedException;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Очередь допуска HOLD-ов для «горячих» дат (распродажи).
+ * При room-blocks.admission.enabled=true запросы confirmAvailability встают в очередь своей полосы
+ * (отель, startDate, endDate) вместо того, чтобы соревноваться за блокировки номеров. Полосу разбирает
+ * один рабочий поток: берёт до batch-size запросов в порядке поступления, решает их одной транзакцией
+ * (одна блокировка строк, один запрос пересечений) и отвечает ожидающим в том же порядке. Проигравшие
+ * получают окончательный 409, а не повод для повтора. Ожидание ограничено: очередь полосы не длиннее
+ * max-queue, ждать ответа можно не дольше max-wait - иначе 503 с Retry-After.
+ * Выключенная очередь передаёт запросы прямо в RoomBlockService.
+ * Глубина очереди видна в метриках room.hold.admission.lanes и room.hold.admission.queued.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldAdmissionQueue implements MeterBinder {
+
+    private final RoomBlockService roomBlockService;
+    private final RoomBlockRepository roomBlockRepository;
+    private final RoomRepository roomRepository;
+    private final RoomHoldReaper roomHoldReaper;
+    private final RoomLockStripes roomLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${room-blocks.admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${room-blocks.admission.workers:4}")
+    private int workers = 4;
+
+    @Value("${room-blocks.admission.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${room-blocks.admission.max-queue:500}")
+    private int maxQueue = 500;
+
+    @Value("${room-blocks.admission.max-wait:PT8S}")
+    private Duration maxWait = Duration.ofSeconds(8);
+
+    @Value("${room-blocks.admission.retry-after-seconds:2}")
+    private long retryAfterSeconds = 2;
+
+    @Value("${room-blocks.hold.ttl:PT10M}")
+    private Duration holdTtl = Duration.ofMinutes(10);
+
+    private final Map<LaneKey, Lane> lanes = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    record LaneKey(Long hotelId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private static final class Lane {
+        private final Deque<PendingHold> waiting = new ArrayDeque<>();
+    }
+
+    private static final class PendingHold {
+        private final Long roomId;
+        private final ConfirmAvailabilityRequest request;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        // Решение, принятое внутри транзакции; ожидающему отдаётся только после коммита
+        private RuntimeException failure;
+
+        private PendingHold(Long roomId, ConfirmAvailabilityRequest request) {
+            this.roomId = roomId;
+            this.request = request;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "hold-admission-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Очередь допуска HOLD-ов включена: {} потоков, пачка {}, очередь полосы {}, ожидание {}",
+                workers, batchSize, maxQueue, maxWait);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("room.hold.admission.lanes", lanes, Map::size)
+                .description("Полосы очереди допуска с ожидающими HOLD-ами")
+                .register(registry);
+        // Размер читается без блокировки полосы - для метрики достаточно приблизительного значения
+        Gauge.builder("room.hold.admission.queued", lanes,
+                        l -> l.values().stream().mapToInt(lane -> lane.waiting.size()).sum())
+                .description("HOLD-ы, ожидающие в очереди допуска")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public void confirmAvailability(Long roomId, ConfirmAvailabilityRequest request) {
+        if (!enabled) {
+            roomBlockService.confirmAvailability(roomId, request);
+            return;
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Даты начала и окончания обязательны");
+        }
+        Long hotelId = roomRepository.findHotelIdById(roomId)
+                .orElseThrow(() -> new EntityNotFoundException("Room not found with id: " + roomId));
+        LaneKey key = new LaneKey(hotelId, request.getStartDate(), request.getEndDate());
+        PendingHold pending = new PendingHold(roomId, request);
+
+        boolean[] accepted = new boolean[1];
+        boolean[] schedule = new boolean[1];
+        lanes.compute(key, (k, lane) -> {
+            Lane target = lane != null ? lane : new Lane();
+            if (target.waiting.size() < maxQueue) {
+                target.waiting.addLast(pending);
+                accepted[0] = true;
+                // Новой полосе нужен рабочий поток; существующую он и так разбирает
+                schedule[0] = lane == null;
+            }
+            return target;
+        });
+        if (!accepted[0]) {
+            log.warn("[requestId:{}] Очередь допуска отеля {} на {}..{} переполнена", request.getRequestId(),
+                    hotelId, request.getStartDate(), request.getEndDate());
+            throw new HoldAdmissionRejectedException("Hold admission queue is full", retryAfterSeconds);
+        }
+        if (schedule[0]) {
+            executor.execute(() -> drain(key));
+        }
+        await(pending);
+    }
+
+    private void await(PendingHold pending) {
+        String requestId = pending.request.getRequestId();
+        try {
+            pending.result.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Ещё не взятый в пачку запрос будет пропущен; если пачка уже в работе, HOLD снимет компенсация или TTL
+            if (!pending.result.cancel(false)) {
+                await(pending);
+                return;
+            }
+            log.warn("[requestId:{}] Ожидание в очереди допуска превысило {}", requestId, maxWait);
+            throw new HoldAdmissionRejectedException("Hold admission wait exceeded", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            pending.result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ожидание в очереди допуска прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Разбирает одну пачку полосы и ставит себя в конец очереди потоков - полосы чередуются, и ни одна
+     * не занимает рабочий поток целиком. Опустевшая полоса удаляется.
+     */
+    private void drain(LaneKey key) {
+        List<PendingHold> batch = new ArrayList<>(batchSize);
+        boolean[] more = new boolean[1];
+        lanes.computeIfPresent(key, (k, lane) -> {
+            while (batch.size() < batchSize && !lane.waiting.isEmpty()) {
+                PendingHold next = lane.waiting.pollFirst();
+                if (!next.result.isDone()) {
+                    batch.add(next);
+                }
+            }
+            more[0] = !batch.isEmpty();
+            return more[0] ? lane : null;
+        });
+        if (!more[0]) {
+            return;
+        }
+        try {
+            // HOLD - шаг саги: транзакции пачки идут через пул полосы SAGA, а не через общий
+            LaneContext.runIn(TrafficLane.SAGA, () -> process(key, batch));
+        } catch (RuntimeException e) {
+            log.error("Пачка очереди допуска отеля {} завершилась ошибкой: {}", key.hotelId(), e.getMessage());
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        } finally {
+            if (!executor.isShutdown()) {
+                executor.execute(() -> drain(key));
+            }
+        }
+    }
+
+    private void process(LaneKey key, List<PendingHold> batch) {
+        Set<Long> roomIds = batch.stream()
+                .map(pending -> pending.roomId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        List<RoomBlock> created;
+        try {
+            created = roomLockStripes.withRoomLocks(roomIds,
+                    () -> transactionTemplate.execute(status -> holdBatch(key, roomIds, batch)));
+        } catch (RuntimeException e) {
+            // Пачка целиком не прошла (например, гонка с другим экземпляром) - решаем запросы по одному
+            log.warn("Пачка из {} HOLD-ов отеля {} откатилась, обрабатываем по одному: {}",
+                    batch.size(), key.hotelId(), e.getMessage());
+            for (PendingHold pending : batch) {
+                try {
+                    roomBlockService.confirmAvailability(pending.roomId, pending.request);
+                    pending.result.complete(null);
+                } catch (RuntimeException single) {
+                    pending.result.completeExceptionally(single);
+                }
+            }
+            return;
+        }
+
+        created.forEach(block -> roomHoldReaper.track(block.getId(), block.getExpiresAt()));
+        for (PendingHold pending : batch) {
+            if (pending.failure != null) {
+                pending.result.completeExceptionally(pending.failure);
+            } else {
+                pending.result.complete(null);
+            }
+        }
+        log.info("Очередь допуска отеля {} на {}..{}: пачка {} запросов, создано {} HOLD-ов",
+                key.hotelId(), key.startDate(), key.endDate(), batch.size(), created.size());
+    }
+
+    /**
+     * Решения по пачке в порядке поступления: те же проверки, что в RoomBlockService.confirmAvailability,
+     * но блокировка строк и поиск пересечений - один раз на пачку. Номер, отданный раньше в этой же пачке,
+     * для следующих запросов уже занят.
+     */
+    private List<RoomBlock> holdBatch(LaneKey key, Set<Long> roomIds, List<PendingHold> batch) {
+        Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        List<String> requestIds = batch.stream().map(pending -> pending.request.getRequestId()).toList();
+        Map<String, RoomBlock> existing = roomBlockRepository.findWithRoomByRequestIdIn(requestIds).stream()
+                .collect(Collectors.toMap(RoomBlock::getRequestId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> busy = roomBlockRepository.findConflictingBlocksForRooms(roomIds, key.startDate(), key.endDate())
+                .stream()
+                .filter(block -> RoomBlockService.isActive(block, now))
+                .map(block -> block.getRoom().getId())
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<RoomBlock> stale = new ArrayList<>();
+        Map<String, RoomBlock> created = new LinkedHashMap<>();
+        for (PendingHold pending : batch) {
+            pending.failure = null;
+            String requestId = pending.request.getRequestId();
+            RoomBlock previous = existing.get(requestId);
+            if (previous != null) {
+                if (!RoomBlockService.isSameHold(previous, pending.roomId, pending.request)) {
+                    pending.failure = new RuntimeException("requestId уже использован для другого номера или других дат");
+                    continue;
+                }
+                if (RoomBlockService.isActive(previous, now)) {
+                    continue;
+                }
+                // Просроченный HOLD того же запроса: удаляем и решаем запрос заново
+                existing.remove(requestId);
+                stale.add(previous);
+            }
+            if (created.containsKey(requestId)) {
+                continue;
+            }
+            Room room = rooms.get(pending.roomId);
+            if (room == null) {
+                pending.failure = new EntityNotFoundException("Room not found with id: " + pending.roomId);
+            } else if (!room.getAvailable()) {
+                pending.failure = new RuntimeException("Номер недоступен для бронирования");
+            } else if (!busy.add(room.getId())) {
+                pending.failure = new RuntimeException("Номер уже забронирован на выбранные даты");
+            } else {
+                RoomBlock block = new RoomBlock();
+                block.setRoom(room);
+                block.setStartDate(key.startDate());
+                block.setEndDate(key.endDate());
+                block.setBookingId(pending.request.getBookingId());
+                block.setRequestId(requestId);
+                block.setStatus("PENDING");
+                block.setCreatedAt(now);
+                block.setExpiresAt(now.plus(holdTtl));
+                created.put(requestId, block);
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            // Удаления - до вставок, иначе новые блоки упрутся в уникальный request_id старых
+            roomBlockRepository.deleteAll(stale);
+            roomBlockRepository.flush();
+            stale.forEach(block -> eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(block.getRoom().getId())));
+        }
+        List<RoomBlock> saved = roomBlockRepository.saveAll(created.values());
+        roomBlockRepository.flush();
+        saved.forEach(block -> eventPublisher.publishEvent(RoomBlocksChangedEvent.added(
+                block.getRoom().getId(), block.getStartDate(), block.getEndDate())));
+        return saved;
+    }
+}
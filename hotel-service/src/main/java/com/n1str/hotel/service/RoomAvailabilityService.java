@@ -0,0 +1,204 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.entity.Room;
+import com.n1str.hotel.mapper.RoomMapper;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomBlockRepository.BlockInterval;
+import com.n1str.hotel.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Поиск свободных номеров на диапазон дат.
+ * По умолчанию - один запрос NOT EXISTS к room_blocks. При room-blocks.occupancy-matrix.enabled=true
+ * занятость держится в памяти в RoomOccupancyMatrix: она строится при старте, а дальше обновляется по номерам -
+ * по RoomBlocksChangedEvent и раз в sync-interval по блокам, созданным с прошлой сверки (так подхватываются
+ * HOLD других экземпляров hotel-service). Снятые чужие блоки видны только после полного перестроения раз
+ * в refresh-interval: до него номер лишь выглядит занятым. Полное перестроение идёт и при смене даты, чтобы
+ * сдвинуть горизонт. Матрица - только фильтр кандидатов: окончательную проверку при HOLD по-прежнему делает
+ * RoomBlockService под блокировкой номера.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAvailabilityService {
+
+    public static final int MAX_FREE_ROOMS = 500;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final RoomRepository roomRepository;
+    private final RoomBlockRepository roomBlockRepository;
+    private final RoomMapper roomMapper;
+
+    @Value("${room-blocks.occupancy-matrix.enabled:false}")
+    private boolean matrixEnabled;
+
+    @Value("${room-blocks.occupancy-matrix.horizon-days:400}")
+    private int horizonDays = 400;
+
+    @Value("${room-blocks.occupancy-matrix.sync-interval:PT1M}")
+    private Duration syncInterval = Duration.ofMinutes(1);
+
+    private volatile RoomOccupancyMatrix matrix;
+    // Номера, изменившиеся во время перестроения: после подмены матрицы они перечитываются
+    private volatile Set<Long> touchedDuringRebuild;
+    // Начало последнего перестроения или сверки: блоки, созданные раньше, в матрице уже учтены
+    private volatile LocalDateTime syncedAt;
+
+    @Transactional(readOnly = true)
+    public List<RoomDto> findFreeRooms(LocalDate startDate, LocalDate endDate, int limit) {
+        validate(startDate, endDate, limit);
+
+        RoomOccupancyMatrix current = matrix;
+        if (current == null || !current.covers(startDate, endDate)) {
+            return roomRepository.findFreeRooms(startDate, endDate, LocalDateTime.now(), PageRequest.of(0, limit))
+                    .stream()
+                    .map(roomMapper::toDto)
+                    .toList();
+        }
+
+        long[] freeIds = current.findFreeRoomIds(startDate, endDate);
+        List<RoomDto> result = new ArrayList<>(Math.min(limit, freeIds.length));
+        for (int from = 0; from < freeIds.length && result.size() < limit; from += CHUNK_SIZE) {
+            List<Long> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < Math.min(from + CHUNK_SIZE, freeIds.length); i++) {
+                chunk.add(freeIds[i]);
+            }
+            roomRepository.findAllById(chunk).stream()
+                    .filter(Room::getAvailable)
+                    .sorted(Comparator.comparing(Room::getId))
+                    .limit(limit - result.size())
+                    .forEach(room -> result.add(roomMapper.toDto(room)));
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (matrixEnabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${room-blocks.occupancy-matrix.sync-interval:PT1M}",
+               initialDelayString = "${room-blocks.occupancy-matrix.sync-interval:PT1M}")
+    public void scheduledSync() {
+        if (matrixEnabled) {
+            sync();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${room-blocks.occupancy-matrix.refresh-interval:PT1H}",
+               initialDelayString = "${room-blocks.occupancy-matrix.refresh-interval:PT1H}")
+    public void scheduledRebuild() {
+        if (matrixEnabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Перечитывает только номера, у которых с прошлой сверки появились блоки. Окно берётся с запасом
+     * в sync-interval: блок, вставленный незакоммиченной транзакцией до сверки, попадёт в следующую.
+     */
+    public void sync() {
+        RoomOccupancyMatrix current = matrix;
+        LocalDateTime since = syncedAt;
+        if (current == null || since == null || current.getOrigin().isBefore(LocalDate.now())) {
+            rebuild();
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<Long> changed = roomBlockRepository.findDistinctRoomIdsCreatedSince(since.minus(syncInterval));
+        changed.forEach(roomId -> reloadRoom(current, roomId));
+        syncedAt = startedAt;
+        log.debug("Матрица занятости сверена с БД: перечитано номеров {}", changed.size());
+    }
+
+    public void rebuild() {
+        Set<Long> touched = ConcurrentHashMap.newKeySet();
+        touchedDuringRebuild = touched;
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            List<Long> roomIds = roomRepository.findAllIds();
+            RoomOccupancyMatrix built = new RoomOccupancyMatrix(LocalDate.now(), horizonDays, roomIds.size());
+            LocalDateTime now = LocalDateTime.now();
+            for (int from = 0; from < roomIds.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = roomIds.subList(from, Math.min(from + CHUNK_SIZE, roomIds.size()));
+                chunk.forEach(built::register);
+                for (BlockInterval block : roomBlockRepository.findIntervalsForRooms(chunk, built.getOrigin())) {
+                    if (RoomBlockService.isActive(block.getStatus(), block.getExpiresAt(), now)) {
+                        built.occupy(block.getRoomId(), block.getStartDate(), block.getEndDate());
+                    }
+                }
+            }
+            matrix = built;
+            syncedAt = startedAt;
+            log.info("Матрица занятости построена: {} номеров, {}..{}", built.size(), built.getOrigin(), built.getLastDay());
+        } finally {
+            touchedDuringRebuild = null;
+        }
+        RoomOccupancyMatrix current = matrix;
+        touched.forEach(roomId -> reloadRoom(current, roomId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomBlocksChanged(RoomBlocksChangedEvent event) {
+        Set<Long> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(event.roomId());
+        }
+        RoomOccupancyMatrix current = matrix;
+        if (current == null) {
+            return;
+        }
+        if (event.added()) {
+            current.occupy(event.roomId(), event.startDate(), event.endDate());
+        } else {
+            reloadRoom(current, event.roomId());
+        }
+    }
+
+    private void reloadRoom(RoomOccupancyMatrix target, Long roomId) {
+        boolean replaced;
+        do {
+            int version = target.version(roomId);
+            LocalDateTime now = LocalDateTime.now();
+            List<RoomOccupancyMatrix.Interval> intervals = roomBlockRepository
+                    .findIntervalsForRooms(List.of(roomId), target.getOrigin()).stream()
+                    .filter(block -> RoomBlockService.isActive(block.getStatus(), block.getExpiresAt(), now))
+                    .map(block -> new RoomOccupancyMatrix.Interval(block.getStartDate(), block.getEndDate()))
+                    .toList();
+            replaced = target.replaceRoom(roomId, intervals, version);
+        } while (!replaced);
+    }
+
+    private void validate(LocalDate startDate, LocalDate endDate, int limit) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Даты начала и окончания обязательны");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Дата окончания не может быть раньше даты начала");
+        }
+        if (limit < 1 || limit > MAX_FREE_ROOMS) {
+            throw new IllegalArgumentException("limit должен быть от 1 до " + MAX_FREE_ROOMS);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.RoomBlockDto;
+import com.n1str.hotel.repository.RoomBlockArchiveRepository;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Переносит завершившиеся блоки из room_blocks в room_blocks_archive, чтобы поиск пересечений
+ * работал только по актуальному окну бронирований. Каждая пачка - отдельная короткая транзакция
+ * (INSERT ... SELECT + DELETE), поэтому архивация не держит долгих блокировок.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomBlockArchiveService {
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    private final RoomBlockRepository roomBlockRepository;
+    private final RoomBlockArchiveRepository roomBlockArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${room-blocks.archive.retention-days:30}")
+    private int retentionDays = 30;
+
+    @Value("${room-blocks.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    @Scheduled(cron = "${room-blocks.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        archiveEndedBefore(LocalDate.now().minusDays(retentionDays));
+    }
+
+    public int archiveEndedBefore(LocalDate horizon) {
+        log.info("Архивируем блоки, завершившиеся до {}", horizon);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(horizon));
+            total += moved;
+        } while (moved == batchSize);
+
+        log.info("Архивировано {} блоков", total);
+        return total;
+    }
+
+    private int archiveChunk(LocalDate horizon) {
+        List<Long> ids = roomBlockRepository.findIdsEndedBefore(horizon, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> roomIds = roomBlockRepository.findDistinctRoomIdsByIdIn(ids);
+        roomBlockArchiveRepository.copyFromRoomBlocks(ids, LocalDateTime.now());
+        roomBlockRepository.deleteByIds(ids);
+        roomIds.forEach(roomId -> eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(roomId)));
+        return ids.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoomBlockDto> getArchivedBlocks(Long roomId, LocalDate from, LocalDate to, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("page должен быть >= 0, size - от 1 до " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Дата from должна быть не позже даты to");
+        }
+        return roomBlockArchiveRepository.findHistoryByRoomId(roomId, from, to, PageRequest.of(page, size));
+    }
+}
@@ -0,0 +1,215 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.BatchConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.BatchHoldRequest;
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.dto.RoomHoldItem;
+import com.n1str.hotel.entity.Room;
+import com.n1str.hotel.entity.RoomBlock;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.exception.HoldExpiredException;
+import com.n1str.hotel.mapper.RoomMapper;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Групповые HOLD-ы для туроператоров: все номера группы проверяются одним запросом
+ * и блокируются в одной транзакции - либо все, либо ни одного.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomBlockBatchService {
+
+    public static final int MAX_GROUP_SIZE = 40;
+
+    private final RoomBlockRepository roomBlockRepository;
+    private final RoomRepository roomRepository;
+    private final RoomMapper roomMapper;
+    private final RoomHoldReaper roomHoldReaper;
+    private final RoomLockStripes roomLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${room-blocks.hold.ttl:PT10M}")
+    private Duration holdTtl = Duration.ofMinutes(10);
+
+    /**
+     * Создаёт HOLD-ы для всех номеров группы и возвращает их данные (цена, отель) - повторный
+     * запрос номеров со стороны Booking Service не нужен. Повтор с теми же requestId ничего не создаёт.
+     */
+    public List<RoomDto> confirmAvailability(BatchConfirmAvailabilityRequest request) {
+        validate(request);
+        Set<Long> roomIds = request.getHolds().stream()
+                .map(RoomHoldItem::getRoomId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        List<RoomBlock> created = roomLockStripes.withRoomLocks(roomIds,
+                () -> transactionTemplate.execute(status -> holdRooms(roomIds, request)));
+
+        created.forEach(block -> roomHoldReaper.track(block.getId(), block.getExpiresAt()));
+        return created.stream().map(block -> roomMapper.toDto(block.getRoom())).toList();
+    }
+
+    private List<RoomBlock> holdRooms(Set<Long> roomIds, BatchConfirmAvailabilityRequest request) {
+        log.info("Групповой HOLD {} номеров с {} по {}", roomIds.size(), request.getStartDate(), request.getEndDate());
+
+        // Блокируем строки всех номеров группы (в порядке id) до конца транзакции
+        Map<Long, Room> rooms = roomRepository.findAllByIdForUpdate(roomIds).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        if (rooms.size() != roomIds.size()) {
+            Set<Long> missing = new TreeSet<>(roomIds);
+            missing.removeAll(rooms.keySet());
+            throw new EntityNotFoundException("Rooms not found with ids: " + missing);
+        }
+
+        // Идемпотентность: группа уже была обработана целиком
+        List<String> requestIds = request.getHolds().stream().map(RoomHoldItem::getRequestId).toList();
+        List<RoomBlock> existing = roomBlockRepository.findWithRoomByRequestIdIn(requestIds);
+        if (!existing.isEmpty()) {
+            Map<String, Long> roomByRequestId = request.getHolds().stream()
+                    .collect(Collectors.toMap(RoomHoldItem::getRequestId, RoomHoldItem::getRoomId, (a, b) -> a));
+            boolean foreign = existing.stream().anyMatch(block ->
+                    !block.getRoom().getId().equals(roomByRequestId.get(block.getRequestId()))
+                    || !block.getStartDate().equals(request.getStartDate())
+                    || !block.getEndDate().equals(request.getEndDate()));
+            if (foreign) {
+                throw new RuntimeException("requestId уже использован для другого номера или других дат");
+            }
+            if (existing.size() == requestIds.size()) {
+                log.info("Групповой HOLD уже обработан, выходим");
+                return existing;
+            }
+            throw new RuntimeException("Часть группы уже обработана отдельным запросом");
+        }
+
+        List<Long> unavailable = rooms.values().stream()
+                .filter(room -> !room.getAvailable())
+                .map(Room::getId)
+                .sorted()
+                .toList();
+        if (!unavailable.isEmpty()) {
+            throw new RuntimeException("Номера недоступны для бронирования: " + unavailable);
+        }
+
+        // Один запрос на пересечения по всей группе
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> conflicting = roomBlockRepository.findConflictingBlocksForRooms(
+                        roomIds, request.getStartDate(), request.getEndDate()).stream()
+                .filter(block -> RoomBlockService.isActive(block, now))
+                .map(block -> block.getRoom().getId())
+                .distinct()
+                .sorted()
+                .toList();
+        if (!conflicting.isEmpty()) {
+            log.warn("Групповой HOLD отклонён, заняты номера {}", conflicting);
+            throw new RuntimeException("Номера уже забронированы на выбранные даты: " + conflicting);
+        }
+
+        List<RoomBlock> blocks = new ArrayList<>(request.getHolds().size());
+        for (RoomHoldItem hold : request.getHolds()) {
+            RoomBlock block = new RoomBlock();
+            block.setRoom(rooms.get(hold.getRoomId()));
+            block.setStartDate(request.getStartDate());
+            block.setEndDate(request.getEndDate());
+            block.setBookingId(hold.getBookingId());
+            block.setRequestId(hold.getRequestId());
+            block.setStatus("PENDING");
+            block.setCreatedAt(now);
+            block.setExpiresAt(now.plus(holdTtl));
+            blocks.add(block);
+        }
+        List<RoomBlock> saved = roomBlockRepository.saveAll(blocks);
+        saved.forEach(block -> eventPublisher.publishEvent(RoomBlocksChangedEvent.added(
+                block.getRoom().getId(), block.getStartDate(), block.getEndDate())));
+        log.info("Групповой HOLD создан: {} блоков PENDING до {}", saved.size(), now.plus(holdTtl));
+        return saved;
+    }
+
+    /**
+     * Подтверждает все HOLD-ы группы и обновляет счётчики популярности номеров.
+     * Если хотя бы один HOLD истёк, не подтверждается ни один. Блокировки те же, что у группового HOLD-а:
+     * полосы всех номеров группы и строки rooms.
+     */
+    public void commitHolds(BatchHoldRequest request) {
+        Set<Long> roomIds = new TreeSet<>(roomBlockRepository.findDistinctRoomIdsByRequestIdIn(request.getRequestIds()));
+        if (roomIds.isEmpty()) {
+            throw new HoldExpiredException("HOLD-ы группы не найдены или уже освобождены");
+        }
+        roomLockStripes.withRoomLocks(roomIds, () -> transactionTemplate.execute(status -> {
+            commitLocked(roomIds, request);
+            return null;
+        }));
+    }
+
+    private void commitLocked(Set<Long> roomIds, BatchHoldRequest request) {
+        roomRepository.findAllByIdForUpdate(roomIds);
+        // Перечитываем под блокировкой: пока ждали полосы, HOLD мог быть освобождён
+        List<RoomBlock> blocks = roomBlockRepository.findWithRoomByRequestIdIn(request.getRequestIds());
+        if (blocks.size() != new HashSet<>(request.getRequestIds()).size()) {
+            throw new HoldExpiredException("Часть HOLD-ов группы не найдена или уже освобождена");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        boolean expired = blocks.stream().anyMatch(block -> "PENDING".equals(block.getStatus())
+                && block.getExpiresAt() != null && block.getExpiresAt().isBefore(now));
+        if (expired) {
+            throw new HoldExpiredException("Время удержания номеров группы истекло");
+        }
+
+        int committed = 0;
+        for (RoomBlock block : blocks) {
+            if ("PENDING".equals(block.getStatus())) {
+                block.setStatus("CONFIRMED");
+                block.setExpiresAt(null);
+                Room room = block.getRoom();
+                room.setTimesBooked(room.getTimesBooked() + 1);
+                committed++;
+            }
+        }
+        log.info("Групповой HOLD подтверждён: {} блоков", committed);
+    }
+
+    /**
+     * Компенсация группового бронирования. Идемпотентна: уже удалённые блоки пропускаются.
+     */
+    @Transactional
+    public void releaseHolds(BatchHoldRequest request) {
+        List<RoomBlock> blocks = roomBlockRepository.findWithRoomByRequestIdIn(request.getRequestIds());
+        for (RoomBlock block : blocks) {
+            Room room = block.getRoom();
+            if ("CONFIRMED".equals(block.getStatus()) && room.getTimesBooked() > 0) {
+                room.setTimesBooked(room.getTimesBooked() - 1);
+            }
+        }
+        roomBlockRepository.deleteAll(blocks);
+        blocks.forEach(block -> eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(block.getRoom().getId())));
+        log.info("Групповой HOLD освобождён: {} блоков", blocks.size());
+    }
+
+    private void validate(BatchConfirmAvailabilityRequest request) {
+        if (request.getHolds().size() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("В группе не больше " + MAX_GROUP_SIZE + " номеров");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Дата начала должна быть раньше даты конца");
+        }
+        long distinctRooms = request.getHolds().stream().map(RoomHoldItem::getRoomId).distinct().count();
+        if (distinctRooms != request.getHolds().size()) {
+            throw new IllegalArgumentException("Номер не может входить в группу дважды");
+        }
+    }
+}
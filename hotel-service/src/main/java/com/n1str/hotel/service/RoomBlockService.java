@@ -1,18 +1,22 @@
 package com.n1str.hotel.service;
 
+import com.n1str.hotel.dto.CommitHoldRequest;
 import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
 import com.n1str.hotel.dto.ReleaseRoomRequest;
 import com.n1str.hotel.entity.Room;
 import com.n1str.hotel.entity.RoomBlock;
+import com.n1str.hotel.exception.HoldExpiredException;
 import com.n1str.hotel.repository.RoomBlockRepository;
 import com.n1str.hotel.repository.RoomRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -25,51 +29,77 @@ public class RoomBlockService {
     private final RoomBlockRepository roomBlockRepository;
     private final RoomRepository roomRepository;
     private final RoomService roomService;
-    
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    private final RoomHoldReaper roomHoldReaper;
+    private final RoomLockStripes roomLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${room-blocks.hold.ttl:PT10M}")
+    private Duration holdTtl = Duration.ofMinutes(10);
+
+    /**
+     * HOLD номера. Проверка пересечений и вставка блока защищены дважды: полосатой блокировкой по roomId
+     * (внутри экземпляра) и блокировкой строки rooms (между экземплярами). Блокировка полосы берётся
+     * до начала транзакции и отпускается после коммита, иначе следующий запрос мог бы не увидеть новый блок.
+     */
     public void confirmAvailability(Long roomId, ConfirmAvailabilityRequest request) {
-        String traceId = request.getRequestId();
-        log.info("[traceId:{}] Подтверждаем доступность номера {} с {} по {}", 
-                traceId, roomId, request.getStartDate(), request.getEndDate());
+        roomLockStripes.withRoomLock(roomId, () -> transactionTemplate.execute(status -> {
+            holdRoom(roomId, request);
+            return null;
+        }));
+    }
+
+    private void holdRoom(Long roomId, ConfirmAvailabilityRequest request) {
+        String requestId = request.getRequestId();
+        log.info("[requestId:{}] Подтверждаем доступность номера {} с {} по {}", 
+                requestId, roomId, request.getStartDate(), request.getEndDate());
 
-        // ШАГ 1: Проверка идемпотентности - выходим, если уже обработано
+        // ШАГ 1: Блокируем строку номера - конкурирующие HOLD-ы этого номера ждут нашего коммита
+        Room room = roomService.getRoomEntityByIdForUpdate(roomId);
+
+        // ШАГ 2: Проверка идемпотентности - выходим, если уже обработано. Повтор только подтверждает,
+        // что HOLD есть: в CONFIRMED блок переводит commitHold, а не повторный HOLD
+        LocalDateTime now = LocalDateTime.now();
         Optional<RoomBlock> existingBlock = roomBlockRepository.findByRequestId(request.getRequestId());
         if (existingBlock.isPresent()) {
             RoomBlock block = existingBlock.get();
-            log.info("[traceId:{}] Запрос уже обработан со статусом: {}", traceId, block.getStatus());
-            
-            if ("CONFIRMED".equals(block.getStatus())) {
-                log.info("[traceId:{}] Блок уже подтверждён, выходим", traceId);
-                return;
-            } else if ("PENDING".equals(block.getStatus())) {
-                // Блок PENDING существует - переводим его в CONFIRMED
-                block.setStatus("CONFIRMED");
-                roomBlockRepository.save(block);
-                log.info("[traceId:{}] Блок PENDING переведён в CONFIRMED", traceId);
+            log.info("[requestId:{}] Запрос уже обработан со статусом: {}", requestId, block.getStatus());
+
+            if (!isSameHold(block, roomId, request)) {
+                log.warn("[requestId:{}] requestId уже занят блоком номера {} с {} по {}", requestId,
+                        block.getRoom().getId(), block.getStartDate(), block.getEndDate());
+                throw new RuntimeException("requestId уже использован для другого номера или других дат");
+            }
+            if (isActive(block, now)) {
+                log.info("[requestId:{}] Блок ещё действует, выходим", requestId);
                 return;
             }
+            // HOLD истёк, но RoomHoldReaper ещё не удалил его - удаляем и проверяем номер заново.
+            // flush до вставки: иначе новый блок упрётся в уникальный request_id старого
+            roomBlockRepository.delete(block);
+            roomBlockRepository.flush();
+            eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(roomId));
+            log.info("[requestId:{}] Просроченный HOLD удалён, обрабатываем запрос заново", requestId);
         }
 
-        // ШАГ 2: Проверяем, существует ли номер и доступен ли он
-        Room room = roomService.getRoomEntityById(roomId);
+        // ШАГ 3: Проверяем, доступен ли номер
         if (!room.getAvailable()) {
-            log.warn("[traceId:{}] Номер {} недоступен для бронирования", traceId, roomId);
+            log.warn("[requestId:{}] Номер {} недоступен для бронирования", requestId, roomId);
             throw new RuntimeException("Номер недоступен для бронирования");
         }
 
-        // ШАГ 3: Ищем конфликты с уже существующими подтверждёнными блоками
+        // ШАГ 4: Ищем конфликты: подтверждённые блоки и ещё не истёкшие HOLD-ы
         List<RoomBlock> conflictingBlocks = roomBlockRepository.findConflictingBlocks(
                 roomId, request.getStartDate(), request.getEndDate());
         
-        boolean hasConfirmedConflict = conflictingBlocks.stream()
-                .anyMatch(b -> "CONFIRMED".equals(b.getStatus()));
+        boolean hasConflict = conflictingBlocks.stream().anyMatch(b -> isActive(b, now));
         
-        if (hasConfirmedConflict) {
-            log.warn("[traceId:{}] Номер {} уже забронирован на выбранные даты", traceId, roomId);
+        if (hasConflict) {
+            log.warn("[requestId:{}] Номер {} уже забронирован на выбранные даты", requestId, roomId);
             throw new RuntimeException("Номер уже забронирован на выбранные даты");
         }
 
-        // ШАГ 4: Создаём PENDING блок (HOLD фаза)
+        // ШАГ 5: Создаём PENDING блок (HOLD фаза)
         RoomBlock block = new RoomBlock();
         block.setRoom(room);
         block.setStartDate(request.getStartDate());
@@ -77,23 +107,88 @@ public class RoomBlockService {
         block.setBookingId(request.getBookingId());
         block.setRequestId(request.getRequestId());
         block.setStatus("PENDING");
-        block.setCreatedAt(LocalDateTime.now());
-        // TTL отсутствует - сохранено для обратной совместимости (null)
-        block.setExpiresAt(null);
+        block.setCreatedAt(now);
+        // HOLD живёт holdTtl: если бронирование не подтвердят через commitHold, блок удалит RoomHoldReaper
+        block.setExpiresAt(now.plus(holdTtl));
         
         roomBlockRepository.save(block);
-        log.info("[traceId:{}] HOLD создан (блок PENDING) для бронирования {}", traceId, request.getBookingId());
+        roomHoldReaper.track(block.getId(), block.getExpiresAt());
+        eventPublisher.publishEvent(RoomBlocksChangedEvent.added(roomId, block.getStartDate(), block.getEndDate()));
+        log.info("[requestId:{}] HOLD создан (блок PENDING до {}) для бронирования {}",
+                requestId, block.getExpiresAt(), request.getBookingId());
+    }
+
+    // Повтор того же HOLD-а, а не чужой запрос с совпавшим requestId
+    static boolean isSameHold(RoomBlock block, Long roomId, ConfirmAvailabilityRequest request) {
+        return block.getRoom().getId().equals(roomId)
+                && block.getStartDate().equals(request.getStartDate())
+                && block.getEndDate().equals(request.getEndDate());
+    }
+
+    static boolean isActive(RoomBlock block, LocalDateTime now) {
+        return isActive(block.getStatus(), block.getExpiresAt(), now);
+    }
+
+    static boolean isActive(String status, LocalDateTime expiresAt, LocalDateTime now) {
+        if ("CONFIRMED".equals(status)) {
+            return true;
+        }
+        // Просроченный HOLD уже не держит номер, даже если RoomHoldReaper ещё не успел его удалить
+        return expiresAt == null || expiresAt.isAfter(now);
+    }
+
+    /**
+     * Подтверждение HOLD-а под теми же блокировками, что и HOLD: полоса roomId и строка rooms.
+     * Отказ по истёкшему HOLD-у бросается после коммита, чтобы удаление блока не откатилось.
+     */
+    public void commitHold(Long roomId, CommitHoldRequest request) {
+        Boolean committed = roomLockStripes.withRoomLock(roomId,
+                () -> transactionTemplate.execute(status -> confirmHold(roomId, request)));
+        if (!Boolean.TRUE.equals(committed)) {
+            throw new HoldExpiredException("Время удержания номера истекло");
+        }
+    }
+
+    private boolean confirmHold(Long roomId, CommitHoldRequest request) {
+        String requestId = request.getRequestId();
+        log.info("[requestId:{}] Подтверждаем HOLD номера {}", requestId, roomId);
+
+        roomService.getRoomEntityByIdForUpdate(roomId);
+        RoomBlock block = roomBlockRepository.findByRequestId(request.getRequestId())
+                .orElseThrow(() -> new HoldExpiredException("HOLD не найден или уже освобождён"));
+
+        // Как и в holdRoom: requestId чужого номера не подтверждает и не удаляет его блок
+        if (!block.getRoom().getId().equals(roomId)) {
+            log.warn("[requestId:{}] requestId занят блоком номера {}, а не {}", requestId, block.getRoom().getId(), roomId);
+            throw new RuntimeException("requestId уже использован для другого номера");
+        }
+        if ("CONFIRMED".equals(block.getStatus())) {
+            log.info("[requestId:{}] Блок уже подтверждён, выходим", requestId);
+            return true;
+        }
+        if (block.getExpiresAt() != null && block.getExpiresAt().isBefore(LocalDateTime.now())) {
+            roomBlockRepository.delete(block);
+            eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(roomId));
+            log.warn("[requestId:{}] HOLD истёк в {}, блок удалён", requestId, block.getExpiresAt());
+            return false;
+        }
+
+        block.setStatus("CONFIRMED");
+        block.setExpiresAt(null);
+        roomBlockRepository.save(block);
+        log.info("[requestId:{}] HOLD переведён в CONFIRMED", requestId);
+        return true;
     }
 
     @Transactional
     public void releaseRoom(Long roomId, ReleaseRoomRequest request) {
-        String traceId = request.getRequestId();
-        log.info("[traceId:{}] Освобождаем номер {} для запроса {}", traceId, roomId, request.getRequestId());
+        String requestId = request.getRequestId();
+        log.info("[requestId:{}] Освобождаем номер {} для запроса {}", requestId, roomId, request.getRequestId());
 
         Optional<RoomBlock> blockOpt = roomBlockRepository.findByRequestId(request.getRequestId());
         
         if (blockOpt.isEmpty()) {
-            log.warn("[traceId:{}] Блок не найден, вероятно уже был освобождён", traceId);
+            log.warn("[requestId:{}] Блок не найден, вероятно уже был освобождён", requestId);
             return; // Идемпотентный результат: если блока нет, он уже освобождён
         }
 
@@ -105,13 +200,14 @@ public class RoomBlockService {
             if (room.getTimesBooked() > 0) {
                 room.setTimesBooked(room.getTimesBooked() - 1);
                 roomRepository.save(room);
-                log.info("[traceId:{}] Счётчик times_booked номера {} уменьшен до {}", 
-                        traceId, roomId, room.getTimesBooked());
+                log.info("[requestId:{}] Счётчик times_booked номера {} уменьшен до {}", 
+                        requestId, roomId, room.getTimesBooked());
             }
         }
         
         roomBlockRepository.delete(block);
-        log.info("[traceId:{}] Номер успешно освобождён (блок удалён)", traceId);
+        eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(roomId));
+        log.info("[requestId:{}] Номер успешно освобождён (блок удалён)", requestId);
     }
 }
 
@@ -0,0 +1,19 @@
+package com.n1str.hotel.service;
+
+import java.time.LocalDate;
+
+/**
+ * Блоки номера изменились. added=true - появился блок на [startDate, endDate];
+ * added=false - блоки номера удалены или номер только что создан: даты не передаются,
+ * подписчики перечитывают блоки номера.
+ */
+public record RoomBlocksChangedEvent(Long roomId, LocalDate startDate, LocalDate endDate, boolean added) {
+
+    public static RoomBlocksChangedEvent added(Long roomId, LocalDate startDate, LocalDate endDate) {
+        return new RoomBlocksChangedEvent(roomId, startDate, endDate, true);
+    }
+
+    public static RoomBlocksChangedEvent invalidated(Long roomId) {
+        return new RoomBlocksChangedEvent(roomId, null, null, false);
+    }
+}
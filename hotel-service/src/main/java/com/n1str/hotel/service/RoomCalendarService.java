@@ -0,0 +1,194 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.HotelCalendarDto;
+import com.n1str.hotel.dto.RoomCalendarDto;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomBlockRepository.BlockInterval;
+import com.n1str.hotel.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Календарь занятости номеров по ночам.
+ * Для каждого номера хранится BitSet: бит i - день origin+i занят активным блоком (CONFIRMED или непросроченный HOLD).
+ * BitSet строится одним запросом по интервалам блоков при первом обращении и дальше обновляется по
+ * RoomBlocksChangedEvent: новый блок дописывается в битсет, удаление блоков сбрасывает номер из кэша.
+ * События локальные: блоки, изменённые другими экземплярами hotel-service, этот экземпляр не видит. Поэтому
+ * битсет живёт не дольше room-blocks.calendar.ttl с момента чтения из БД и затем строится заново.
+ * Битсеты не изменяются на месте (copy-on-write), поэтому читатели работают без блокировок.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomCalendarService {
+
+    public static final int MAX_CALENDAR_DAYS = 366;
+    private static final int DEFAULT_CALENDAR_DAYS = 90;
+
+    private final RoomBlockRepository roomBlockRepository;
+    private final RoomRepository roomRepository;
+    private final HotelService hotelService;
+
+    // День с индексом 0 во всех битсетах; более ранние даты календарь не показывает
+    private final LocalDate origin = LocalDate.now().minusDays(MAX_CALENDAR_DAYS);
+    private final Map<Long, CachedBits> occupancy = new ConcurrentHashMap<>();
+    // Счётчик изменений номера: загрузка из БД не кладётся в кэш, если пока она шла, пришло событие
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @Value("${room-blocks.calendar.ttl:PT30S}")
+    private Duration ttl = Duration.ofSeconds(30);
+
+    public RoomCalendarDto getRoomCalendar(Long roomId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_CALENDAR_DAYS - 1);
+        validate(start, end);
+
+        BitSet bits = cached(roomId, System.nanoTime());
+        if (bits == null) {
+            if (!roomRepository.existsById(roomId)) {
+                throw new EntityNotFoundException("Room not found with id: " + roomId);
+            }
+            bits = load(List.of(roomId)).get(roomId);
+        }
+        return toDto(roomId, bits, start, end);
+    }
+
+    public HotelCalendarDto getHotelCalendar(Long hotelId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(DEFAULT_CALENDAR_DAYS - 1);
+        validate(start, end);
+        hotelService.getHotelEntityById(hotelId);
+
+        List<Long> roomIds = roomRepository.findIdsByHotelId(hotelId);
+        Map<Long, BitSet> bitsByRoom = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Long roomId : roomIds) {
+            BitSet bits = cached(roomId, now);
+            bitsByRoom.put(roomId, bits);
+            if (bits == null) {
+                missing.add(roomId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            bitsByRoom.putAll(load(missing));
+        }
+
+        List<RoomCalendarDto> rooms = new ArrayList<>(roomIds.size());
+        bitsByRoom.forEach((roomId, bits) -> rooms.add(toDto(roomId, bits, start, end)));
+        return new HotelCalendarDto(hotelId, start, end, rooms);
+    }
+
+    /**
+     * Срабатывает после коммита транзакции, изменившей блоки, - откатившийся HOLD в календарь не попадает.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomBlocksChanged(RoomBlocksChangedEvent event) {
+        occupancy.compute(event.roomId(), (roomId, cached) -> {
+            versions.merge(roomId, 1L, Long::sum);
+            if (cached == null || !event.added()) {
+                return null;
+            }
+            BitSet updated = (BitSet) cached.bits().clone();
+            mark(updated, event.startDate(), event.endDate());
+            // Время чтения из БД не меняется: чужие изменения после него событие не приносит
+            return new CachedBits(updated, cached.loadedAt());
+        });
+    }
+
+    private BitSet cached(Long roomId, long now) {
+        CachedBits cached = occupancy.get(roomId);
+        return cached != null && !cached.isExpired(now, ttl.toNanos()) ? cached.bits() : null;
+    }
+
+    private Map<Long, BitSet> load(Collection<Long> roomIds) {
+        Map<Long, Long> versionsBefore = new HashMap<>();
+        Map<Long, BitSet> loaded = new HashMap<>();
+        for (Long roomId : roomIds) {
+            versionsBefore.put(roomId, versions.getOrDefault(roomId, 0L));
+            loaded.put(roomId, new BitSet());
+        }
+
+        long loadedAt = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        for (BlockInterval block : roomBlockRepository.findIntervalsForRooms(roomIds, origin)) {
+            if (RoomBlockService.isActive(block.getStatus(), block.getExpiresAt(), now)) {
+                mark(loaded.get(block.getRoomId()), block.getStartDate(), block.getEndDate());
+            }
+        }
+
+        loaded.forEach((roomId, bits) -> occupancy.compute(roomId, (id, cached) -> {
+            if (cached != null && cached.loadedAt() - loadedAt >= 0) {
+                return cached;
+            }
+            if (!versionsBefore.get(id).equals(versions.getOrDefault(id, 0L))) {
+                return null;
+            }
+            return new CachedBits(bits, loadedAt);
+        }));
+        log.debug("Календарь загружен для {} номеров", roomIds.size());
+        return loaded;
+    }
+
+    // Граница включительная с обеих сторон - так же, как в проверке конфликтов findConflictingBlocks
+    private void mark(BitSet bits, LocalDate startDate, LocalDate endDate) {
+        long last = ChronoUnit.DAYS.between(origin, endDate);
+        if (last < 0) {
+            return;
+        }
+        long first = Math.max(0, ChronoUnit.DAYS.between(origin, startDate));
+        bits.set((int) first, (int) last + 1);
+    }
+
+    private RoomCalendarDto toDto(Long roomId, BitSet bits, LocalDate from, LocalDate to) {
+        int offset = (int) ChronoUnit.DAYS.between(origin, from);
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        BitSet window = bits.get(offset, offset + days);
+
+        List<int[]> runs = new ArrayList<>();
+        for (int i = window.nextSetBit(0); i >= 0; ) {
+            int clear = window.nextClearBit(i);
+            runs.add(new int[]{i, clear - i});
+            i = window.nextSetBit(clear);
+        }
+        String bitmap = Base64.getEncoder().encodeToString(window.toByteArray());
+        return new RoomCalendarDto(roomId, from, to, days, bitmap, runs);
+    }
+
+    private void validate(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Дата 'to' не может быть раньше 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("Календарь не может быть длиннее " + MAX_CALENDAR_DAYS + " дней");
+        }
+        if (from.isBefore(origin)) {
+            throw new IllegalArgumentException("Календарь доступен начиная с " + origin);
+        }
+    }
+
+    private record CachedBits(BitSet bits, long loadedAt) {
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAt >= ttlNanos;
+        }
+    }
+}
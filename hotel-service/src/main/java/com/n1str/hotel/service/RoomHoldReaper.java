@@ -0,0 +1,155 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomBlockRepository.PendingHoldDeadline;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Освобождает просроченные PENDING-блоки (HOLD).
+ * Основной путь - DelayQueue: блок удаляется вскоре после своего expiresAt без опроса таблицы.
+ * Страховочный путь - редкий sweep по индексу (status, expires_at) для блоков, которых нет в очереди
+ * (созданы другим экземпляром сервиса, до рестарта или при переполнении очереди).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomHoldReaper {
+
+    private final RoomBlockRepository roomBlockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${room-blocks.hold.reaper.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${room-blocks.hold.reaper.max-tracked:100000}")
+    private int maxTracked = 100000;
+
+    private final DelayQueue<ExpiringHold> queue = new DelayQueue<>();
+    private volatile Thread worker;
+
+    public void track(Long blockId, LocalDateTime expiresAt) {
+        if (blockId == null || expiresAt == null) {
+            return;
+        }
+        if (queue.size() >= maxTracked) {
+            log.debug("Очередь HOLD переполнена, блок {} будет удалён sweep-ом", blockId);
+            return;
+        }
+        queue.offer(new ExpiringHold(blockId, toEpochMillis(expiresAt)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<PendingHoldDeadline> pending = roomBlockRepository.findPendingHoldDeadlines(PageRequest.of(0, maxTracked));
+        pending.forEach(hold -> track(hold.getId(), hold.getExpiresAt()));
+        log.info("Отслеживаем {} PENDING-блоков с TTL", pending.size());
+
+        Thread thread = new Thread(this::run, "room-hold-reaper");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${room-blocks.hold.reaper.sweep-interval:PT5M}",
+               initialDelayString = "${room-blocks.hold.reaper.sweep-interval:PT5M}")
+    public void sweep() {
+        int total = 0;
+        List<Long> ids;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            ids = roomBlockRepository.findExpiredPendingBlockIds(now, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                total += deleteExpired(ids, now);
+            }
+        } while (ids.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Sweep удалил {} просроченных PENDING-блоков", total);
+        }
+    }
+
+    int reapDue() {
+        ExpiringHold first = queue.poll();
+        return first != null ? reap(first) : 0;
+    }
+
+    private int reap(ExpiringHold first) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(first.blockId());
+        ExpiringHold hold;
+        while (ids.size() < batchSize && (hold = queue.poll()) != null) {
+            ids.add(hold.blockId());
+        }
+        int deleted = deleteExpired(ids, LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Удалено {} просроченных PENDING-блоков", deleted);
+        }
+        return deleted;
+    }
+
+    private int deleteExpired(List<Long> ids, LocalDateTime now) {
+        List<Long> roomIds = roomBlockRepository.findDistinctRoomIdsByIdIn(ids);
+        int deleted = roomBlockRepository.deleteExpiredPendingBlocks(ids, now);
+        if (deleted > 0) {
+            roomIds.forEach(roomId -> eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(roomId)));
+        }
+        return deleted;
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                // Ждём ближайший дедлайн, затем пачкой забираем всё, что уже просрочено
+                reap(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ошибка при удалении просроченных PENDING-блоков: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record ExpiringHold(Long blockId, long expiresAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtMillis, ((ExpiringHold) other).expiresAtMillis);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.n1str.hotel.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые блокировки по roomId внутри одного экземпляра сервиса.
+ * Запросы к одному номеру выстраиваются в очередь здесь, а не на строковой блокировке rooms в БД,
+ * поэтому не держат соединения из пула в ожидании. Разные номера почти всегда попадают в разные полосы.
+ * Межэкземплярную защиту даёт SELECT ... FOR UPDATE внутри транзакции.
+ */
+@Component
+public class RoomLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final Duration timeout;
+
+    public RoomLockStripes(@Value("${room-blocks.lock.stripes:64}") int stripeCount,
+                           @Value("${room-blocks.lock.timeout:PT5S}") Duration timeout) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("room-blocks.lock.stripes должно быть >= 1");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.timeout = timeout;
+    }
+
+    public <T> T withRoomLock(Long roomId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(roomId);
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Блокирует полосы сразу нескольких номеров. Полосы берутся в порядке индекса, поэтому
+     * пересекающиеся группы не взаимоблокируются.
+     */
+    public <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> action) {
+        int[] indexes = roomIds.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        Deque<ReentrantLock> acquired = new ArrayDeque<>(indexes.length);
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                acquire(lock);
+                acquired.push(lock);
+            }
+            return action.get();
+        } finally {
+            while (!acquired.isEmpty()) {
+                acquired.pop().unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ожидание блокировки номера прервано", e);
+        }
+        if (!acquired) {
+            throw new RuntimeException("Номер сейчас бронируется другим запросом, повторите попытку");
+        }
+    }
+
+    private ReentrantLock stripeFor(Long roomId) {
+        return stripes[stripeIndex(roomId)];
+    }
+
+    private int stripeIndex(Long roomId) {
+        return Math.floorMod(Long.hashCode(roomId), stripes.length);
+    }
+}
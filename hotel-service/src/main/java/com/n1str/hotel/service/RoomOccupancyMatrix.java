@@ -0,0 +1,203 @@
+package com.n1str.hotel.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Матрица занятости номер × день на примитивных битсетах.
+ * На каждый день горизонта - строка long[], где бит с индексом ordinal соответствует номеру; порядковые номера
+ * плотные и выдаются при регистрации. Поиск свободных номеров на [start, end] - OR строк диапазона по словам,
+ * затем AND NOT с маской зарегистрированных номеров; объекты на запрос не создаются, кроме массива результата.
+ * Чтения идут под read-lock, изменения - под write-lock.
+ */
+public class RoomOccupancyMatrix {
+
+    public record Interval(LocalDate startDate, LocalDate endDate) {
+    }
+
+    private final LocalDate origin;
+    private final int horizonDays;
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] roomIds;
+    private int[] versions;
+    private long[] registered;
+    private long[][] days;
+    private int size;
+
+    public RoomOccupancyMatrix(LocalDate origin, int horizonDays, int expectedRooms) {
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("Горизонт матрицы должен быть положительным");
+        }
+        this.origin = origin;
+        this.horizonDays = horizonDays;
+        int words = Math.max(1, (expectedRooms + 63) >>> 6);
+        this.roomIds = new long[words << 6];
+        this.versions = new int[words << 6];
+        this.registered = new long[words];
+        this.days = new long[horizonDays][words];
+    }
+
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    public LocalDate getLastDay() {
+        return origin.plusDays(horizonDays - 1L);
+    }
+
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return !startDate.isBefore(origin) && !endDate.isAfter(getLastDay());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void register(Long roomId) {
+        lock.writeLock().lock();
+        try {
+            ordinalOf(roomId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Отмечает ночи [startDate, endDate] занятыми (граница включительная, как в findConflictingBlocks).
+     * Дни вне горизонта отбрасываются.
+     */
+    public void occupy(Long roomId, LocalDate startDate, LocalDate endDate) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalOf(roomId);
+            versions[ordinal]++;
+            mark(ordinal, startDate, endDate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int version(Long roomId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(roomId);
+            return ordinal != null ? versions[ordinal] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Заменяет столбец номера интервалами, прочитанными из БД. Если после чтения номер успел измениться
+     * (версия не совпала), ничего не делает и возвращает false - вызывающий перечитывает блоки.
+     */
+    public boolean replaceRoom(Long roomId, Collection<Interval> intervals, int expectedVersion) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalOf(roomId);
+            if (versions[ordinal] != expectedVersion) {
+                return false;
+            }
+            versions[ordinal]++;
+            int word = ordinal >>> 6;
+            long mask = ~(1L << ordinal);
+            for (long[] day : days) {
+                day[word] &= mask;
+            }
+            for (Interval interval : intervals) {
+                mark(ordinal, interval.startDate(), interval.endDate());
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id зарегистрированных номеров без занятых ночей на [startDate, endDate] в порядке регистрации.
+     */
+    public long[] findFreeRoomIds(LocalDate startDate, LocalDate endDate) {
+        if (!covers(startDate, endDate) || endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Диапазон " + startDate + ".." + endDate + " вне горизонта матрицы");
+        }
+        int first = dayIndex(startDate);
+        int last = dayIndex(endDate);
+
+        lock.readLock().lock();
+        try {
+            int words = registered.length;
+            long[] occupied = new long[words];
+            for (int d = first; d <= last; d++) {
+                long[] day = days[d];
+                for (int w = 0; w < words; w++) {
+                    occupied[w] |= day[w];
+                }
+            }
+
+            long[] result = new long[size];
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                long free = registered[w] & ~occupied[w];
+                while (free != 0) {
+                    result[count++] = roomIds[(w << 6) + Long.numberOfTrailingZeros(free)];
+                    free &= free - 1;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int ordinalOf(Long roomId) {
+        Integer ordinal = ordinals.get(roomId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        if (size == roomIds.length) {
+            grow();
+        }
+        int assigned = size++;
+        ordinals.put(roomId, assigned);
+        roomIds[assigned] = roomId;
+        registered[assigned >>> 6] |= 1L << assigned;
+        return assigned;
+    }
+
+    private void grow() {
+        int words = registered.length << 1;
+        roomIds = Arrays.copyOf(roomIds, words << 6);
+        versions = Arrays.copyOf(versions, words << 6);
+        registered = Arrays.copyOf(registered, words);
+        for (int d = 0; d < days.length; d++) {
+            days[d] = Arrays.copyOf(days[d], words);
+        }
+    }
+
+    private void mark(int ordinal, LocalDate startDate, LocalDate endDate) {
+        int first = Math.max(0, dayIndex(startDate));
+        int last = Math.min(horizonDays - 1, dayIndex(endDate));
+        int word = ordinal >>> 6;
+        long bit = 1L << ordinal;
+        for (int d = first; d <= last; d++) {
+            days[d][word] |= bit;
+        }
+    }
+
+    private int dayIndex(LocalDate date) {
+        long index = ChronoUnit.DAYS.between(origin, date);
+        return (int) Math.max(-1, Math.min(index, horizonDays));
+    }
+}
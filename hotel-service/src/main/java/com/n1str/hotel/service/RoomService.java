@@ -10,6 +10,7 @@ import com.n1str.hotel.repository.RoomBlockRepository;
 import com.n1str.hotel.repository.RoomRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityManager;
@@ -28,6 +29,7 @@ public class RoomService {
     private final RoomBlockRepository roomBlockRepository;
     private final RoomMapper roomMapper;
     private final HotelService hotelService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -42,6 +44,7 @@ public class RoomService {
         room.setHotel(hotel);
         
         Room savedRoom = roomRepository.save(room);
+        eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(savedRoom.getId()));
         
         log.info("Room created successfully with ID: {}", savedRoom.getId());
         return roomMapper.toDto(savedRoom);
@@ -82,6 +85,11 @@ public class RoomService {
                 .orElseThrow(() -> new EntityNotFoundException("Room not found with id: " + id));
     }
 
+    public Room getRoomEntityByIdForUpdate(Long id) {
+        return roomRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new EntityNotFoundException("Room not found with id: " + id));
+    }
+
     private boolean isRoomAvailableNow(Room room) {
         if (!room.getAvailable()) {
             return false;
@@ -190,6 +198,7 @@ public class RoomService {
             // чтобы избежать нарушения foreign key constraint
             log.debug("Удаляем блокировки для номера {}", id);
             roomBlockRepository.deleteAllByRoomId(id);
+            eventPublisher.publishEvent(RoomBlocksChangedEvent.invalidated(id));
             
             // Принудительно сбрасываем удаление блокировок
             entityManager.flush();
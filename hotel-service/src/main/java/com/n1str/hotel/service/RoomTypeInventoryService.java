@@ -0,0 +1,301 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.CommitHoldRequest;
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.ReleaseRoomRequest;
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.dto.RoomTypeHoldRequest;
+import com.n1str.hotel.dto.RoomTypeInventoryDto;
+import com.n1str.hotel.entity.RoomTypeHold;
+import com.n1str.hotel.entity.RoomTypeInventory;
+import com.n1str.hotel.entity.RoomTypeInventoryId;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.exception.HoldExpiredException;
+import com.n1str.hotel.repository.RoomRepository;
+import com.n1str.hotel.repository.RoomTypeHoldRepository;
+import com.n1str.hotel.repository.RoomTypeInventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Продажа «любого номера типа» без выбора конкретного номера.
+ * На каждую дату (отель, тип) хранится счётчик sold и вместимость capacity; HOLD - это один условный
+ * UPDATE ... SET sold = sold + 1 WHERE sold < capacity по датам диапазона, т.е. O(ночей) вместо поиска
+ * свободного номера. Конкретный номер назначается позже через assignRoom.
+ * Для одной пары (отель, тип) нужно использовать либо этот режим, либо HOLD конкретных номеров:
+ * счётчики не знают о блоках, созданных в обход них.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomTypeInventoryService {
+
+    public static final int MAX_INVENTORY_DAYS = 366;
+    private static final int MAX_PROVISION_ATTEMPTS = 3;
+
+    private final RoomTypeInventoryRepository inventoryRepository;
+    private final RoomTypeHoldRepository holdRepository;
+    private final RoomRepository roomRepository;
+    private final RoomService roomService;
+    private final RoomBlockService roomBlockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${room-blocks.hold.ttl:PT10M}")
+    private Duration holdTtl = Duration.ofMinutes(10);
+
+    @Value("${room-types.hold.sweep-batch-size:500}")
+    private int sweepBatchSize = 500;
+
+    public void hold(RoomTypeHoldRequest request) {
+        validate(request);
+        String requestId = request.getRequestId();
+        log.info("[requestId:{}] HOLD типа {} в отеле {} с {} по {}", requestId, request.getRoomType(),
+                request.getHotelId(), request.getStartDate(), request.getEndDate());
+
+        if (holdRepository.findByRequestId(request.getRequestId()).isPresent()) {
+            log.info("[requestId:{}] Запрос уже обработан, выходим", requestId);
+            return;
+        }
+
+        int capacity = roomRepository.countAvailableByHotelIdAndRoomType(request.getHotelId(), request.getRoomType());
+        if (capacity == 0) {
+            throw new EntityNotFoundException("No available rooms of type " + request.getRoomType()
+                    + " in hotel " + request.getHotelId());
+        }
+        provision(request.getHotelId(), request.getRoomType(), request.getStartDate(), request.getEndDate(), capacity);
+
+        try {
+            transactionTemplate.execute(status -> {
+                sellNights(request);
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Параллельный повтор с тем же requestId успел раньше - его результат и есть наш
+            if (holdRepository.findByRequestId(request.getRequestId()).isEmpty()) {
+                throw e;
+            }
+            log.info("[requestId:{}] Запрос обработан параллельным повтором", requestId);
+        }
+    }
+
+    @Transactional(noRollbackFor = HoldExpiredException.class)
+    public void commit(String requestId) {
+        RoomTypeHold hold = holdRepository.findByRequestId(requestId)
+                .orElseThrow(() -> new HoldExpiredException("HOLD типа не найден или уже освобождён"));
+        if ("CONFIRMED".equals(hold.getStatus())) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (hold.getExpiresAt() != null && hold.getExpiresAt().isBefore(now)) {
+            releaseHold(hold, holdRepository.deleteExpiredPending(requestId, now));
+            log.warn("[requestId:{}] HOLD типа истёк в {}, места возвращены", requestId, hold.getExpiresAt());
+            throw new HoldExpiredException("Время удержания номера истекло");
+        }
+        hold.setStatus("CONFIRMED");
+        hold.setExpiresAt(null);
+        holdRepository.save(hold);
+        log.info("[requestId:{}] HOLD типа переведён в CONFIRMED", requestId);
+    }
+
+    @Transactional
+    public void release(String requestId) {
+        Optional<RoomTypeHold> hold = holdRepository.findByRequestId(requestId);
+        if (hold.isEmpty()) {
+            log.warn("[requestId:{}] HOLD типа не найден, вероятно уже был освобождён", requestId);
+            return;
+        }
+        if (!releaseHold(hold.get(), holdRepository.deleteByRequestId(requestId))) {
+            log.warn("[requestId:{}] HOLD типа освобождён параллельно", requestId);
+            return;
+        }
+        log.info("[requestId:{}] HOLD типа освобождён", requestId);
+    }
+
+    /**
+     * Назначает подтверждённому удержанию конкретный номер, свободный на весь период, и создаёт на него
+     * подтверждённый блок. Счётчики не меняются - место уже продано.
+     */
+    public RoomDto assignRoom(String requestId) {
+        RoomTypeHold hold = holdRepository.findByRequestId(requestId)
+                .orElseThrow(() -> new EntityNotFoundException("Room type hold not found: " + requestId));
+        if (!"CONFIRMED".equals(hold.getStatus())) {
+            throw new IllegalArgumentException("Размещать можно только подтверждённое удержание");
+        }
+        if (hold.getRoomId() != null) {
+            return roomService.getRoomById(hold.getRoomId());
+        }
+
+        String blockRequestId = assignmentRequestId(requestId);
+        for (Long roomId : roomRepository.findAvailableIdsByHotelIdAndRoomType(hold.getHotelId(), hold.getRoomType())) {
+            try {
+                roomBlockService.confirmAvailability(roomId, new ConfirmAvailabilityRequest(
+                        hold.getStartDate(), hold.getEndDate(), hold.getBookingId(), blockRequestId));
+                roomBlockService.commitHold(roomId, new CommitHoldRequest(blockRequestId));
+            } catch (RuntimeException e) {
+                log.debug("[requestId:{}] Номер {} не подходит: {}", requestId, roomId, e.getMessage());
+                continue;
+            }
+            hold.setRoomId(roomId);
+            holdRepository.save(hold);
+            log.info("[requestId:{}] HOLD типа размещён в номер {}", requestId, roomId);
+            return roomService.getRoomById(roomId);
+        }
+        throw new RuntimeException("Нет номера типа " + hold.getRoomType() + ", свободного на весь период");
+    }
+
+    @Transactional(readOnly = true)
+    public List<RoomTypeInventoryDto> getInventory(Long hotelId, String roomType, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        Map<LocalDate, RoomTypeInventory> rows = inventoryRepository.findRange(hotelId, roomType, from, to).stream()
+                .collect(Collectors.toMap(row -> row.getId().getStayDate(), Function.identity()));
+        int capacity = roomRepository.countAvailableByHotelIdAndRoomType(hotelId, roomType);
+
+        List<RoomTypeInventoryDto> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            RoomTypeInventory row = rows.get(date);
+            int dayCapacity = row != null ? row.getCapacity() : capacity;
+            int sold = row != null ? row.getSold() : 0;
+            result.add(new RoomTypeInventoryDto(date, dayCapacity, sold, Math.max(0, dayCapacity - sold)));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${room-types.hold.sweep-interval:PT1M}",
+               initialDelayString = "${room-types.hold.sweep-interval:PT1M}")
+    public void releaseExpiredHolds() {
+        int released = 0;
+        List<String> requestIds;
+        do {
+            requestIds = holdRepository.findExpiredPendingRequestIds(LocalDateTime.now(), PageRequest.of(0, sweepBatchSize));
+            for (String requestId : requestIds) {
+                Boolean done = transactionTemplate.execute(status -> holdRepository.findByRequestId(requestId)
+                        .map(hold -> releaseHold(hold, holdRepository.deleteExpiredPending(requestId, LocalDateTime.now())))
+                        .orElse(false));
+                if (Boolean.TRUE.equals(done)) {
+                    released++;
+                }
+            }
+        } while (requestIds.size() == sweepBatchSize);
+
+        if (released > 0) {
+            log.info("Снято {} просроченных HOLD-ов типа", released);
+        }
+    }
+
+    private void sellNights(RoomTypeHoldRequest request) {
+        int nights = (int) ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) + 1;
+        int sold = inventoryRepository.incrementSold(request.getHotelId(), request.getRoomType(),
+                request.getStartDate(), request.getEndDate());
+        if (sold < nights) {
+            // Исключение откатывает и уже сделанные инкременты: места продаются на весь период или не продаются
+            log.warn("[requestId:{}] Тип {} распродан на {} из {} дат", request.getRequestId(),
+                    request.getRoomType(), nights - sold, nights);
+            throw new RuntimeException("Номера типа " + request.getRoomType() + " распроданы на выбранные даты");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        RoomTypeHold hold = new RoomTypeHold();
+        hold.setHotelId(request.getHotelId());
+        hold.setRoomType(request.getRoomType());
+        hold.setStartDate(request.getStartDate());
+        hold.setEndDate(request.getEndDate());
+        hold.setBookingId(request.getBookingId());
+        hold.setRequestId(request.getRequestId());
+        hold.setStatus("PENDING");
+        hold.setCreatedAt(now);
+        hold.setExpiresAt(now.plus(holdTtl));
+        holdRepository.saveAndFlush(hold);
+        log.info("[requestId:{}] HOLD типа создан до {}", request.getRequestId(), hold.getExpiresAt());
+    }
+
+    /**
+     * Создаёт недостающие строки счётчиков на даты диапазона и обновляет вместимость существующих.
+     * Отдельная транзакция: при одновременном создании тех же строк другой запрос получает нарушение
+     * первичного ключа и просто перечитывает строки.
+     */
+    private void provision(Long hotelId, String roomType, LocalDate from, LocalDate to, int capacity) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.execute(status -> {
+                    inventoryRepository.updateCapacity(hotelId, roomType, from, to, capacity);
+                    Map<LocalDate, RoomTypeInventory> existing = inventoryRepository.findRange(hotelId, roomType, from, to)
+                            .stream()
+                            .collect(Collectors.toMap(row -> row.getId().getStayDate(), Function.identity()));
+                    List<RoomTypeInventory> missing = new ArrayList<>();
+                    for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                        if (!existing.containsKey(date)) {
+                            missing.add(new RoomTypeInventory(new RoomTypeInventoryId(hotelId, roomType, date), capacity, 0));
+                        }
+                    }
+                    inventoryRepository.saveAll(missing);
+                    return null;
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_PROVISION_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Строки счётчиков {} / {} созданы параллельно, повторяем", hotelId, roomType);
+            }
+        }
+    }
+
+    /**
+     * Возвращает места удержания, если строку удалил именно этот вызов (deleted = 1). Уборщик, release и
+     * commit просроченного могут снимать одно удержание одновременно - места возвращает только удаливший.
+     */
+    private boolean releaseHold(RoomTypeHold hold, int deleted) {
+        if (deleted != 1) {
+            return false;
+        }
+        inventoryRepository.decrementSold(hold.getHotelId(), hold.getRoomType(), hold.getStartDate(), hold.getEndDate());
+        if (hold.getRoomId() != null) {
+            roomBlockService.releaseRoom(hold.getRoomId(), new ReleaseRoomRequest(assignmentRequestId(hold.getRequestId())));
+        }
+        return true;
+    }
+
+    private static String assignmentRequestId(String requestId) {
+        return requestId + ":room";
+    }
+
+    private void validate(RoomTypeHoldRequest request) {
+        if (request.getHotelId() == null || request.getRoomType() == null || request.getRoomType().isBlank()) {
+            throw new IllegalArgumentException("Отель и тип номера обязательны");
+        }
+        if (request.getRequestId() == null || request.getRequestId().isBlank()) {
+            throw new IllegalArgumentException("requestId обязателен");
+        }
+        validateRange(request.getStartDate(), request.getEndDate());
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Даты начала и окончания обязательны");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Дата окончания не может быть раньше даты начала");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_INVENTORY_DAYS) {
+            throw new IllegalArgumentException("Диапазон не может быть длиннее " + MAX_INVENTORY_DAYS + " дней");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+-- Базовая схема Hotel Service
+
+CREATE TABLE hotels (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    address     VARCHAR(255) NOT NULL,
+    description VARCHAR(255),
+    star_rating INTEGER
+);
+
+CREATE TABLE rooms (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id        BIGINT       NOT NULL,
+    number          VARCHAR(255) NOT NULL,
+    available       BOOLEAN      NOT NULL,
+    times_booked    INTEGER      NOT NULL,
+    room_type       VARCHAR(255),
+    price_per_night DOUBLE PRECISION,
+    capacity        INTEGER,
+    version         BIGINT,
+    CONSTRAINT fk_rooms_hotel FOREIGN KEY (hotel_id) REFERENCES hotels (id)
+);
+
+CREATE TABLE room_blocks (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    room_id    BIGINT       NOT NULL,
+    start_date DATE         NOT NULL,
+    end_date   DATE         NOT NULL,
+    booking_id BIGINT,
+    request_id VARCHAR(255),
+    status     VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6),
+    CONSTRAINT fk_room_blocks_room FOREIGN KEY (room_id) REFERENCES rooms (id),
+    CONSTRAINT uk_room_blocks_request_id UNIQUE (request_id),
+    CONSTRAINT ck_room_blocks_status CHECK (status IN ('PENDING', 'CONFIRMED')),
+    CONSTRAINT ck_room_blocks_dates CHECK (end_date >= start_date)
+);
+
+-- findAvailableByHotelId
+CREATE INDEX idx_rooms_hotel_available ON rooms (hotel_id, available);
+
+-- findConflictingBlocks / findPendingBlocksForDates: равенство по room_id и status,
+-- затем диапазон по датам
+CREATE INDEX idx_room_blocks_room_status_dates ON room_blocks (room_id, status, start_date, end_date);
+
+-- findExpiredPendingBlocks: status = 'PENDING' AND expires_at < :now
+CREATE INDEX idx_room_blocks_status_expires ON room_blocks (status, expires_at);
+
+-- findByBookingId
+CREATE INDEX idx_room_blocks_booking_id ON room_blocks (booking_id);
@@ -0,0 +1,22 @@
+-- Архив завершённых блоков: горячая room_blocks хранит только актуальное окно бронирований
+
+CREATE TABLE room_blocks_archive (
+    id          BIGINT       PRIMARY KEY,
+    room_id     BIGINT       NOT NULL,
+    start_date  DATE         NOT NULL,
+    end_date    DATE         NOT NULL,
+    booking_id  BIGINT,
+    request_id  VARCHAR(255),
+    status      VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    expires_at  TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+-- История блоков номера: равенство по room_id, затем диапазон по датам
+CREATE INDEX idx_room_blocks_archive_room_dates ON room_blocks_archive (room_id, start_date, end_date);
+
+CREATE INDEX idx_room_blocks_archive_booking_id ON room_blocks_archive (booking_id);
+
+-- RoomBlockArchiveService: отбор блоков, завершившихся до горизонта хранения
+CREATE INDEX idx_room_blocks_end_date ON room_blocks (end_date);
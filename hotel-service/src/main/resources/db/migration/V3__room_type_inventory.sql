@@ -0,0 +1,34 @@
+-- Продажа «любого номера типа»: счётчики проданных мест по (отель, тип, дата) и удержания под них
+
+CREATE TABLE room_type_inventory (
+    hotel_id  BIGINT       NOT NULL,
+    room_type VARCHAR(255) NOT NULL,
+    stay_date DATE         NOT NULL,
+    capacity  INTEGER      NOT NULL,
+    sold      INTEGER      NOT NULL,
+    CONSTRAINT pk_room_type_inventory PRIMARY KEY (hotel_id, room_type, stay_date),
+    CONSTRAINT ck_room_type_inventory_sold CHECK (sold >= 0)
+);
+
+CREATE TABLE room_type_holds (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    hotel_id   BIGINT       NOT NULL,
+    room_type  VARCHAR(255) NOT NULL,
+    start_date DATE         NOT NULL,
+    end_date   DATE         NOT NULL,
+    booking_id BIGINT,
+    request_id VARCHAR(255) NOT NULL,
+    status     VARCHAR(255) NOT NULL,
+    room_id    BIGINT,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6),
+    CONSTRAINT uk_room_type_holds_request_id UNIQUE (request_id),
+    CONSTRAINT ck_room_type_holds_status CHECK (status IN ('PENDING', 'CONFIRMED')),
+    CONSTRAINT ck_room_type_holds_dates CHECK (end_date >= start_date)
+);
+
+-- Снятие просроченных удержаний: status = 'PENDING' AND expires_at < :now
+CREATE INDEX idx_room_type_holds_status_expires ON room_type_holds (status, expires_at);
+
+-- Подсчёт вместимости типа: равенство по hotel_id и room_type
+CREATE INDEX idx_rooms_hotel_type ON rooms (hotel_id, room_type);
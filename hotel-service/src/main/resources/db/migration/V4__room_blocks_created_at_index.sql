@@ -0,0 +1,3 @@
+-- findDistinctRoomIdsCreatedSince: досинхронизация матрицы занятости с блоками других экземпляров
+-- читает только свежие строки, а не всю room_blocks
+CREATE INDEX idx_room_blocks_created_at ON room_blocks (created_at);
@@ -0,0 +1,122 @@
+package com.n1str.hotel.bulkhead;
+
+import com.n1str.hotel.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Exception> resolved = new CopyOnWriteArrayList<>();
+    private final HandlerExceptionResolver resolver = (request, response, handler, ex) -> {
+        resolved.add(ex);
+        response.setStatus(503);
+        return new ModelAndView();
+    };
+    private final BulkheadFilter filter = new BulkheadFilter(Map.of(
+            TrafficLane.SAGA, new LaneSettings(2, Duration.ZERO, 2, Duration.ofSeconds(1)),
+            TrafficLane.ADMIN, new LaneSettings(1, Duration.ZERO, 1, Duration.ofSeconds(1))),
+            1, meterRegistry, resolver);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void doFilter_ShouldRejectRequest_WhenLaneIsFull() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> run("GET", "/api/rooms/stats/popular", blocking(inside, release)));
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = run("GET", "/api/rooms/stats/popular", (req, res) -> fail("не должен пройти"));
+        release.countDown();
+
+        assertEquals(503, rejected.getStatus());
+        assertInstanceOf(BulkheadFullException.class, resolved.get(0));
+        assertEquals(1.0, meterRegistry.get("hotel.bulkhead.rejected").tag("lane", "admin").counter().count());
+    }
+
+    @Test
+    void doFilter_ShouldServeSagaRequest_WhileAdminLaneIsFull() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> run("GET", "/api/rooms/stats/popular", blocking(inside, release)));
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<TrafficLane> seen = new AtomicReference<>();
+        MockHttpServletResponse response = run("POST", "/api/rooms/1/confirm-availability",
+                (req, res) -> seen.set(LaneContext.current()));
+        double adminActive = meterRegistry.get("hotel.bulkhead.active").tag("lane", "admin").gauge().value();
+        release.countDown();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(TrafficLane.SAGA, seen.get());
+        assertEquals(1.0, adminActive);
+        assertEquals(0.0, meterRegistry.get("hotel.bulkhead.active").tag("lane", "saga").gauge().value());
+        assertNull(LaneContext.current());
+    }
+
+    @Test
+    void doFilter_ShouldReleasePermit_WhenChainThrows() throws Exception {
+        assertThrows(IllegalStateException.class, () -> run("DELETE", "/api/rooms/1", (req, res) -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        MockHttpServletResponse response = run("DELETE", "/api/rooms/1", (req, res) -> { });
+
+        assertEquals(200, response.getStatus());
+        assertNull(LaneContext.current());
+    }
+
+    @Test
+    void doFilter_ShouldPassThrough_WhenLaneNotLimited() throws Exception {
+        AtomicReference<TrafficLane> seen = new AtomicReference<>(TrafficLane.ADMIN);
+
+        run("GET", "/actuator/health", (req, res) -> seen.set(LaneContext.current()));
+
+        assertNull(seen.get());
+        assertTrue(resolved.isEmpty());
+    }
+
+    /**
+     * Цепочка, которая держит место в полосе, пока не отпустят release.
+     */
+    private static FilterChain blocking(CountDownLatch inside, CountDownLatch release) {
+        return (req, res) -> {
+            inside.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private MockHttpServletResponse run(String method, String path, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,51 @@
+package com.n1str.hotel.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficLaneTest {
+
+    @Test
+    void of_ShouldClassifySagaSteps() {
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("POST", "/api/rooms/5/confirm-availability"));
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("POST", "/api/rooms/5/commit"));
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("POST", "/api/rooms/5/release"));
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("POST", "/api/rooms/5/increment-booking"));
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("POST", "/api/rooms/batch/confirm-availability"));
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("POST", "/api/inventory/hold"));
+    }
+
+    @Test
+    void of_ShouldClassifySagaReadsByLaneHeader() {
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("GET", "/api/rooms/5", "saga"));
+        assertEquals(TrafficLane.SAGA, TrafficLane.of("GET", "/api/rooms/recommend", "saga"));
+        // Заголовок не переводит в SAGA изменения справочников и пути вне /api
+        assertEquals(TrafficLane.ADMIN, TrafficLane.of("DELETE", "/api/rooms/5", "saga"));
+        assertNull(TrafficLane.of("GET", "/actuator/health", "saga"));
+    }
+
+    @Test
+    void of_ShouldClassifyPublicReadsAsSearch() {
+        assertEquals(TrafficLane.SEARCH, TrafficLane.of("GET", "/api/hotels"));
+        assertEquals(TrafficLane.SEARCH, TrafficLane.of("GET", "/api/hotels/1/calendar"));
+        assertEquals(TrafficLane.SEARCH, TrafficLane.of("GET", "/api/rooms/recommend"));
+        assertEquals(TrafficLane.SEARCH, TrafficLane.of("GET", "/api/rooms/5"));
+        assertEquals(TrafficLane.SEARCH, TrafficLane.of("GET", "/api/inventory"));
+    }
+
+    @Test
+    void of_ShouldClassifyStatisticsAndChangesAsAdmin() {
+        assertEquals(TrafficLane.ADMIN, TrafficLane.of("GET", "/api/rooms/stats/popular"));
+        assertEquals(TrafficLane.ADMIN, TrafficLane.of("GET", "/api/rooms/5/blocks/archive"));
+        assertEquals(TrafficLane.ADMIN, TrafficLane.of("POST", "/api/hotels"));
+        assertEquals(TrafficLane.ADMIN, TrafficLane.of("DELETE", "/api/rooms/5"));
+        assertEquals(TrafficLane.ADMIN, TrafficLane.of("POST", "/api/inventory/assign"));
+    }
+
+    @Test
+    void of_ShouldLeaveNonApiPathsOutsideLanes() {
+        assertNull(TrafficLane.of("GET", "/actuator/health"));
+        assertNull(TrafficLane.of("GET", "/swagger-ui/index.html"));
+    }
+}
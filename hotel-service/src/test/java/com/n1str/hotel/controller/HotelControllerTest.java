@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.n1str.hotel.dto.CreateHotelRequest;
 import com.n1str.hotel.dto.HotelDto;
 import com.n1str.hotel.service.HotelService;
+import com.n1str.hotel.service.RoomCalendarService;
 import com.n1str.hotel.security.JwtAuthenticationFilter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +37,9 @@ class HotelControllerTest {
     @MockBean
     private HotelService hotelService;
 
+    @MockBean
+    private RoomCalendarService roomCalendarService;
+
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
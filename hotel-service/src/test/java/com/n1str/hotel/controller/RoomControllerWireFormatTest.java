@@ -0,0 +1,129 @@
+package com.n1str.hotel.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.exception.EntityNotFoundException;
+import com.n1str.hotel.security.JwtAuthenticationFilter;
+import com.n1str.hotel.service.HoldAdmissionQueue;
+import com.n1str.hotel.service.RoomAvailabilityService;
+import com.n1str.hotel.service.RoomBlockArchiveService;
+import com.n1str.hotel.service.RoomBlockBatchService;
+import com.n1str.hotel.service.RoomBlockService;
+import com.n1str.hotel.service.RoomCalendarService;
+import com.n1str.hotel.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = RoomController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class RoomControllerWireFormatTest {
+
+    private static final String CBOR_FIRST = "application/cbor, application/json;q=0.5";
+
+    private final ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.cbor()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RoomService roomService;
+
+    @MockBean
+    private RoomBlockService roomBlockService;
+
+    @MockBean
+    private RoomBlockArchiveService roomBlockArchiveService;
+
+    @MockBean
+    private RoomBlockBatchService roomBlockBatchService;
+
+    @MockBean
+    private RoomCalendarService roomCalendarService;
+
+    @MockBean
+    private RoomAvailabilityService roomAvailabilityService;
+
+    @MockBean
+    private HoldAdmissionQueue holdAdmissionQueue;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getRoomById_ShouldAnswerCbor_WhenRequestedInAccept() throws Exception {
+        when(roomService.getRoomById(1L)).thenReturn(room());
+
+        byte[] body = mockMvc.perform(get("/api/rooms/1").header("Accept", CBOR_FIRST))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        RoomDto room = cborMapper.readValue(body, RoomDto.class);
+        assertEquals(1L, room.getId());
+        assertEquals("101", room.getNumber());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getRoomById_ShouldAnswerJson_WhenClientAcceptsAnything() throws Exception {
+        when(roomService.getRoomById(1L)).thenReturn(room());
+
+        mockMvc.perform(get("/api/rooms/1").header("Accept", "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.number").value("101"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getRoomById_ShouldAnswerErrorInJson_EvenWhenCborRequested() throws Exception {
+        when(roomService.getRoomById(9L)).thenThrow(new EntityNotFoundException("Room not found with id: 9"));
+
+        mockMvc.perform(get("/api/rooms/9").header("Accept", CBOR_FIRST))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Room not found with id: 9"));
+    }
+
+    @Test
+    void confirmAvailability_ShouldReadCborBody() throws Exception {
+        ConfirmAvailabilityRequest request = new ConfirmAvailabilityRequest(
+                LocalDate.of(2030, 1, 10), LocalDate.of(2030, 1, 12), 5L, "req-1");
+
+        mockMvc.perform(post("/api/rooms/1/confirm-availability")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<ConfirmAvailabilityRequest> captor = ArgumentCaptor.forClass(ConfirmAvailabilityRequest.class);
+        verify(holdAdmissionQueue).confirmAvailability(eq(1L), captor.capture());
+        assertEquals(request, captor.getValue());
+    }
+
+    private static RoomDto room() {
+        return new RoomDto(1L, 1L, "101", true, 0, "STANDARD", 120.0, 2);
+    }
+}
@@ -0,0 +1,182 @@
+package com.n1str.hotel.repository;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверяет, что горячие запросы RoomBlockRepository идут по индексам из V1__init_schema.sql,
+ * а не через полный скан room_blocks. EXPLAIN строится по SQL, который сгенерировал Hibernate,
+ * с теми же параметрами: их перехватывает datasource-proxy, уже обёрнутый вокруг DataSource.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Import(RoomBlockQueryPlanTest.CaptureConfig.class)
+class RoomBlockQueryPlanTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2030, 1, 10);
+
+    @Autowired
+    private RoomBlockRepository roomBlockRepository;
+
+    @Autowired
+    private RoomBlockArchiveRepository roomBlockArchiveRepository;
+
+    @Autowired
+    private StatementCapture statementCapture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findConflictingBlocks_UsesRoomStatusDatesIndex() {
+        String plan = explain(() -> roomBlockRepository.findConflictingBlocks(1L, FROM, TO));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_ROOM_STATUS_DATES");
+    }
+
+    @Test
+    void findPendingBlocksForDates_UsesRoomStatusDatesIndex() {
+        String plan = explain(() -> roomBlockRepository.findPendingBlocksForDates(1L, FROM, TO));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_ROOM_STATUS_DATES");
+    }
+
+    @Test
+    void findExpiredPendingBlocks_UsesStatusExpiresIndex() {
+        String plan = explain(() -> roomBlockRepository.findExpiredPendingBlocks(LocalDateTime.of(2030, 1, 1, 0, 0)));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_STATUS_EXPIRES");
+    }
+
+    @Test
+    void findByBookingId_UsesBookingIdIndex() {
+        String plan = explain(() -> roomBlockRepository.findByBookingId(42L));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_BOOKING_ID");
+    }
+
+    @Test
+    void findByRequestId_UsesUniqueKey() {
+        String plan = explain(() -> roomBlockRepository.findByRequestId("req-1"));
+
+        assertFalse(plan.contains("tableScan"), "Ожидался поиск по уникальному ключу, план: " + plan);
+    }
+
+    @Test
+    void findIdsEndedBefore_UsesEndDateIndex() {
+        String plan = explain(() -> roomBlockRepository.findIdsEndedBefore(FROM, PageRequest.of(0, 500)));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_END_DATE");
+    }
+
+    @Test
+    void findDistinctRoomIdsCreatedSince_UsesCreatedAtIndex() {
+        String plan = explain(() -> roomBlockRepository.findDistinctRoomIdsCreatedSince(LocalDateTime.of(2030, 1, 1, 0, 0)));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_CREATED_AT");
+    }
+
+    @Test
+    void findArchivedHistoryByRoomId_UsesArchiveRoomDatesIndex() {
+        String plan = explain(() -> roomBlockArchiveRepository.findHistoryByRoomId(1L, FROM, TO, PageRequest.of(0, 50)));
+
+        assertUsesIndex(plan, "IDX_ROOM_BLOCKS_ARCHIVE_ROOM_DATES");
+    }
+
+    /**
+     * Выполняет вызов репозитория и возвращает план первого отправленного им запроса.
+     */
+    private String explain(Runnable repositoryCall) {
+        CapturedQuery query = statementCapture.capture(repositoryCall);
+        return jdbcTemplate.query("EXPLAIN " + query.sql(), ps -> bind(ps, query.parameters()),
+                rs -> rs.next() ? rs.getString(1) : null);
+    }
+
+    private static void bind(PreparedStatement ps, List<ParameterSetOperation> parameters) throws SQLException {
+        for (ParameterSetOperation parameter : parameters) {
+            try {
+                parameter.getMethod().invoke(ps, parameter.getArgs());
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Не удалось повторить " + parameter.getMethod().getName(), e);
+            }
+        }
+    }
+
+    private void assertUsesIndex(String plan, String indexName) {
+        assertFalse(plan.contains("tableScan"), "Запрос откатился на полный скан, план: " + plan);
+        assertTrue(plan.toUpperCase().contains(indexName), "Ожидался индекс " + indexName + ", план: " + plan);
+    }
+
+    record CapturedQuery(String sql, List<ParameterSetOperation> parameters) {
+    }
+
+    /**
+     * Запоминает запросы текущего потока, пока идёт capture: фоновые задачи сервиса в выборку не попадают.
+     */
+    static class StatementCapture implements QueryExecutionListener {
+
+        private final ThreadLocal<List<CapturedQuery>> captured = new ThreadLocal<>();
+
+        CapturedQuery capture(Runnable call) {
+            List<CapturedQuery> queries = new ArrayList<>();
+            captured.set(queries);
+            try {
+                call.run();
+            } finally {
+                captured.remove();
+            }
+            assertFalse(queries.isEmpty(), "Вызов репозитория не отправил ни одного запроса");
+            return queries.get(0);
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            List<CapturedQuery> queries = captured.get();
+            if (queries == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                List<List<ParameterSetOperation>> parameters = queryInfo.getParametersList();
+                queries.add(new CapturedQuery(queryInfo.getQuery(),
+                        parameters.isEmpty() ? List.of() : parameters.get(0)));
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.bulkhead.LaneContext;
+import com.n1str.hotel.bulkhead.TrafficLane;
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.exception.HoldAdmissionRejectedException;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Без @Transactional: пачки решаются в транзакциях рабочих потоков очереди
+@SpringBootTest(properties = {"room-blocks.admission.enabled=true", "room-blocks.admission.batch-size=8"})
+@ActiveProfiles("test")
+@Import(HoldAdmissionQueueTest.LaneCaptureConfig.class)
+class HoldAdmissionQueueTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(40);
+
+    @Autowired
+    private HoldAdmissionQueue holdAdmissionQueue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WorkerLaneCapture workerLaneCapture;
+
+    private Long hotelId;
+    private final List<Long> roomIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Sale Hotel', 'Street 3')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked, version) VALUES (?, ?, TRUE, 0, 0)",
+                    hotelId, "40" + i);
+            roomIds.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(holdAdmissionQueue, "maxQueue", 500);
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id IN (SELECT id FROM rooms WHERE hotel_id = ?)", hotelId);
+        jdbcTemplate.update("DELETE FROM rooms WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void confirmAvailability_ShouldGrantEachRoomOnce_WhenFlashSale() throws Exception {
+        int requests = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                Long roomId = roomIds.get(i % roomIds.size());
+                String requestId = "sale-" + i;
+                tasks.add(() -> {
+                    try {
+                        holdAdmissionQueue.confirmAvailability(roomId,
+                                new ConfirmAvailabilityRequest(START, START.plusDays(2), 1L, requestId));
+                        return true;
+                    } catch (HoldAdmissionRejectedException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                });
+            }
+            long granted = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    granted++;
+                }
+            }
+            assertEquals(roomIds.size(), granted);
+        } finally {
+            executor.shutdownNow();
+        }
+        for (Long roomId : roomIds) {
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM room_blocks WHERE room_id = ?", Integer.class, roomId));
+        }
+    }
+
+    @Test
+    void confirmAvailability_ShouldBeIdempotentByRequestId() {
+        ConfirmAvailabilityRequest request = new ConfirmAvailabilityRequest(START, START.plusDays(1), 1L, "sale-repeat");
+        holdAdmissionQueue.confirmAvailability(roomIds.get(0), request);
+        holdAdmissionQueue.confirmAvailability(roomIds.get(0), request);
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM room_blocks WHERE request_id = 'sale-repeat'", Integer.class));
+        // Повтор HOLD-а не подтверждает бронирование - это делает только commitHold
+        assertEquals("PENDING", jdbcTemplate.queryForObject(
+                "SELECT status FROM room_blocks WHERE request_id = 'sale-repeat'", String.class));
+    }
+
+    @Test
+    void confirmAvailability_ShouldReplaceExpiredHoldOfSameRequest() {
+        ConfirmAvailabilityRequest request = new ConfirmAvailabilityRequest(START, START.plusDays(1), 1L, "sale-expired");
+        holdAdmissionQueue.confirmAvailability(roomIds.get(0), request);
+        jdbcTemplate.update("UPDATE room_blocks SET expires_at = ? WHERE request_id = 'sale-expired'",
+                LocalDateTime.now().minusMinutes(1));
+
+        holdAdmissionQueue.confirmAvailability(roomIds.get(0), request);
+
+        LocalDateTime expiresAt = jdbcTemplate.queryForObject(
+                "SELECT expires_at FROM room_blocks WHERE request_id = 'sale-expired'", LocalDateTime.class);
+        assertTrue(expiresAt.isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void confirmAvailability_ShouldRejectConflictWithExistingBlock() {
+        holdAdmissionQueue.confirmAvailability(roomIds.get(0),
+                new ConfirmAvailabilityRequest(START, START.plusDays(3), 1L, "sale-first"));
+
+        RuntimeException conflict = assertThrows(RuntimeException.class, () -> holdAdmissionQueue.confirmAvailability(
+                roomIds.get(0), new ConfirmAvailabilityRequest(START, START.plusDays(3), 2L, "sale-second")));
+        assertFalse(conflict instanceof HoldAdmissionRejectedException);
+    }
+
+    @Test
+    void confirmAvailability_ShouldRunBatchInSagaLane() {
+        workerLaneCapture.lanes.clear();
+
+        holdAdmissionQueue.confirmAvailability(roomIds.get(0),
+                new ConfirmAvailabilityRequest(START, START.plusDays(1), 1L, "sale-lane"));
+
+        // Соединения пачки берутся из пула полосы SAGA (LaneRoutingDataSource), а не из общего
+        assertFalse(workerLaneCapture.lanes.isEmpty());
+        assertTrue(workerLaneCapture.lanes.stream().allMatch(lane -> lane == TrafficLane.SAGA),
+                "Полосы запросов рабочего потока: " + workerLaneCapture.lanes);
+    }
+
+    @Test
+    void confirmAvailability_ShouldRejectWithRetryAfter_WhenQueueIsFull() {
+        ReflectionTestUtils.setField(holdAdmissionQueue, "maxQueue", 0);
+
+        HoldAdmissionRejectedException rejected = assertThrows(HoldAdmissionRejectedException.class,
+                () -> holdAdmissionQueue.confirmAvailability(roomIds.get(0),
+                        new ConfirmAvailabilityRequest(START, START, 1L, "sale-overflow")));
+        assertTrue(rejected.getRetryAfterSeconds() > 0);
+    }
+
+    /**
+     * Полоса, в которой рабочие потоки очереди допуска отправляют SQL.
+     */
+    static class WorkerLaneCapture implements QueryExecutionListener {
+
+        private final List<TrafficLane> lanes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (Thread.currentThread().getName().startsWith("hold-admission-")) {
+                lanes.add(LaneContext.current());
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+    }
+
+    @TestConfiguration
+    static class LaneCaptureConfig {
+
+        @Bean
+        WorkerLaneCapture workerLaneCapture() {
+            return new WorkerLaneCapture();
+        }
+    }
+}
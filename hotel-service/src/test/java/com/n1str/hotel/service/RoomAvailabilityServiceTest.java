@@ -0,0 +1,127 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.ReleaseRoomRequest;
+import com.n1str.hotel.dto.RoomDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Без @Transactional: матрица обновляется по событиям после коммита
+@SpringBootTest(properties = "room-blocks.occupancy-matrix.enabled=true")
+@ActiveProfiles("test")
+class RoomAvailabilityServiceTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(20);
+
+    @Autowired
+    private RoomAvailabilityService roomAvailabilityService;
+
+    @Autowired
+    private RoomBlockService roomBlockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotelId;
+    private Long bookedRoomId;
+    private Long freeRoomId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Matrix Hotel', 'Street 1')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        bookedRoomId = insertRoom("201");
+        freeRoomId = insertRoom("202");
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, request_id, status, created_at) " +
+                        "VALUES (?, ?, ?, 'matrix-confirmed', 'CONFIRMED', CURRENT_TIMESTAMP)",
+                bookedRoomId, Date.valueOf(START), Date.valueOf(START.plusDays(2)));
+        // Номера и блоки вставлены в обход сервисов - перестраиваем матрицу, как при старте
+        roomAvailabilityService.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id IN (?, ?)", bookedRoomId, freeRoomId);
+        jdbcTemplate.update("DELETE FROM rooms WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void findFreeRooms_ShouldMatchDatabasePath() {
+        List<Long> fromMatrix = freeIds(START.plusDays(1), START.plusDays(5));
+
+        ReflectionTestUtils.setField(roomAvailabilityService, "matrix", null);
+        List<Long> fromDatabase = freeIds(START.plusDays(1), START.plusDays(5));
+
+        assertTrue(fromMatrix.contains(freeRoomId));
+        assertFalse(fromMatrix.contains(bookedRoomId));
+        assertEquals(fromDatabase, fromMatrix);
+    }
+
+    @Test
+    void findFreeRooms_ShouldFollowHoldAndRelease() {
+        roomBlockService.confirmAvailability(freeRoomId,
+                new ConfirmAvailabilityRequest(START.plusDays(4), START.plusDays(6), 1L, "matrix-hold"));
+        assertFalse(freeIds(START, START.plusDays(4)).contains(freeRoomId));
+
+        roomBlockService.releaseRoom(freeRoomId, new ReleaseRoomRequest("matrix-hold"));
+        assertTrue(freeIds(START, START.plusDays(4)).contains(freeRoomId));
+    }
+
+    @Test
+    void sync_ShouldPickUpBlocksWrittenByOtherInstances() {
+        // Блок другого экземпляра: в обход сервиса, без локального события
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, request_id, status, created_at) " +
+                        "VALUES (?, ?, ?, 'matrix-remote', 'CONFIRMED', CURRENT_TIMESTAMP)",
+                freeRoomId, Date.valueOf(START.plusDays(4)), Date.valueOf(START.plusDays(6)));
+        assertTrue(freeIds(START, START.plusDays(4)).contains(freeRoomId));
+        Object before = ReflectionTestUtils.getField(roomAvailabilityService, "matrix");
+
+        roomAvailabilityService.sync();
+
+        assertFalse(freeIds(START, START.plusDays(4)).contains(freeRoomId));
+        // Номер перечитан в той же матрице, без перестроения
+        assertSame(before, ReflectionTestUtils.getField(roomAvailabilityService, "matrix"));
+    }
+
+    @Test
+    void scheduledRebuild_ShouldPickUpBlocksRemovedByOtherInstances() {
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE request_id = 'matrix-confirmed'");
+        roomAvailabilityService.sync();
+        assertFalse(freeIds(START, START.plusDays(1)).contains(bookedRoomId));
+
+        roomAvailabilityService.scheduledRebuild();
+
+        assertTrue(freeIds(START, START.plusDays(1)).contains(bookedRoomId));
+    }
+
+    @Test
+    void findFreeRooms_ShouldRejectInvalidLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> roomAvailabilityService.findFreeRooms(START, START.plusDays(1), RoomAvailabilityService.MAX_FREE_ROOMS + 1));
+    }
+
+    private List<Long> freeIds(LocalDate start, LocalDate end) {
+        return roomAvailabilityService.findFreeRooms(start, end, RoomAvailabilityService.MAX_FREE_ROOMS).stream()
+                .map(RoomDto::getId)
+                .toList();
+    }
+
+    private Long insertRoom(String number) {
+        jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked, version) VALUES (?, ?, TRUE, 0, 0)",
+                hotelId, number);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class);
+    }
+}
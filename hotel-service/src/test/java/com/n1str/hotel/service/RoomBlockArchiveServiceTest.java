@@ -0,0 +1,91 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.RoomBlockDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "room-blocks.archive.batch-size=2")
+@ActiveProfiles("test")
+@Transactional
+class RoomBlockArchiveServiceTest {
+
+    private static final LocalDate HORIZON = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private RoomBlockArchiveService roomBlockArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long roomId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Archive Hotel', 'Street 1')");
+        Long hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked) VALUES (?, '101', TRUE, 0)",
+                hotelId);
+        roomId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class);
+
+        // Пять завершённых блоков (больше двух пачек) и один актуальный
+        for (int i = 0; i < 5; i++) {
+            insertBlock("old-" + i, HORIZON.minusDays(20 - i * 3L), HORIZON.minusDays(18 - i * 3L));
+        }
+        insertBlock("active", HORIZON.plusDays(1), HORIZON.plusDays(3));
+    }
+
+    @Test
+    void archiveEndedBefore_ShouldMoveEndedBlocksInChunks() {
+        int moved = roomBlockArchiveService.archiveEndedBefore(HORIZON);
+
+        assertEquals(5, moved);
+        assertEquals(List.of("active"),
+                jdbcTemplate.queryForList("SELECT request_id FROM room_blocks WHERE room_id = ?", String.class, roomId));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM room_blocks_archive WHERE room_id = ? AND archived_at IS NOT NULL",
+                Integer.class, roomId));
+    }
+
+    @Test
+    void archiveEndedBefore_ShouldBeNoOp_WhenNothingEnded() {
+        roomBlockArchiveService.archiveEndedBefore(HORIZON);
+
+        assertEquals(0, roomBlockArchiveService.archiveEndedBefore(HORIZON));
+    }
+
+    @Test
+    void getArchivedBlocks_ShouldReturnHistoryNewestFirst() {
+        roomBlockArchiveService.archiveEndedBefore(HORIZON);
+
+        List<RoomBlockDto> firstPage = roomBlockArchiveService.getArchivedBlocks(roomId, null, null, 0, 3);
+        assertEquals(3, firstPage.size());
+        assertTrue(firstPage.get(0).getStartDate().isAfter(firstPage.get(1).getStartDate()));
+
+        List<RoomBlockDto> filtered = roomBlockArchiveService.getArchivedBlocks(
+                roomId, HORIZON.minusDays(10), null, 0, 20);
+        assertEquals(2, filtered.size());
+    }
+
+    @Test
+    void getArchivedBlocks_ShouldRejectOversizedPage() {
+        assertThrows(IllegalArgumentException.class,
+                () -> roomBlockArchiveService.getArchivedBlocks(roomId, null, null, 0, 1000));
+    }
+
+    private void insertBlock(String requestId, LocalDate start, LocalDate end) {
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, request_id, status, created_at) " +
+                        "VALUES (?, ?, ?, ?, 'CONFIRMED', CURRENT_TIMESTAMP)",
+                roomId, Date.valueOf(start), Date.valueOf(end), requestId);
+    }
+}
@@ -0,0 +1,148 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.BatchConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.BatchHoldRequest;
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.dto.RoomHoldItem;
+import com.n1str.hotel.exception.HoldExpiredException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomBlockBatchServiceTest {
+
+    private static final LocalDate START = LocalDate.now().plusDays(30);
+    private static final LocalDate END = START.plusDays(3);
+
+    @Autowired
+    private RoomBlockBatchService roomBlockBatchService;
+
+    @Autowired
+    private RoomBlockService roomBlockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotelId;
+    private final List<Long> roomIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Group Hotel', 'Street 1')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked, price_per_night, version) " +
+                    "VALUES (?, ?, TRUE, 0, 100.0, 0)", hotelId, "G" + i);
+            roomIds.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long roomId : roomIds) {
+            jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id = ?", roomId);
+        }
+        jdbcTemplate.update("DELETE FROM rooms WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void confirmAvailability_ShouldHoldAllRooms_AndReturnRoomDetails() {
+        List<RoomDto> rooms = roomBlockBatchService.confirmAvailability(groupRequest("g1"));
+
+        assertEquals(3, rooms.size());
+        assertTrue(rooms.stream().allMatch(room -> room.getPricePerNight() == 100.0 && hotelId.equals(room.getHotelId())));
+        assertEquals(3, countBlocks("PENDING"));
+    }
+
+    @Test
+    void confirmAvailability_ShouldHoldNothing_WhenAnyRoomIsTaken() {
+        roomBlockService.confirmAvailability(roomIds.get(1),
+                new ConfirmAvailabilityRequest(START.plusDays(1), START.plusDays(2), 99L, "single-booking"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> roomBlockBatchService.confirmAvailability(groupRequest("g2")));
+
+        assertTrue(exception.getMessage().contains(roomIds.get(1).toString()));
+        assertEquals(1, countBlocks("PENDING"), "Кроме одиночного HOLD-а не должно появиться ни одного блока");
+    }
+
+    @Test
+    void confirmAvailability_ShouldBeIdempotent() {
+        roomBlockBatchService.confirmAvailability(groupRequest("g3"));
+
+        assertEquals(3, roomBlockBatchService.confirmAvailability(groupRequest("g3")).size());
+        assertEquals(3, countBlocks("PENDING"));
+    }
+
+    @Test
+    void commitHolds_ShouldConfirmAllAndCountBookings() {
+        roomBlockBatchService.confirmAvailability(groupRequest("g4"));
+
+        roomBlockBatchService.commitHolds(new BatchHoldRequest(requestIds("g4")));
+
+        assertEquals(3, countBlocks("CONFIRMED"));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT SUM(times_booked) FROM rooms WHERE hotel_id = ?", Integer.class, hotelId));
+    }
+
+    @Test
+    void commitHolds_ShouldFail_WhenHoldMissing() {
+        roomBlockBatchService.confirmAvailability(groupRequest("g5"));
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE request_id = 'g5-0'");
+
+        assertThrows(HoldExpiredException.class,
+                () -> roomBlockBatchService.commitHolds(new BatchHoldRequest(requestIds("g5"))));
+        assertEquals(0, countBlocks("CONFIRMED"));
+    }
+
+    @Test
+    void releaseHolds_ShouldRemoveGroup() {
+        roomBlockBatchService.confirmAvailability(groupRequest("g6"));
+        roomBlockBatchService.commitHolds(new BatchHoldRequest(requestIds("g6")));
+
+        roomBlockBatchService.releaseHolds(new BatchHoldRequest(requestIds("g6")));
+
+        assertEquals(0, countBlocks("CONFIRMED"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT SUM(times_booked) FROM rooms WHERE hotel_id = ?", Integer.class, hotelId));
+    }
+
+    @Test
+    void confirmAvailability_ShouldRejectDuplicateRooms() {
+        BatchConfirmAvailabilityRequest request = groupRequest("g7");
+        request.getHolds().get(2).setRoomId(roomIds.get(0));
+
+        assertThrows(IllegalArgumentException.class, () -> roomBlockBatchService.confirmAvailability(request));
+    }
+
+    private BatchConfirmAvailabilityRequest groupRequest(String groupId) {
+        List<RoomHoldItem> holds = new ArrayList<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            holds.add(new RoomHoldItem(roomIds.get(i), (long) i, groupId + "-" + i));
+        }
+        return new BatchConfirmAvailabilityRequest(START, END, holds);
+    }
+
+    private List<String> requestIds(String groupId) {
+        return List.of(groupId + "-0", groupId + "-1", groupId + "-2");
+    }
+
+    private int countBlocks(String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_blocks rb JOIN rooms r ON r.id = rb.room_id " +
+                "WHERE r.hotel_id = ? AND rb.status = ?", Integer.class, hotelId, status);
+    }
+}
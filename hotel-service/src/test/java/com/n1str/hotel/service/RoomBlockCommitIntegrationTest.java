@@ -0,0 +1,72 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.controller.RoomController;
+import com.n1str.hotel.dto.CommitHoldRequest;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * commitHold с реальной транзакцией: без @Transactional на классе, чтобы было видно, что закоммитилось.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomBlockCommitIntegrationTest {
+
+    private static final String REQUEST_ID = "commit-expired-hold";
+
+    @Autowired
+    private RoomController roomController;
+
+    @Autowired
+    private RoomBlockRepository roomBlockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotelId;
+    private Long roomId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Commit Hotel', 'Street 1')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked, version) " +
+                "VALUES (?, 'C1', TRUE, 0, 0)", hotelId);
+        roomId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id = ?", roomId);
+        jdbcTemplate.update("DELETE FROM rooms WHERE id = ?", roomId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void commitHold_ShouldKeepExpiredBlockDeleted_WhenRespondingConflict() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, booking_id, request_id, " +
+                        "status, created_at, expires_at) VALUES (?, ?, ?, 1, ?, 'PENDING', ?, ?)",
+                roomId, start, start.plusDays(2), REQUEST_ID,
+                LocalDateTime.now().minusMinutes(11), LocalDateTime.now().minusMinutes(1));
+
+        ResponseEntity<Void> response = roomController.commitHold(roomId, new CommitHoldRequest(REQUEST_ID));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertTrue(roomBlockRepository.findByRequestId(REQUEST_ID).isEmpty(),
+                "Просроченный HOLD должен остаться удалённым после отказа");
+    }
+}
@@ -0,0 +1,162 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.repository.RoomBlockRepository;
+import com.n1str.hotel.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочная проверка HOLD-пути: тысячи одновременных пересекающихся запросов не должны
+ * дать ни одного двойного бронирования.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomBlockConcurrencyTest {
+
+    private static final int ROOMS = 4;
+    private static final int REQUESTS = 2000;
+    private static final int THREADS = 32;
+    private static final int INSTANCES = 8;
+    private static final int DATE_WINDOW_DAYS = 180;
+
+    @Autowired
+    private RoomBlockService roomBlockService;
+
+    @Autowired
+    private RoomBlockRepository roomBlockRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomHoldReaper roomHoldReaper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotelId;
+    private final List<Long> roomIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Stress Hotel', 'Street 1')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        for (int i = 0; i < ROOMS; i++) {
+            jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked, version) " +
+                    "VALUES (?, ?, TRUE, 0, 0)", hotelId, "S" + i);
+            roomIds.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long roomId : roomIds) {
+            jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id = ?", roomId);
+        }
+        jdbcTemplate.update("DELETE FROM rooms WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void concurrentOverlappingHolds_ShouldNeverDoubleBook() throws InterruptedException {
+        int accepted = fireHolds(List.of(roomBlockService));
+
+        assertTrue(accepted > 0, "Хотя бы часть HOLD-ов должна пройти");
+        assertEquals(accepted, countBlocks());
+        assertEquals(0, countOverlaps(), "Найдены пересекающиеся блоки одного номера");
+    }
+
+    @Test
+    void concurrentHoldsFromSeveralInstances_ShouldBeGuardedByRowLock() throws InterruptedException {
+        // Несколько экземпляров сервиса со своими полосами: между ними защищает только FOR UPDATE на rooms
+        List<RoomBlockService> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            instances.add(new RoomBlockService(roomBlockRepository, roomRepository, roomService,
+                    roomHoldReaper, new RoomLockStripes(64, Duration.ofSeconds(5)), transactionTemplate, eventPublisher));
+        }
+
+        int accepted = fireHolds(instances);
+
+        assertTrue(accepted > 0, "Хотя бы часть HOLD-ов должна пройти");
+        assertEquals(accepted, countBlocks());
+        assertEquals(0, countOverlaps(), "Найдены пересекающиеся блоки одного номера");
+    }
+
+    private int fireHolds(List<RoomBlockService> instances) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger accepted = new AtomicInteger();
+        LocalDate base = LocalDate.now().plusDays(100);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            RoomBlockService service = instances.get(i % instances.size());
+            Long roomId = roomIds.get(i % ROOMS);
+            executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                LocalDate startDate = base.plusDays(random.nextInt(DATE_WINDOW_DAYS));
+                ConfirmAvailabilityRequest request = new ConfirmAvailabilityRequest(
+                        startDate, startDate.plusDays(1 + random.nextInt(4)), null, UUID.randomUUID().toString());
+                try {
+                    start.await();
+                    service.confirmAvailability(roomId, request);
+                    accepted.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // Отказ из-за пересечения или таймаута блокировки - ожидаемый исход
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        start.countDown();
+        assertTrue(done.await(2, TimeUnit.MINUTES), "Запросы не завершились вовремя");
+        executor.shutdown();
+        return accepted.get();
+    }
+
+    private long countBlocks() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_blocks rb JOIN rooms r ON r.id = rb.room_id " +
+                "WHERE r.hotel_id = ?", Long.class, hotelId);
+    }
+
+    private long countOverlaps() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_blocks a JOIN room_blocks b " +
+                "ON a.room_id = b.room_id AND a.id < b.id " +
+                "AND a.start_date <= b.end_date AND a.end_date >= b.start_date " +
+                "JOIN rooms r ON r.id = a.room_id WHERE r.hotel_id = ?", Long.class, hotelId);
+    }
+}
@@ -1,19 +1,28 @@
 package com.n1str.hotel.service;
 
+import com.n1str.hotel.dto.CommitHoldRequest;
 import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
 import com.n1str.hotel.entity.Hotel;
 import com.n1str.hotel.entity.Room;
 import com.n1str.hotel.entity.RoomBlock;
+import com.n1str.hotel.exception.HoldExpiredException;
 import com.n1str.hotel.repository.RoomBlockRepository;
 import com.n1str.hotel.repository.RoomRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -34,6 +43,18 @@ class RoomBlockServiceTest {
     @Mock
     private RoomService roomService;
 
+    @Mock
+    private RoomHoldReaper roomHoldReaper;
+
+    @Spy
+    private RoomLockStripes roomLockStripes = new RoomLockStripes(16, Duration.ofSeconds(1));
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RoomBlockService roomBlockService;
 
@@ -42,6 +63,9 @@ class RoomBlockServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         Hotel hotel = new Hotel();
         hotel.setId(1L);
         hotel.setName("Test Hotel");
@@ -61,18 +85,24 @@ class RoomBlockServiceTest {
 
     @Test
     void confirmAvailability_ShouldCreatePendingBlock_WhenNoConflicts() {
-        when(roomService.getRoomEntityById(1L)).thenReturn(testRoom);
+        when(roomService.getRoomEntityByIdForUpdate(1L)).thenReturn(testRoom);
         when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
         when(roomBlockRepository.findConflictingBlocks(eq(1L), any(), any())).thenReturn(Collections.emptyList());
 
         assertDoesNotThrow(() -> roomBlockService.confirmAvailability(1L, testRequest));
 
-        verify(roomBlockRepository).save(any(RoomBlock.class));
+        ArgumentCaptor<RoomBlock> captor = ArgumentCaptor.forClass(RoomBlock.class);
+        verify(roomBlockRepository).save(captor.capture());
+        RoomBlock hold = captor.getValue();
+        assertEquals("PENDING", hold.getStatus());
+        assertNotNull(hold.getExpiresAt());
+        assertTrue(hold.getExpiresAt().isAfter(LocalDateTime.now()));
+        verify(roomHoldReaper).track(any(), eq(hold.getExpiresAt()));
     }
 
     @Test
     void confirmAvailability_ShouldReturn_WhenRequestAlreadyProcessed() {
-        RoomBlock existingBlock = new RoomBlock();
+        RoomBlock existingBlock = blockOf(testRequest);
         existingBlock.setStatus("CONFIRMED");
         when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(existingBlock));
 
@@ -81,10 +111,56 @@ class RoomBlockServiceTest {
         verify(roomBlockRepository, never()).save(any());
     }
 
+    @Test
+    void confirmAvailability_ShouldKeepPendingHold_WhenRequestRepeated() {
+        RoomBlock existingBlock = blockOf(testRequest);
+        existingBlock.setStatus("PENDING");
+        existingBlock.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(existingBlock));
+
+        assertDoesNotThrow(() -> roomBlockService.confirmAvailability(1L, testRequest));
+
+        assertEquals("PENDING", existingBlock.getStatus());
+        assertNotNull(existingBlock.getExpiresAt());
+        verify(roomBlockRepository, never()).save(any());
+    }
+
+    @Test
+    void confirmAvailability_ShouldReplaceExpiredHold_WhenRequestRepeated() {
+        RoomBlock expiredBlock = blockOf(testRequest);
+        expiredBlock.setStatus("PENDING");
+        expiredBlock.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        when(roomService.getRoomEntityByIdForUpdate(1L)).thenReturn(testRoom);
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(expiredBlock));
+        when(roomBlockRepository.findConflictingBlocks(eq(1L), any(), any())).thenReturn(Collections.emptyList());
+
+        assertDoesNotThrow(() -> roomBlockService.confirmAvailability(1L, testRequest));
+
+        verify(roomBlockRepository).delete(expiredBlock);
+        ArgumentCaptor<RoomBlock> captor = ArgumentCaptor.forClass(RoomBlock.class);
+        verify(roomBlockRepository).save(captor.capture());
+        assertEquals("PENDING", captor.getValue().getStatus());
+        assertTrue(captor.getValue().getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void confirmAvailability_ShouldReject_WhenRequestIdHeldForOtherDates() {
+        RoomBlock existingBlock = blockOf(testRequest);
+        existingBlock.setStatus("PENDING");
+        existingBlock.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        existingBlock.setEndDate(testRequest.getEndDate().plusDays(3));
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(existingBlock));
+
+        assertThrows(RuntimeException.class, () -> roomBlockService.confirmAvailability(1L, testRequest));
+
+        verify(roomBlockRepository, never()).save(any());
+        verify(roomBlockRepository, never()).delete(any());
+    }
+
     @Test
     void confirmAvailability_ShouldThrowException_WhenRoomNotAvailable() {
         testRoom.setAvailable(false);
-        when(roomService.getRoomEntityById(1L)).thenReturn(testRoom);
+        when(roomService.getRoomEntityByIdForUpdate(1L)).thenReturn(testRoom);
         when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
 
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -94,7 +170,7 @@ class RoomBlockServiceTest {
 
     @Test
     void confirmAvailability_ShouldThrowException_WhenConfirmedConflictExists() {
-        when(roomService.getRoomEntityById(1L)).thenReturn(testRoom);
+        when(roomService.getRoomEntityByIdForUpdate(1L)).thenReturn(testRoom);
         when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
 
         RoomBlock confirmedBlock = new RoomBlock();
@@ -107,6 +183,36 @@ class RoomBlockServiceTest {
         assertEquals("Номер уже забронирован на выбранные даты", exception.getMessage());
     }
 
+    @Test
+    void confirmAvailability_ShouldThrowException_WhenActiveHoldOverlaps() {
+        when(roomService.getRoomEntityByIdForUpdate(1L)).thenReturn(testRoom);
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
+
+        RoomBlock activeHold = new RoomBlock();
+        activeHold.setStatus("PENDING");
+        activeHold.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(roomBlockRepository.findConflictingBlocks(eq(1L), any(), any()))
+                .thenReturn(Collections.singletonList(activeHold));
+
+        assertThrows(RuntimeException.class, () -> roomBlockService.confirmAvailability(1L, testRequest));
+        verify(roomBlockRepository, never()).save(any());
+    }
+
+    @Test
+    void confirmAvailability_ShouldIgnoreExpiredHold() {
+        when(roomService.getRoomEntityByIdForUpdate(1L)).thenReturn(testRoom);
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
+
+        RoomBlock expiredHold = new RoomBlock();
+        expiredHold.setStatus("PENDING");
+        expiredHold.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(roomBlockRepository.findConflictingBlocks(eq(1L), any(), any()))
+                .thenReturn(Collections.singletonList(expiredHold));
+
+        assertDoesNotThrow(() -> roomBlockService.confirmAvailability(1L, testRequest));
+        verify(roomBlockRepository).save(any(RoomBlock.class));
+    }
+
     @Test
     void releaseRoom_ShouldBeIdempotent_WhenBlockNotFound() {
         when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
@@ -117,4 +223,71 @@ class RoomBlockServiceTest {
 
         verify(roomBlockRepository, never()).delete(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void commitHold_ShouldConfirmPendingBlock_AndClearTtl() {
+        RoomBlock hold = new RoomBlock();
+        hold.setRoom(testRoom);
+        hold.setStatus("PENDING");
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(hold));
+
+        assertDoesNotThrow(() -> roomBlockService.commitHold(1L, new CommitHoldRequest("test-request-123")));
+
+        assertEquals("CONFIRMED", hold.getStatus());
+        assertNull(hold.getExpiresAt());
+        verify(roomBlockRepository).save(hold);
+        // Те же блокировки, что у HOLD-а: полоса номера и строка rooms
+        verify(roomLockStripes).withRoomLock(eq(1L), any());
+        verify(roomService).getRoomEntityByIdForUpdate(1L);
+    }
+
+    @Test
+    void commitHold_ShouldDeleteBlockAndThrow_WhenHoldExpired() {
+        RoomBlock hold = new RoomBlock();
+        hold.setRoom(testRoom);
+        hold.setStatus("PENDING");
+        hold.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(hold));
+
+        assertThrows(HoldExpiredException.class,
+                () -> roomBlockService.commitHold(1L, new CommitHoldRequest("test-request-123")));
+
+        verify(roomBlockRepository).delete(hold);
+        verify(roomBlockRepository, never()).save(any());
+    }
+
+    @Test
+    void commitHold_ShouldThrow_WhenHoldAlreadyReaped() {
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.empty());
+
+        assertThrows(HoldExpiredException.class,
+                () -> roomBlockService.commitHold(1L, new CommitHoldRequest("test-request-123")));
+    }
+
+    @Test
+    void commitHold_ShouldReject_WhenRequestIdBelongsToAnotherRoom() {
+        RoomBlock hold = new RoomBlock();
+        hold.setRoom(testRoom);
+        hold.setStatus("PENDING");
+        hold.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(roomBlockRepository.findByRequestId("test-request-123")).thenReturn(Optional.of(hold));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> roomBlockService.commitHold(2L, new CommitHoldRequest("test-request-123")));
+
+        assertEquals("requestId уже использован для другого номера", exception.getMessage());
+        assertEquals("PENDING", hold.getStatus());
+        verify(roomBlockRepository, never()).save(any());
+        verify(roomBlockRepository, never()).delete(any());
+    }
+
+    private RoomBlock blockOf(ConfirmAvailabilityRequest request) {
+        RoomBlock block = new RoomBlock();
+        block.setRoom(testRoom);
+        block.setStartDate(request.getStartDate());
+        block.setEndDate(request.getEndDate());
+        block.setRequestId(request.getRequestId());
+        return block;
+    }
+}
@@ -0,0 +1,138 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.ConfirmAvailabilityRequest;
+import com.n1str.hotel.dto.HotelCalendarDto;
+import com.n1str.hotel.dto.ReleaseRoomRequest;
+import com.n1str.hotel.dto.RoomCalendarDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Без @Transactional: календарь обновляется по событиям после коммита
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomCalendarServiceTest {
+
+    private static final LocalDate FROM = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private RoomCalendarService roomCalendarService;
+
+    @Autowired
+    private RoomBlockService roomBlockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotelId;
+    private Long roomId;
+    private Long otherRoomId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Calendar Hotel', 'Street 1')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        roomId = insertRoom("101");
+        otherRoomId = insertRoom("102");
+
+        // Подтверждённый блок на дни 2..4 и просроченный HOLD на дни 7..8, который календарь не должен видеть
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, request_id, status, created_at) " +
+                        "VALUES (?, ?, ?, 'cal-confirmed', 'CONFIRMED', CURRENT_TIMESTAMP)",
+                roomId, Date.valueOf(FROM.plusDays(2)), Date.valueOf(FROM.plusDays(4)));
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, request_id, status, created_at, expires_at) " +
+                        "VALUES (?, ?, ?, 'cal-expired', 'PENDING', CURRENT_TIMESTAMP, DATEADD('MINUTE', -1, CURRENT_TIMESTAMP))",
+                roomId, Date.valueOf(FROM.plusDays(7)), Date.valueOf(FROM.plusDays(8)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id IN (?, ?)", roomId, otherRoomId);
+        jdbcTemplate.update("DELETE FROM rooms WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void getRoomCalendar_ShouldEncodeOccupiedNightsAsRunsAndBitmap() {
+        RoomCalendarDto calendar = roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13));
+
+        assertEquals(14, calendar.getDays());
+        assertEquals(1, calendar.getOccupiedRuns().size());
+        assertArrayEquals(new int[]{2, 3}, calendar.getOccupiedRuns().get(0));
+
+        BitSet bits = BitSet.valueOf(Base64.getDecoder().decode(calendar.getBitmap()));
+        assertEquals(3, bits.cardinality());
+        assertTrue(bits.get(2) && bits.get(3) && bits.get(4));
+    }
+
+    @Test
+    void getRoomCalendar_ShouldFollowHoldAndReleaseIncrementally() {
+        roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13));
+
+        roomBlockService.confirmAvailability(roomId,
+                new ConfirmAvailabilityRequest(FROM.plusDays(10), FROM.plusDays(11), 1L, "cal-hold"));
+        List<int[]> runs = roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13)).getOccupiedRuns();
+        assertEquals(2, runs.size());
+        assertArrayEquals(new int[]{10, 2}, runs.get(1));
+
+        roomBlockService.releaseRoom(roomId, new ReleaseRoomRequest("cal-hold"));
+        runs = roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13)).getOccupiedRuns();
+        assertEquals(1, runs.size());
+    }
+
+    @Test
+    void getRoomCalendar_ShouldReloadAfterTtl_ToSeeBlocksOfOtherInstances() {
+        roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13));
+        // Блок другого экземпляра: в обход сервиса, без локального события
+        jdbcTemplate.update("INSERT INTO room_blocks (room_id, start_date, end_date, request_id, status, created_at) " +
+                        "VALUES (?, ?, ?, 'cal-remote', 'CONFIRMED', CURRENT_TIMESTAMP)",
+                roomId, Date.valueOf(FROM.plusDays(10)), Date.valueOf(FROM.plusDays(11)));
+        assertEquals(1, roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13)).getOccupiedRuns().size());
+
+        Object ttl = ReflectionTestUtils.getField(roomCalendarService, "ttl");
+        ReflectionTestUtils.setField(roomCalendarService, "ttl", Duration.ZERO);
+        try {
+            assertEquals(2, roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(13)).getOccupiedRuns().size());
+        } finally {
+            ReflectionTestUtils.setField(roomCalendarService, "ttl", ttl);
+        }
+    }
+
+    @Test
+    void getHotelCalendar_ShouldReturnEveryRoomOfHotel() {
+        HotelCalendarDto calendar = roomCalendarService.getHotelCalendar(hotelId, FROM, FROM.plusDays(6));
+
+        assertEquals(2, calendar.getRooms().size());
+        assertEquals(roomId, calendar.getRooms().get(0).getRoomId());
+        assertEquals(1, calendar.getRooms().get(0).getOccupiedRuns().size());
+        assertTrue(calendar.getRooms().get(1).getOccupiedRuns().isEmpty());
+        assertEquals("", calendar.getRooms().get(1).getBitmap());
+    }
+
+    @Test
+    void getRoomCalendar_ShouldRejectInvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> roomCalendarService.getRoomCalendar(roomId, FROM, FROM.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> roomCalendarService.getRoomCalendar(roomId, FROM, FROM.plusDays(RoomCalendarService.MAX_CALENDAR_DAYS)));
+    }
+
+    private Long insertRoom(String number) {
+        jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, available, times_booked, version) VALUES (?, ?, TRUE, 0, 0)",
+                hotelId, number);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM rooms", Long.class);
+    }
+}
@@ -0,0 +1,68 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.repository.RoomBlockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoomHoldReaperTest {
+
+    @Mock
+    private RoomBlockRepository roomBlockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RoomHoldReaper roomHoldReaper;
+
+    @Test
+    void reapDue_ShouldDeleteOnlyExpiredHolds() {
+        roomHoldReaper.track(1L, LocalDateTime.now().minusSeconds(5));
+        roomHoldReaper.track(2L, LocalDateTime.now().minusSeconds(1));
+        roomHoldReaper.track(3L, LocalDateTime.now().plusMinutes(10));
+        when(roomBlockRepository.deleteExpiredPendingBlocks(eq(List.of(1L, 2L)), any())).thenReturn(2);
+
+        assertEquals(2, roomHoldReaper.reapDue());
+        // Блок 3 ещё не истёк и остаётся в очереди
+        assertEquals(0, roomHoldReaper.reapDue());
+        verify(roomBlockRepository, times(1)).deleteExpiredPendingBlocks(anyCollection(), any());
+    }
+
+    @Test
+    void track_ShouldIgnoreHoldsWithoutTtl() {
+        roomHoldReaper.track(1L, null);
+
+        assertEquals(0, roomHoldReaper.reapDue());
+        verifyNoInteractions(roomBlockRepository);
+    }
+
+    @Test
+    void sweep_ShouldDeleteInBatchesUntilNothingExpired() {
+        List<Long> fullBatch = Collections.nCopies(500, 7L);
+        when(roomBlockRepository.findExpiredPendingBlockIds(any(), any(Pageable.class)))
+                .thenReturn(fullBatch)
+                .thenReturn(List.of(8L));
+        when(roomBlockRepository.deleteExpiredPendingBlocks(anyCollection(), any())).thenReturn(500, 1);
+
+        roomHoldReaper.sweep();
+
+        verify(roomBlockRepository, times(2)).findExpiredPendingBlockIds(any(), any(Pageable.class));
+        verify(roomBlockRepository, times(2)).deleteExpiredPendingBlocks(anyCollection(), any());
+    }
+}
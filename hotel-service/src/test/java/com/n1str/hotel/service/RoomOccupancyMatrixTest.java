@@ -0,0 +1,63 @@
+package com.n1str.hotel.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomOccupancyMatrixTest {
+
+    private static final LocalDate ORIGIN = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void findFreeRoomIds_ShouldExcludeRoomsOccupiedOnAnyNightOfRange() {
+        RoomOccupancyMatrix matrix = new RoomOccupancyMatrix(ORIGIN, 30, 4);
+        List.of(1L, 2L, 3L).forEach(matrix::register);
+        matrix.occupy(1L, ORIGIN.plusDays(5), ORIGIN.plusDays(7));
+        matrix.occupy(2L, ORIGIN.plusDays(10), ORIGIN.plusDays(10));
+
+        assertArrayEquals(new long[]{2L, 3L}, matrix.findFreeRoomIds(ORIGIN.plusDays(7), ORIGIN.plusDays(9)));
+        assertArrayEquals(new long[]{3L}, matrix.findFreeRoomIds(ORIGIN.plusDays(7), ORIGIN.plusDays(10)));
+        assertArrayEquals(new long[]{1L, 2L, 3L}, matrix.findFreeRoomIds(ORIGIN.plusDays(8), ORIGIN.plusDays(9)));
+    }
+
+    @Test
+    void register_ShouldGrowBeyondInitialCapacity() {
+        RoomOccupancyMatrix matrix = new RoomOccupancyMatrix(ORIGIN, 10, 1);
+        for (long id = 1; id <= 200; id++) {
+            matrix.register(id);
+        }
+        matrix.occupy(130L, ORIGIN, ORIGIN.plusDays(2));
+
+        long[] free = matrix.findFreeRoomIds(ORIGIN.plusDays(1), ORIGIN.plusDays(1));
+        assertEquals(199, free.length);
+        assertTrue(Arrays.stream(free).noneMatch(id -> id == 130L));
+    }
+
+    @Test
+    void replaceRoom_ShouldRejectStaleSnapshot() {
+        RoomOccupancyMatrix matrix = new RoomOccupancyMatrix(ORIGIN, 30, 4);
+        matrix.occupy(1L, ORIGIN, ORIGIN.plusDays(3));
+        int version = matrix.version(1L);
+
+        // Блок, пришедший после чтения из БД, не должен потеряться
+        matrix.occupy(1L, ORIGIN.plusDays(20), ORIGIN.plusDays(21));
+        assertFalse(matrix.replaceRoom(1L, List.of(), version));
+
+        assertTrue(matrix.replaceRoom(1L, List.of(new RoomOccupancyMatrix.Interval(ORIGIN.plusDays(20), ORIGIN.plusDays(21))),
+                matrix.version(1L)));
+        assertArrayEquals(new long[]{1L}, matrix.findFreeRoomIds(ORIGIN, ORIGIN.plusDays(3)));
+        assertEquals(0, matrix.findFreeRoomIds(ORIGIN.plusDays(21), ORIGIN.plusDays(25)).length);
+    }
+
+    @Test
+    void findFreeRoomIds_ShouldRejectRangeOutsideHorizon() {
+        RoomOccupancyMatrix matrix = new RoomOccupancyMatrix(ORIGIN, 30, 4);
+
+        assertFalse(matrix.covers(ORIGIN.minusDays(1), ORIGIN));
+        assertThrows(IllegalArgumentException.class, () -> matrix.findFreeRoomIds(ORIGIN, ORIGIN.plusDays(30)));
+    }
+}
@@ -0,0 +1,222 @@
+package com.n1str.hotel.service;
+
+import com.n1str.hotel.dto.RoomDto;
+import com.n1str.hotel.dto.RoomTypeHoldRequest;
+import com.n1str.hotel.dto.RoomTypeInventoryDto;
+import com.n1str.hotel.exception.HoldExpiredException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Без @Transactional: удержания продаются в собственных транзакциях сервиса
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomTypeInventoryServiceTest {
+
+    private static final String TYPE = "DELUXE";
+    private static final LocalDate START = LocalDate.now().plusDays(30);
+
+    @Autowired
+    private RoomTypeInventoryService roomTypeInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotelId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO hotels (name, address) VALUES ('Inventory Hotel', 'Street 2')");
+        hotelId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        insertRoom("301");
+        insertRoom("302");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM room_type_holds WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM room_type_inventory WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM room_blocks WHERE room_id IN (SELECT id FROM rooms WHERE hotel_id = ?)", hotelId);
+        jdbcTemplate.update("DELETE FROM rooms WHERE hotel_id = ?", hotelId);
+        jdbcTemplate.update("DELETE FROM hotels WHERE id = ?", hotelId);
+    }
+
+    @Test
+    void hold_ShouldSellUpToCapacity() {
+        roomTypeInventoryService.hold(request(START, START.plusDays(2), "type-1"));
+        roomTypeInventoryService.hold(request(START, START.plusDays(2), "type-2"));
+
+        assertThrows(RuntimeException.class,
+                () -> roomTypeInventoryService.hold(request(START.plusDays(1), START.plusDays(1), "type-3")));
+        List<RoomTypeInventoryDto> inventory = roomTypeInventoryService.getInventory(hotelId, TYPE, START, START.plusDays(3));
+        assertEquals(List.of(0, 0, 0, 2), inventory.stream().map(RoomTypeInventoryDto::getRemaining).toList());
+    }
+
+    @Test
+    void hold_ShouldBeAllOrNothing() {
+        roomTypeInventoryService.hold(request(START.plusDays(2), START.plusDays(2), "type-1"));
+        roomTypeInventoryService.hold(request(START.plusDays(2), START.plusDays(2), "type-2"));
+
+        // Третья дата распродана - первые две не должны остаться проданными
+        assertThrows(RuntimeException.class,
+                () -> roomTypeInventoryService.hold(request(START, START.plusDays(2), "type-3")));
+        assertEquals(List.of(0, 0, 2), soldPerDay(START, START.plusDays(2)));
+        assertEquals(0, countHolds("type-3"));
+    }
+
+    @Test
+    void hold_ShouldBeIdempotentByRequestId() {
+        roomTypeInventoryService.hold(request(START, START, "type-1"));
+        roomTypeInventoryService.hold(request(START, START, "type-1"));
+
+        assertEquals(List.of(1), soldPerDay(START, START));
+    }
+
+    @Test
+    void release_ShouldReturnSeats() {
+        roomTypeInventoryService.hold(request(START, START.plusDays(1), "type-1"));
+        roomTypeInventoryService.release("type-1");
+
+        assertEquals(List.of(0, 0), soldPerDay(START, START.plusDays(1)));
+        assertEquals(0, countHolds("type-1"));
+    }
+
+    @Test
+    void commit_ShouldReturnSeatsAndThrow_WhenHoldExpired() {
+        roomTypeInventoryService.hold(request(START, START, "type-1"));
+        jdbcTemplate.update("UPDATE room_type_holds SET expires_at = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP) " +
+                "WHERE request_id = 'type-1'");
+
+        assertThrows(HoldExpiredException.class, () -> roomTypeInventoryService.commit("type-1"));
+        assertEquals(List.of(0), soldPerDay(START, START));
+    }
+
+    @Test
+    void releaseExpiredHolds_ShouldReturnSeats() {
+        roomTypeInventoryService.hold(request(START, START, "type-1"));
+        roomTypeInventoryService.hold(request(START, START, "type-2"));
+        jdbcTemplate.update("UPDATE room_type_holds SET expires_at = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP) " +
+                "WHERE request_id = 'type-1'");
+
+        roomTypeInventoryService.releaseExpiredHolds();
+
+        assertEquals(List.of(1), soldPerDay(START, START));
+        assertEquals(0, countHolds("type-1"));
+    }
+
+    @Test
+    void release_ShouldReturnSeatsOnce_WhenConcurrent() throws Exception {
+        roomTypeInventoryService.hold(request(START, START, "type-1"));
+        roomTypeInventoryService.hold(request(START, START, "type-2"));
+        jdbcTemplate.update("UPDATE room_type_holds SET expires_at = DATEADD('MINUTE', -1, CURRENT_TIMESTAMP) " +
+                "WHERE request_id = 'type-1'");
+
+        // Компенсации саги и уборщик снимают одно просроченное удержание одновременно
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                boolean sweeper = i % 2 == 0;
+                tasks.add(() -> {
+                    if (sweeper) {
+                        roomTypeInventoryService.releaseExpiredHolds();
+                    } else {
+                        roomTypeInventoryService.release("type-1");
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(1), soldPerDay(START, START));
+        assertEquals(0, countHolds("type-1"));
+    }
+
+    @Test
+    void hold_ShouldSellExactlyCapacity_WhenConcurrent() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String requestId = "type-concurrent-" + i;
+                tasks.add(() -> {
+                    try {
+                        roomTypeInventoryService.hold(request(START, START.plusDays(3), requestId));
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                });
+            }
+            long succeeded = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            assertEquals(2, succeeded);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of(2, 2, 2, 2), soldPerDay(START, START.plusDays(3)));
+    }
+
+    @Test
+    void assignRoom_ShouldCreateConfirmedBlock() {
+        roomTypeInventoryService.hold(request(START, START.plusDays(1), "type-1"));
+        roomTypeInventoryService.commit("type-1");
+
+        RoomDto room = roomTypeInventoryService.assignRoom("type-1");
+
+        assertEquals(hotelId, room.getHotelId());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM room_blocks WHERE room_id = ? AND status = 'CONFIRMED'", Integer.class, room.getId()));
+        // Повторное размещение возвращает тот же номер
+        assertEquals(room.getId(), roomTypeInventoryService.assignRoom("type-1").getId());
+
+        roomTypeInventoryService.release("type-1");
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM room_blocks WHERE room_id = ?", Integer.class, room.getId()));
+    }
+
+    private RoomTypeHoldRequest request(LocalDate start, LocalDate end, String requestId) {
+        return new RoomTypeHoldRequest(hotelId, TYPE, start, end, 1L, requestId);
+    }
+
+    private List<Integer> soldPerDay(LocalDate from, LocalDate to) {
+        return roomTypeInventoryService.getInventory(hotelId, TYPE, from, to).stream()
+                .map(RoomTypeInventoryDto::getSold)
+                .toList();
+    }
+
+    private int countHolds(String requestId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_type_holds WHERE request_id = ?",
+                Integer.class, requestId);
+    }
+
+    private void insertRoom(String number) {
+        jdbcTemplate.update("INSERT INTO rooms (hotel_id, number, room_type, available, times_booked, version) " +
+                "VALUES (?, ?, ?, TRUE, 0, 0)", hotelId, number, TYPE);
+    }
+}
@@ -0,0 +1,91 @@
+package com.n1str.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты одной операции за окно замера. Задержка считается от запланированного момента отправки,
+ * а не от фактического: если генератор или пул соединений не успевают, это видно в перцентилях
+ * (поправка на coordinated omission).
+ * Ошибки - 5xx, таймауты, сетевые сбои и запросы, не отправленные из-за лимита max-in-flight;
+ * 4xx (занятый номер, повтор отмены) считаются отказами и в error rate не входят.
+ */
+public class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Operation operation;
+    private final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    public EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    public void recordResponse(int status, long latencyNanos) {
+        record(String.valueOf(status), latencyNanos);
+        if (status >= 500) {
+            errors.increment();
+        } else if (status >= 400) {
+            rejected.increment();
+        }
+    }
+
+    public void recordFailure(String reason, long latencyNanos) {
+        record(reason, latencyNanos);
+        errors.increment();
+    }
+
+    public void recordDropped() {
+        requests.increment();
+        errors.increment();
+        outcomes.computeIfAbsent("dropped", key -> new LongAdder()).increment();
+    }
+
+    private void record(String outcome, long latencyNanos) {
+        requests.increment();
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_TRACKABLE_MICROS));
+    }
+
+    public Map<String, Object> toReport(double measuredSeconds) {
+        long total = requests.sum();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("endpoint", operation.getEndpoint());
+        report.put("requests", total);
+        report.put("throughputPerSecond", round(total / measuredSeconds));
+        report.put("errors", errors.sum());
+        report.put("errorRate", total == 0 ? 0.0 : round((double) errors.sum() / total));
+        report.put("rejected", rejected.sum());
+        Map<String, Long> byOutcome = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> byOutcome.put(outcome, count.sum()));
+        report.put("outcomes", byOutcome);
+
+        Map<String, Object> latencyMs = new LinkedHashMap<>();
+        latencyMs.put("p50", millis(latency.getValueAtPercentile(50)));
+        latencyMs.put("p95", millis(latency.getValueAtPercentile(95)));
+        latencyMs.put("p99", millis(latency.getValueAtPercentile(99)));
+        latencyMs.put("max", millis(latency.getMaxValue()));
+        latencyMs.put("mean", round(latency.getMean() / 1000.0));
+        report.put("latencyMs", latencyMs);
+        return report;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.n1str.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: у каждой операции свой поток-диспетчер, который отправляет запросы
+ * с заданной интенсивностью независимо от того, успел ли ответить предыдущий. Запросы асинхронные,
+ * одновременно в полёте не больше max-in-flight. Бронирования, созданные за прогон, попадают
+ * в очередь и отменяются операцией cancel.
+ */
+public class LoadDriver {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int SEARCH_HORIZON_DAYS = 180;
+    private static final int MAX_NIGHTS = 4;
+
+    private final LoadTestConfig config;
+    private final String gatewayUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Semaphore inFlight;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Queue<CreatedBooking> bookings = new ConcurrentLinkedQueue<>();
+    private final List<User> users = new ArrayList<>();
+    private final List<Long> roomIds = new ArrayList<>();
+    private volatile long measureFromNanos;
+
+    private record User(String username, String token) {
+    }
+
+    private record CreatedBooking(long id, String token) {
+    }
+
+    public LoadDriver(LoadTestConfig config, String gatewayUrl) {
+        this.config = config;
+        this.gatewayUrl = gatewayUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.getRequestTimeout())
+                .build();
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation));
+        }
+    }
+
+    /**
+     * Регистрирует пользователей сценария (имена уникальны для каждого прогона) и загружает список номеров.
+     */
+    public void prepare() throws IOException, InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < config.getUsers(); i++) {
+            String username = "load-" + runId + "-" + i;
+            HttpResponse<String> response = send(post("/user/register", Map.of(
+                    "username", username,
+                    "password", PASSWORD,
+                    "email", username + "@load.test",
+                    "fullName", "Load Test " + i), null));
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Регистрация " + username + ": HTTP " + response.statusCode()
+                        + " " + response.body());
+            }
+            users.add(new User(username, objectMapper.readTree(response.body()).path("token").asText()));
+        }
+
+        HttpResponse<String> rooms = send(get("/api/rooms", users.get(0).token()));
+        if (rooms.statusCode() != 200) {
+            throw new IllegalStateException("Список номеров: HTTP " + rooms.statusCode() + " " + rooms.body());
+        }
+        for (JsonNode room : objectMapper.readTree(rooms.body())) {
+            roomIds.add(room.path("id").asLong());
+        }
+        if (roomIds.isEmpty()) {
+            throw new IllegalStateException("В Hotel Service нет доступных номеров");
+        }
+        System.out.printf("Подготовлено: %d пользователей, %d номеров%n", users.size(), roomIds.size());
+    }
+
+    /**
+     * Прогрев и замер одним непрерывным прогоном; в статистику попадают запросы,
+     * запланированные после окончания прогрева. Возвращает длительность окна замера в секундах.
+     */
+    public double run() throws InterruptedException {
+        long startNanos = System.nanoTime();
+        measureFromNanos = startNanos + config.getWarmup().toNanos();
+        long endNanos = measureFromNanos + config.getDuration().toNanos();
+
+        List<Thread> dispatchers = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            double rate = config.getRate(operation);
+            if (rate <= 0) {
+                continue;
+            }
+            SplittableRandom random = new SplittableRandom(config.getSeed() + operation.ordinal());
+            Thread dispatcher = new Thread(() -> dispatch(operation, rate, startNanos, endNanos, random),
+                    "load-" + operation.getKey());
+            dispatcher.start();
+            dispatchers.add(dispatcher);
+        }
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        // Ждём ответы на уже отправленные запросы
+        long drainMillis = config.getRequestTimeout().toMillis() + 1000;
+        if (inFlight.tryAcquire(config.getMaxInFlight(), drainMillis, TimeUnit.MILLISECONDS)) {
+            inFlight.release(config.getMaxInFlight());
+        }
+        return config.getDuration().toNanos() / 1e9;
+    }
+
+    public Map<Operation, EndpointStats> getStats() {
+        return stats;
+    }
+
+    private void dispatch(Operation operation, double rate, long startNanos, long endNanos, SplittableRandom random) {
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        for (long scheduled = startNanos; scheduled < endNanos; scheduled += intervalNanos) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            fire(operation, scheduled, random);
+        }
+    }
+
+    private void fire(Operation operation, long scheduledNanos, SplittableRandom random) {
+        boolean measured = scheduledNanos >= measureFromNanos;
+        HttpRequest request = buildRequest(operation, random);
+        if (request == null) {
+            return;
+        }
+        EndpointStats endpoint = stats.get(operation);
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                endpoint.recordDropped();
+            }
+            return;
+        }
+        CompletableFuture<HttpResponse<String>> future =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        future.whenComplete((response, error) -> {
+            try {
+                long latency = System.nanoTime() - scheduledNanos;
+                if (error != null) {
+                    if (measured) {
+                        endpoint.recordFailure(failureReason(error), latency);
+                    }
+                    return;
+                }
+                if (measured) {
+                    endpoint.recordResponse(response.statusCode(), latency);
+                }
+                if (response.statusCode() == 201) {
+                    rememberBooking(request, response);
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private HttpRequest buildRequest(Operation operation, SplittableRandom random) {
+        User user = users.get(random.nextInt(users.size()));
+        LocalDate start = LocalDate.now().plusDays(1 + random.nextInt(SEARCH_HORIZON_DAYS));
+        LocalDate end = start.plusDays(1 + random.nextInt(MAX_NIGHTS));
+        return switch (operation) {
+            case LOGIN -> post("/user/auth", Map.of("username", user.username(), "password", PASSWORD), null);
+            case SEARCH -> get("/api/rooms/free?startDate=" + start + "&endDate=" + end, user.token());
+            case AUTO_BOOK -> post("/booking", Map.of(
+                    "startDate", start.toString(),
+                    "endDate", end.toString(),
+                    "autoSelect", true), user.token());
+            case MANUAL_BOOK -> post("/booking", Map.of(
+                    "roomId", roomIds.get(random.nextInt(roomIds.size())),
+                    "startDate", start.toString(),
+                    "endDate", end.toString(),
+                    "autoSelect", false), user.token());
+            case CANCEL -> {
+                CreatedBooking booking = bookings.poll();
+                // Отменять пока нечего - пропускаем слот, а не шлём заведомо лишний запрос
+                yield booking == null ? null : delete("/booking/" + booking.id(), booking.token());
+            }
+        };
+    }
+
+    private void rememberBooking(HttpRequest request, HttpResponse<String> response) {
+        if (!"POST".equals(request.method()) || !request.uri().getPath().equals("/booking")) {
+            return;
+        }
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            String token = request.headers().firstValue("Authorization").orElse("").substring("Bearer ".length());
+            bookings.add(new CreatedBooking(body.path("id").asLong(), token));
+        } catch (IOException | RuntimeException e) {
+            // Тело не разобралось - бронирование просто не попадёт в очередь отмен
+        }
+    }
+
+    private static String failureReason(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException ? "timeout" : "io_error";
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path, String token) {
+        return withAuth(HttpRequest.newBuilder(URI.create(gatewayUrl + path)).GET(), token).build();
+    }
+
+    private HttpRequest delete(String path, String token) {
+        return withAuth(HttpRequest.newBuilder(URI.create(gatewayUrl + path)).DELETE(), token).build();
+    }
+
+    private HttpRequest post(String path, Map<String, ?> body, String token) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+            return withAuth(builder, token).build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest.Builder withAuth(HttpRequest.Builder builder, String token) {
+        builder.timeout(config.getRequestTimeout());
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+}
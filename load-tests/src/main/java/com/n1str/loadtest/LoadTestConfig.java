@@ -0,0 +1,157 @@
+package com.n1str.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона из аргументов вида --key=value.
+ * Интенсивность задаётся отдельно на каждую операцию (--rate.search=50 - 50 запросов в секунду),
+ * 0 выключает операцию.
+ */
+public class LoadTestConfig {
+
+    private Path projectDir = Path.of("..");
+    private Path report = Path.of("target", "load-test-report.json");
+    // Пусто - поднять Eureka, Gateway и оба сервиса локальными JVM; иначе нагружать уже запущенный Gateway
+    private String gatewayUrl;
+    private String servicesProfile = "";
+    private Duration warmup = Duration.ofSeconds(15);
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration startupTimeout = Duration.ofMinutes(3);
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private int users = 20;
+    private int maxInFlight = 512;
+    private long seed = 42L;
+    private final Map<Operation, Double> rates = new EnumMap<>(Operation.class);
+
+    public LoadTestConfig() {
+        rates.put(Operation.LOGIN, 1.0);
+        rates.put(Operation.SEARCH, 20.0);
+        rates.put(Operation.AUTO_BOOK, 3.0);
+        rates.put(Operation.MANUAL_BOOK, 3.0);
+        rates.put(Operation.CANCEL, 2.0);
+    }
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (key.startsWith("rate.")) {
+                config.rates.put(Operation.fromKey(key.substring("rate.".length())), Double.parseDouble(value));
+                continue;
+            }
+            switch (key) {
+                case "project-dir" -> config.projectDir = Path.of(value);
+                case "report" -> config.report = Path.of(value);
+                case "gateway-url" -> config.gatewayUrl = value.isBlank() ? null : value;
+                case "services-profile" -> config.servicesProfile = value;
+                case "warmup" -> config.warmup = Duration.parse(value);
+                case "duration" -> config.duration = Duration.parse(value);
+                case "startup-timeout" -> config.startupTimeout = Duration.parse(value);
+                case "request-timeout" -> config.requestTimeout = Duration.parse(value);
+                case "users" -> config.users = Integer.parseInt(value);
+                case "max-in-flight" -> config.maxInFlight = Integer.parseInt(value);
+                case "seed" -> config.seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: --" + key);
+            }
+        }
+        config.validate();
+        return config;
+    }
+
+    private void validate() {
+        if (users < 1) {
+            throw new IllegalArgumentException("--users должно быть >= 1");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("--max-in-flight должно быть >= 1");
+        }
+        if (duration.isZero() || duration.isNegative() || warmup.isNegative()) {
+            throw new IllegalArgumentException("--duration должно быть > 0, --warmup >= 0");
+        }
+        rates.forEach((operation, rate) -> {
+            if (rate < 0) {
+                throw new IllegalArgumentException("--rate." + operation.getKey() + " должно быть >= 0");
+            }
+        });
+    }
+
+    public Path getProjectDir() {
+        return projectDir;
+    }
+
+    public Path getReport() {
+        return report;
+    }
+
+    public String getGatewayUrl() {
+        return gatewayUrl;
+    }
+
+    public String getServicesProfile() {
+        return servicesProfile;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getStartupTimeout() {
+        return startupTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getRate(Operation operation) {
+        return rates.getOrDefault(operation, 0.0);
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("gatewayUrl", gatewayUrl != null ? gatewayUrl : "local");
+        description.put("servicesProfile", servicesProfile.isEmpty() ? "default" : servicesProfile);
+        description.put("warmupSeconds", warmup.toSeconds());
+        description.put("durationSeconds", duration.toSeconds());
+        description.put("users", users);
+        description.put("maxInFlight", maxInFlight);
+        description.put("seed", seed);
+        Map<String, Double> ratesPerSecond = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            ratesPerSecond.put(operation.getKey(), getRate(operation));
+        }
+        description.put("ratesPerSecond", ratesPerSecond);
+        return description;
+    }
+}
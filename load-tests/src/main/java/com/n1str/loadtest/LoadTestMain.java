@@ -0,0 +1,81 @@
+package com.n1str.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Сквозной нагрузочный прогон через Gateway: login, поиск свободных номеров, автоматическое и ручное
+ * бронирование, отмена. Итог - JSON-отчёт (по умолчанию target/load-test-report.json) с p50/p95/p99,
+ * долей ошибок и пропускной способностью по каждой операции; отчёты разных прогонов сравниваются между собой.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Instant startedAt = Instant.now();
+
+        Map<String, Object> report;
+        if (config.getGatewayUrl() != null) {
+            report = runAgainst(config, config.getGatewayUrl(), startedAt);
+        } else {
+            try (LocalStack stack = new LocalStack(config)) {
+                report = runAgainst(config, stack.start(), startedAt);
+            }
+        }
+
+        Path output = config.getReport();
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(output.toFile(), report);
+        System.out.println(mapper.writeValueAsString(report.get("operations")));
+        System.out.println("Отчёт: " + output.toAbsolutePath());
+    }
+
+    private static Map<String, Object> runAgainst(LoadTestConfig config, String gatewayUrl, Instant startedAt)
+            throws Exception {
+        LoadDriver driver = new LoadDriver(config, gatewayUrl);
+        driver.prepare();
+        System.out.printf("Прогрев %ds, замер %ds%n", config.getWarmup().toSeconds(), config.getDuration().toSeconds());
+        double measuredSeconds = driver.run();
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, EndpointStats> entry : driver.getStats().entrySet()) {
+            if (config.getRate(entry.getKey()) <= 0) {
+                continue;
+            }
+            Map<String, Object> operationReport = entry.getValue().toReport(measuredSeconds);
+            requests += (long) operationReport.get("requests");
+            errors += (long) operationReport.get("errors");
+            operations.put(entry.getKey().getKey(), operationReport);
+        }
+
+        Map<String, Object> total = new LinkedHashMap<>();
+        total.put("requests", requests);
+        total.put("throughputPerSecond", Math.round(requests / measuredSeconds * 1000.0) / 1000.0);
+        total.put("errorRate", requests == 0 ? 0.0 : Math.round((double) errors / requests * 1000.0) / 1000.0);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt);
+        report.put("config", config.describe());
+        report.put("total", total);
+        report.put("operations", operations);
+        return report;
+    }
+}
@@ -0,0 +1,110 @@
+package com.n1str.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eureka, Hotel Service, Booking Service и Gateway отдельными локальными JVM из собранных jar
+ * (mvn package -DskipTests). Порты - стандартные из application.yml, вывод каждого процесса
+ * пишется в target/load-test-logs/<сервис>.log.
+ */
+public class LocalStack implements AutoCloseable {
+
+    private static final String VERSION = "1.0.0";
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final List<Process> processes = new ArrayList<>();
+
+    public LocalStack(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Запускает сервисы по порядку и ждёт готовности каждого; возвращает URL Gateway.
+     */
+    public String start() throws IOException, InterruptedException {
+        Path logDir = Path.of("target", "load-test-logs");
+        Files.createDirectories(logDir);
+
+        long deadline = System.nanoTime() + config.getStartupTimeout().toNanos();
+        launch("eureka-server", "eureka-server-" + VERSION + ".jar", logDir);
+        awaitHttp("http://localhost:8761/", deadline);
+        launch("hotel-service", "hotel-service-" + VERSION + "-exec.jar", logDir);
+        launch("booking-service", "booking-service-" + VERSION + ".jar", logDir);
+        awaitHttp("http://localhost:8081/actuator/health", deadline);
+        awaitHttp("http://localhost:8082/actuator/health", deadline);
+        launch("api-gateway", "api-gateway-" + VERSION + ".jar", logDir);
+        awaitHttp("http://localhost:8080/actuator/health", deadline);
+        // Gateway узнаёт о сервисах из Eureka не сразу: пока маршрут отвечает 503, экземпляров ещё нет
+        awaitHttp("http://localhost:8080/bookings", deadline);
+        awaitHttp("http://localhost:8080/api/rooms", deadline);
+        return "http://localhost:8080";
+    }
+
+    private void launch(String module, String jarName, Path logDir) throws IOException {
+        Path jar = config.getProjectDir().resolve(module).resolve("target").resolve(jarName);
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("Не найден " + jar + " - сначала выполните mvn package -DskipTests");
+        }
+        List<String> command = new ArrayList<>(List.of("java", "-Xmx512m", "-jar", jar.toString()));
+        if (!config.getServicesProfile().isEmpty()) {
+            command.add("--spring.profiles.active=" + config.getServicesProfile());
+        }
+        Path log = logDir.resolve(module + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        processes.add(process);
+        System.out.printf("Запущен %s (pid %d), лог: %s%n", module, process.pid(), log);
+    }
+
+    private void awaitHttp(String url, long deadline) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).GET().build();
+        while (System.nanoTime() < deadline) {
+            for (Process process : processes) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Процесс " + process.pid() + " завершился при старте, см. target/load-test-logs");
+                }
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Ещё не слушает порт
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Не дождались готовности " + url);
+    }
+
+    @Override
+    public void close() {
+        // Останавливаем в обратном порядке: сначала Gateway, Eureka последней
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            Process process = processes.get(i);
+            process.destroy();
+            try {
+                if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.n1str.loadtest;
+
+/**
+ * Операции нагрузочного сценария; key - имя в аргументах (--rate.search) и в отчёте.
+ */
+public enum Operation {
+
+    LOGIN("login", "POST /user/auth"),
+    SEARCH("search", "GET /api/rooms/free"),
+    AUTO_BOOK("autoBook", "POST /booking (autoSelect)"),
+    MANUAL_BOOK("manualBook", "POST /booking (roomId)"),
+    CANCEL("cancel", "DELETE /booking/{id}");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная операция: " + key);
+    }
+}
@@ -0,0 +1,231 @@
+package com.n1str.common.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Выбор экземпляра по задержке (peak EWMA + power of two choices): из двух случайных экземпляров берётся
+ * тот, у кого меньше стоимость = сглаженное время ответа × (запросов в полёте + 1). Сглаживание "пиковое":
+ * рост задержки принимается сразу, снижение - с постоянной времени decay, поэтому притормозивший экземпляр
+ * быстро теряет трафик и постепенно получает его обратно.
+ * Время ответа и исход поступают через LoadBalancerLifecycle от Feign и Gateway. После failuresToEject
+ * ошибок подряд (нет ответа или 5xx, кроме 503) экземпляр исключается на ejectionTime; если исключены все -
+ * выбор идёт среди всех.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    // Стоимость экземпляра без замеров, у которого уже есть запросы в полёте: не даём завалить его до первого ответа
+    private static final double UNKNOWN_LATENCY_PENALTY_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final double decayNanos;
+    private final int failuresToEject;
+    private final long ejectionNanos;
+    private final LongSupplier clock;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                String serviceId, Duration decay, int failuresToEject, Duration ejectionTime,
+                                LongSupplier clock) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = decay.toNanos();
+        this.failuresToEject = failuresToEject;
+        this.ejectionNanos = ejectionTime.toNanos();
+        this.clock = clock;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier =
+                serviceInstanceListSupplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("Нет доступных экземпляров сервиса {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (stats.size() > 2 * instances.size()) {
+            List<String> current = instances.stream().map(PeakEwmaLoadBalancer::key).toList();
+            stats.keySet().retainAll(current);
+        }
+
+        long now = clock.getAsLong();
+        List<ServiceInstance> candidates = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            InstanceStats instanceStats = stats.get(key(instance));
+            if (instanceStats == null || !instanceStats.isEjected(now)) {
+                candidates.add(instance);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(cost(a, now) <= cost(b, now) ? a : b);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() != null) {
+            request.getContext().setRequestStartTime(clock.getAsLong());
+        }
+        statsFor(lbResponse.getServer()).start();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        long now = clock.getAsLong();
+        long rtt = -1;
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() != null && request.getContext().getRequestStartTime() > 0) {
+            rtt = now - request.getContext().getRequestStartTime();
+        }
+        ResponseData response = completionContext.getClientResponse();
+        HttpStatusCode status = response != null ? response.getHttpStatus() : null;
+        // 503 и 429 - экземпляр жив, но сбрасывает нагрузку (bulkhead, очередь допуска): исключение переложило бы
+        // её на остальные экземпляры. Его задержка и так растёт в оценке
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (status != null && status.is5xxServerError()
+                        && status.value() != HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        if (statsFor(instance).complete(now, rtt, failed)) {
+            log.warn("Экземпляр {} сервиса {} исключён на {} мс после {} ошибок подряд",
+                    key(instance), serviceId, ejectionNanos / 1_000_000, failuresToEject);
+        }
+    }
+
+    double cost(ServiceInstance instance, long now) {
+        InstanceStats instanceStats = stats.get(key(instance));
+        return instanceStats == null ? 0 : instanceStats.cost(now);
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats(clock.getAsLong()));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private final class InstanceStats {
+
+        private double ewmaNanos;
+        private long stamp;
+        private int outstanding;
+        private int consecutiveFailures;
+        private long ejectedUntil;
+
+        InstanceStats(long now) {
+            this.stamp = now;
+        }
+
+        synchronized void start() {
+            outstanding++;
+        }
+
+        /**
+         * true - экземпляр только что исключён.
+         */
+        synchronized boolean complete(long now, long rttNanos, boolean failed) {
+            outstanding = Math.max(0, outstanding - 1);
+            if (rttNanos >= 0) {
+                observe(now, rttNanos);
+            }
+            if (!failed) {
+                consecutiveFailures = 0;
+                return false;
+            }
+            consecutiveFailures++;
+            if (consecutiveFailures < failuresToEject) {
+                return false;
+            }
+            consecutiveFailures = 0;
+            ejectedUntil = now + ejectionNanos;
+            return true;
+        }
+
+        synchronized boolean isEjected(long now) {
+            return now < ejectedUntil;
+        }
+
+        synchronized double cost(long now) {
+            // Без новых замеров оценка затухает к нулю - медленный экземпляр со временем снова пробуется
+            observe(now, 0);
+            if (ewmaNanos == 0 && outstanding > 0) {
+                return UNKNOWN_LATENCY_PENALTY_NANOS * outstanding;
+            }
+            return ewmaNanos * (outstanding + 1);
+        }
+
+        private void observe(long now, double rttNanos) {
+            long elapsed = Math.max(0, now - stamp);
+            stamp = now;
+            if (rttNanos > ewmaNanos) {
+                ewmaNanos = rttNanos;
+            } else {
+                double weight = Math.exp(-elapsed / decayNanos);
+                ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.n1str.common.loadbalancer;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Конфигурация дочернего контекста LoadBalancer, создаётся отдельно для каждого клиента: в Gateway - для
+ * каждого сервиса за lb://, в booking-service - для hotel-service. Без @Configuration намеренно: из component
+ * scan получился бы один балансировщик без имени сервиса.
+ * Тип бина - PeakEwmaLoadBalancer, чтобы Spring Cloud нашёл его и как LoadBalancerLifecycle.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public PeakEwmaLoadBalancer peakEwmaLoadBalancer(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        // Binder, а не @Value: в дочернем контексте нет ConversionService Boot, и строка "10s" не станет Duration
+        Binder binder = Binder.get(environment);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                binder.bind("loadbalancer.peak-ewma.decay", Duration.class).orElse(Duration.ofSeconds(10)),
+                binder.bind("loadbalancer.peak-ewma.failures-to-eject", Integer.class).orElse(3),
+                binder.bind("loadbalancer.peak-ewma.ejection-time", Duration.class).orElse(Duration.ofSeconds(30)),
+                System::nanoTime);
+    }
+}
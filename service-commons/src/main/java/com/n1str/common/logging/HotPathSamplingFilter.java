@@ -0,0 +1,126 @@
+package com.n1str.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Прореживание логов горячих путей (профиль prod, logback-spring.xml api-gateway, hotel-service и booking-service).
+ * Для логгеров из списка каждая строка-шаблон пропускается не чаще permitsPerSecond раз в секунду,
+ * остальные события отбрасываются до форматирования сообщения. События выше maxLevel (по умолчанию
+ * всё, что серьёзнее INFO) проходят всегда.
+ * Окна считаются по шаблону, и их не больше maxTemplates: шаблон, собранный конкатенацией, каждый раз новый.
+ * Когда место кончилось, окна, не использованные в текущей секунде, удаляются (не чаще раза в секунду),
+ * а если и это не помогло - новые шаблоны делят одно общее окно.
+ */
+public class HotPathSamplingFilter extends TurboFilter {
+
+    private final List<String> loggers = new ArrayList<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final Window overflow = new Window();
+    private volatile long lastEviction;
+    private int permitsPerSecond = 20;
+    private int maxTemplates = 1000;
+    private Level maxLevel = Level.INFO;
+
+    public void addLogger(String logger) {
+        loggers.add(logger);
+    }
+
+    public void setPermitsPerSecond(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public void setMaxTemplates(int maxTemplates) {
+        this.maxTemplates = maxTemplates;
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+
+    @Override
+    public void start() {
+        if (permitsPerSecond < 1) {
+            addError("permitsPerSecond должно быть >= 1");
+            return;
+        }
+        if (maxTemplates < 1) {
+            addError("maxTemplates должно быть >= 1");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        // format == null - это проверка isDebugEnabled() и подобные, их не прореживаем
+        if (!isStarted() || format == null || level.toInt() > maxLevel.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        // Событие, которое уровень логгера и так отбросит, не должно тратить разрешения
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel()) || !isHotPath(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        return windowFor(format, now).tryAcquire(now, permitsPerSecond)
+                ? FilterReply.NEUTRAL
+                : FilterReply.DENY;
+    }
+
+    private Window windowFor(String format, long now) {
+        Window window = windows.get(format);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= maxTemplates) {
+            evictIdle(now);
+            if (windows.size() >= maxTemplates) {
+                return overflow;
+            }
+        }
+        return windows.computeIfAbsent(format, key -> new Window());
+    }
+
+    private void evictIdle(long now) {
+        if (lastEviction == now) {
+            return;
+        }
+        lastEviction = now;
+        windows.values().removeIf(window -> window.isIdle(now));
+    }
+
+    private boolean isHotPath(String name) {
+        for (String prefix : loggers) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Window {
+        private long second;
+        private int used;
+
+        synchronized boolean tryAcquire(long now, int permits) {
+            if (now != second) {
+                second = now;
+                used = 0;
+            }
+            return ++used <= permits;
+        }
+
+        synchronized boolean isIdle(long now) {
+            return second != now;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.n1str.common.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakEwmaLoadBalancerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final ServiceInstance first = instance("hotel-1", 8081);
+    private final ServiceInstance second = instance("hotel-2", 8081);
+    private final ServiceInstance third = instance("hotel-3", 8081);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MS);
+    private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(
+            null, "hotel-service", Duration.ofSeconds(10), 3, Duration.ofSeconds(30), clock::get);
+
+    @Test
+    void choose_ShouldRouteAwayFromSlowInstance() {
+        Map<ServiceInstance, Long> latencies = Map.of(first, 10 * MS, second, 10 * MS, third, 200 * MS);
+        Map<ServiceInstance, Integer> hits = new HashMap<>();
+
+        for (int i = 0; i < 3000; i++) {
+            ServiceInstance chosen = call(List.of(first, second, third), latencies, HttpStatus.OK);
+            hits.merge(chosen, 1, Integer::sum);
+        }
+
+        assertTrue(hits.getOrDefault(third, 0) < 30, "медленный экземпляр получил " + hits.get(third));
+        assertTrue(hits.get(first) > 1000);
+        assertTrue(hits.get(second) > 1000);
+    }
+
+    @Test
+    void choose_ShouldPreferInstanceWithFewerOutstandingRequests() {
+        // Одинаковая задержка у обоих, но у первого пять запросов ещё в полёте
+        call(List.of(first), Map.of(first, 10 * MS), HttpStatus.OK);
+        call(List.of(second), Map.of(second, 10 * MS), HttpStatus.OK);
+        for (int i = 0; i < 5; i++) {
+            loadBalancer.onStartRequest(request(), response(first));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(second, loadBalancer.choose(List.of(first, second)).getServer());
+        }
+    }
+
+    @Test
+    void choose_ShouldEjectFailingInstance_AndReturnItAfterEjectionTime() {
+        // Отказывающий экземпляр отвечает быстрее - без исключения он забирал бы почти весь трафик
+        Map<ServiceInstance, Long> latencies = Map.of(first, 10 * MS, second, MS);
+        List<ServiceInstance> instances = List.of(first, second);
+        for (int i = 0; i < 3; i++) {
+            ServiceInstance chosen = loadBalancer.choose(List.of(second)).getServer();
+            complete(chosen, latencies.get(chosen), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertSame(first, call(instances, latencies, HttpStatus.OK));
+        }
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        boolean returned = false;
+        for (int i = 0; i < 20 && !returned; i++) {
+            returned = call(instances, latencies, HttpStatus.OK) == second;
+        }
+        assertTrue(returned);
+    }
+
+    @Test
+    void onComplete_ShouldNotEject_WhenInstanceShedsLoad() {
+        // 503 и 429 отдаёт живой, но перегруженный экземпляр - он остаётся в выборе и, будучи быстрее, выигрывает
+        complete(first, 100 * MS, HttpStatus.OK);
+        for (HttpStatus status : List.of(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.TOO_MANY_REQUESTS)) {
+            for (int i = 0; i < 5; i++) {
+                complete(second, MS, status);
+            }
+        }
+
+        assertSame(second, loadBalancer.choose(List.of(first, second)).getServer());
+    }
+
+    @Test
+    void choose_ShouldFallBackToAllInstances_WhenAllEjected() {
+        for (ServiceInstance instance : List.of(first, second)) {
+            for (int i = 0; i < 3; i++) {
+                complete(instance, MS, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        }
+
+        Response<ServiceInstance> response = loadBalancer.choose(List.of(first, second));
+
+        assertTrue(response.hasServer());
+    }
+
+    @Test
+    void choose_ShouldReturnEmptyResponse_WhenNoInstances() {
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+
+    private ServiceInstance call(List<ServiceInstance> instances, Map<ServiceInstance, Long> latencies, HttpStatus status) {
+        ServiceInstance chosen = loadBalancer.choose(instances).getServer();
+        complete(chosen, latencies.get(chosen), status);
+        clock.addAndGet(MS);
+        return chosen;
+    }
+
+    private void complete(ServiceInstance instance, long latency, HttpStatus status) {
+        Request<RequestDataContext> request = request();
+        Response<ServiceInstance> lbResponse = response(instance);
+        loadBalancer.onStartRequest(request, lbResponse);
+        clock.addAndGet(latency);
+        ResponseData responseData = new ResponseData(status, new HttpHeaders(), null, null);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse, responseData));
+    }
+
+    private static Request<RequestDataContext> request() {
+        return new DefaultRequest<>(new RequestDataContext());
+    }
+
+    private static Response<ServiceInstance> response(ServiceInstance instance) {
+        return new DefaultResponse(instance);
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host + ":" + port, "hotel-service", host, port, false);
+    }
+}
@@ -0,0 +1,88 @@
+package com.n1str.common.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotPathSamplingFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private HotPathSamplingFilter filter;
+    private Logger hotLogger;
+
+    @BeforeEach
+    void setUp() {
+        filter = new HotPathSamplingFilter();
+        filter.setContext(context);
+        filter.addLogger("com.n1str.hotel.service.RoomBlockService");
+        filter.setPermitsPerSecond(3);
+        filter.start();
+
+        hotLogger = context.getLogger("com.n1str.hotel.service.RoomBlockService");
+        hotLogger.setLevel(Level.DEBUG);
+    }
+
+    @Test
+    void decide_ShouldDenyRepeatsOfSameMessage_AfterPermitsAreUsed() {
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(null, hotLogger, Level.INFO, "[requestId:{}] HOLD создан", new Object[]{i}, null)
+                    == FilterReply.NEUTRAL) {
+                allowed++;
+            }
+        }
+
+        // Все 100 вызовов укладываются в одну-две секунды
+        assertTrue(allowed >= 3 && allowed <= 6, "allowed=" + allowed);
+        // Другой шаблон считается отдельно
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, hotLogger, Level.INFO, "[requestId:{}] Блок уже подтверждён", null, null));
+    }
+
+    @Test
+    void decide_ShouldNotSampleWarnings_AndOtherLoggers() {
+        Logger other = context.getLogger("com.n1str.hotel.service.HotelService");
+        other.setLevel(Level.DEBUG);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL,
+                    filter.decide(null, hotLogger, Level.WARN, "[requestId:{}] Номер занят", null, null));
+            assertEquals(FilterReply.NEUTRAL,
+                    filter.decide(null, other, Level.INFO, "Отель {} найден", null, null));
+        }
+    }
+
+    @Test
+    void decide_ShouldShareOneWindow_WhenTemplatesExceedLimit() {
+        filter.setMaxTemplates(2);
+
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            // Шаблон, собранный конкатенацией, - каждый раз новый
+            if (filter.decide(null, hotLogger, Level.INFO, "HOLD " + i + " создан", null, null) == FilterReply.NEUTRAL) {
+                allowed++;
+            }
+        }
+
+        // Два шаблона со своими окнами, остальные делят общее: 3 разрешения в секунду, за одну-две секунды
+        assertTrue(allowed >= 5 && allowed <= 8, "allowed=" + allowed);
+    }
+
+    @Test
+    void decide_ShouldNotSpendPermits_OnEventsBelowLoggerLevel() {
+        hotLogger.setLevel(Level.INFO);
+
+        for (int i = 0; i < 100; i++) {
+            filter.decide(null, hotLogger, Level.DEBUG, "[requestId:{}] HOLD создан", null, null);
+        }
+
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, hotLogger, Level.INFO, "[requestId:{}] HOLD создан", null, null));
+    }
+}